@@ -0,0 +1,69 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷却缓存在多线程下的读写：每个链接先查一次冷却（get），解析完成后写入（set），读多写少。
+ * 读写线程共享同一个缓存实例，键在固定的范围内随机选取，缓存保持在接近上限的状态。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpiringCacheBenchmark {
+
+    /**
+     * 键的取值范围，大于缓存上限时写入会触发淘汰
+     */
+    @Param({"1000", "20000"})
+    public int keys;
+
+    private ExpiringCache cache;
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        cache = new ExpiringCache(600);
+        values = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            values[i] = (100000000L + i) + ":video:BV1GJ411x" + i;
+            if ((i & 1) == 0) {
+                cache.set(values[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("cooldown")
+    @GroupThreads(6)
+    public boolean get() {
+        return cache.get(values[ThreadLocalRandom.current().nextInt(values.length)]);
+    }
+
+    @Benchmark
+    @Group("cooldown")
+    @GroupThreads(2)
+    public void set() {
+        cache.set(values[ThreadLocalRandom.current().nextInt(values.length)]);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷却缓存的大量写入与过期：向一个新的缓存依次写入 inserts 个不同的值，写完后查询最早写入的一批值。
+ * - fifo：当前的 {@link ExpiringCache}，写入时从队头清理过期条目，条目数有上限
+ * - timer：原实现 {@link LegacyExpiringCache}，每个条目调度一个定时删除任务
+ * <p>
+ * ttlSeconds 为 1 时写入过程中就有条目陆续过期，为 60 时只有写入。
+ * 原实现的删除任务在有效期内一直持有整个缓存，堆需要容纳若干轮的全部条目，因此固定了 -Xmx。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-11:10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExpiringCacheChurnBenchmark {
+
+    /**
+     * 两种实现共同的读写接口
+     */
+    private interface Cache {
+        void set(String value);
+
+        boolean get(String value);
+    }
+
+    @Param({"fifo", "timer"})
+    public String impl;
+
+    @Param({"1", "60"})
+    public long ttlSeconds;
+
+    @Param({"1000000"})
+    public int inserts;
+
+    private String[] values;
+    private Cache cache;
+
+    @Setup(Level.Trial)
+    public void setUpValues() {
+        values = new String[inserts];
+        for (int i = 0; i < inserts; i++) {
+            values[i] = (100000000L + i) + ":video:BV1GJ411x" + i;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpCache() {
+        cache = switch (impl) {
+            case "fifo" -> {
+                ExpiringCache c = new ExpiringCache(ttlSeconds);
+                yield new Cache() {
+                    public void set(String value) {
+                        c.set(value);
+                    }
+
+                    public boolean get(String value) {
+                        return c.get(value);
+                    }
+                };
+            }
+            case "timer" -> {
+                LegacyExpiringCache c = new LegacyExpiringCache(ttlSeconds);
+                yield new Cache() {
+                    public void set(String value) {
+                        c.set(value);
+                    }
+
+                    public boolean get(String value) {
+                        return c.get(value);
+                    }
+                };
+            }
+            default -> throw new IllegalArgumentException(impl);
+        };
+    }
+
+    /**
+     * @return 最早写入的 1000 个值中仍在缓存中的个数
+     */
+    @Benchmark
+    public int insertAndExpire() {
+        for (String value : values) {
+            cache.set(value);
+        }
+        int hits = 0;
+        for (int i = 0; i < Math.min(1000, values.length); i++) {
+            if (cache.get(values[i])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
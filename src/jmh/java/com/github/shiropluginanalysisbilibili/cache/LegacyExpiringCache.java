@@ -0,0 +1,52 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 原 ExpiringCache 的实现，原样保留，只改了类名，作为 {@link ExpiringCacheChurnBenchmark} 的对照：
+ * 每个条目在共享的定时线程池上调度一个删除任务，没有条目数上限。
+ * <p>
+ * 简单的过期缓存：保存一组字符串（url 等），在 expireSeconds 后自动移除。
+ * 如果 expireSeconds <= 0，则每次 set() 都会先清空（与 Python 版本行为一致）。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-11:00
+ */
+public class LegacyExpiringCache {
+    private final Set<String> cache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final long expireSeconds;
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5);
+
+    public LegacyExpiringCache(long expireSeconds) {
+        this.expireSeconds = expireSeconds;
+    }
+
+    public void set(String value) {
+        if (cache.contains(value)) {
+            return;
+        }
+        if (expireSeconds <= 0) {
+            cache.clear();
+        }
+        cache.add(value);
+        if (expireSeconds > 0) {
+            scheduler.schedule(() -> {
+                cache.remove(value);
+            }, expireSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean get(String value) {
+        return cache.contains(value);
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+}
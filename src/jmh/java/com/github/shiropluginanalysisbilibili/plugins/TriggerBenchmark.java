@@ -0,0 +1,89 @@
+package com.github.shiropluginanalysisbilibili.plugins;
+
+import com.github.shiropluginanalysisbilibili.utils.LinkPrefilter;
+import com.github.shiropluginanalysisbilibili.utils.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * 群消息的链接触发：每条群消息都要经过，绝大多数消息与 B 站无关。
+ * - regex：直接用 TRIGGER_PATTERN 查找所有捕获（预筛之前的做法）
+ * - prefilter：只做关键字预筛
+ * - prefilterThenRegex：插件当前的做法，预筛通过后才用正则
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerBenchmark {
+
+    /**
+     * - chat：普通聊天，不含任何关键字
+     * - chat_long：较长的普通聊天，带表情与图片 CQ 码
+     * - near_miss：含 av / bv 等字母但不是链接
+     * - url：视频链接
+     * - text_ids：文本中的 BV 号与 av 号
+     * - mini_app：QQ 小程序分享
+     */
+    @Param({"chat", "chat_long", "near_miss", "url", "text_ids", "mini_app"})
+    public String message;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = switch (message) {
+            case "chat" -> "今晚有人一起打游戏吗，八点开黑";
+            case "chat_long" -> "[CQ:face,id=178]哈哈哈哈这个也太好笑了吧，我昨天也遇到了一样的情况，"
+                    + "[CQ:image,file=6a3e1f0c9b8d7e6f5a4b3c2d1e0f9a8b.image,subType=0,url=https://gchat.qpic.cn/gchatpic_new/0/0-0-6A3E1F0C/0?term=2]"
+                    + "最后还是重启了一下才好，大家有空可以试试看，不行的话再说";
+            case "near_miss" -> "have a nice day, avocado and cvs, obvious bv";
+            case "url" -> "快看这个 https://www.bilibili.com/video/BV1GJ411x7h7?p=2&share_source=copy_web 笑死";
+            case "text_ids" -> "BV1GJ411x7h7 和 av80433022 都看过了";
+            case "mini_app" -> Payloads.text("miniapp.txt");
+            default -> throw new IllegalArgumentException(message);
+        };
+    }
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        find(bh);
+    }
+
+    @Benchmark
+    public boolean prefilter() {
+        return LinkPrefilter.mayContainLink(text);
+    }
+
+    @Benchmark
+    public void prefilterThenRegex(Blackhole bh) {
+        if (LinkPrefilter.mayContainLink(text)) {
+            find(bh);
+        }
+    }
+
+    private void find(Blackhole bh) {
+        Matcher matcher = AnalysisBilibiliPlugin.TRIGGER_PATTERN.matcher(text);
+        while (matcher.find()) {
+            bh.consume(matcher.group(1));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.shiropluginanalysisbilibili.dto.ApiResult;
+import com.github.shiropluginanalysisbilibili.dto.ArticleInfo;
+import com.github.shiropluginanalysisbilibili.dto.DynamicInfo;
+import com.github.shiropluginanalysisbilibili.dto.LiveRoomInfo;
+import com.github.shiropluginanalysisbilibili.dto.SeasonInfo;
+import com.github.shiropluginanalysisbilibili.dto.VideoInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析回复所需的接口响应解码，输入为录制的完整响应：
+ * - stream：插件当前的做法，{@link BiliApiDecoder} 流式读取，跳过用不到的子树
+ * - tree：先 readTree 构建完整的 JsonNode 树，再用 path(...) 取出同样的字段
+ * 配合 -prof gc 可以对比两者每次解码的内存分配。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiDecodeBenchmark {
+
+    @Param({"video", "season", "live", "article", "dynamic"})
+    public String type;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] body;
+    private String dataField;
+    private BiliApiDecoder.DataDecoder<?> decoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = Payloads.bytes(type + ".json");
+        dataField = "season".equals(type) ? "result" : "data";
+        decoder = switch (type) {
+            case "video" -> BiliApiDecoder.VIDEO;
+            case "season" -> BiliApiDecoder.SEASON;
+            case "live" -> BiliApiDecoder.LIVE_ROOM;
+            case "article" -> BiliApiDecoder.ARTICLE;
+            case "dynamic" -> BiliApiDecoder.DYNAMIC;
+            default -> throw new IllegalArgumentException(type);
+        };
+        // 两种解码方式的结果必须一致，否则对比没有意义
+        Object streamed = stream().data();
+        Object tree = tree();
+        if (!Objects.equals(streamed, tree)) {
+            throw new IllegalStateException("解码结果不一致: " + streamed + " / " + tree);
+        }
+    }
+
+    @Benchmark
+    public ApiResult<?> stream() throws IOException {
+        // 与插件一样从字节流读取
+        try (JsonParser parser = mapper.getFactory().createParser(new ByteArrayInputStream(body))) {
+            return BiliApiDecoder.decode(parser, dataField, decoder);
+        }
+    }
+
+    @Benchmark
+    public Object tree() throws IOException {
+        JsonNode root = mapper.readTree(new ByteArrayInputStream(body));
+        return switch (type) {
+            case "video" -> video(root.path("data"));
+            case "season" -> season(root.path("result"));
+            case "live" -> liveRoom(root.path("data"));
+            case "article" -> article(root.path("data"));
+            case "dynamic" -> dynamic(root.path("data").path("item"));
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    private static VideoInfo video(JsonNode data) {
+        JsonNode stat = data.path("stat");
+        return new VideoInfo(data.path("bvid").asText(""), data.path("aid").asLong(0L), data.path("cid").asLong(0L),
+                data.path("title").asText(""), data.path("desc").asText(""), data.path("pic").asText(""),
+                data.path("duration").asLong(0L),
+                stat.isObject() ? new VideoInfo.Stat(stat.path("view").asLong(0L), stat.path("danmaku").asLong(0L),
+                        stat.path("like").asLong(0L)) : null);
+    }
+
+    private static SeasonInfo season(JsonNode res) {
+        return new SeasonInfo(res.path("title").asText(""), res.has("media_id") ? res.path("media_id").asText() : null,
+                res.path("evaluate").asText(""), res.path("cover").asText(""));
+    }
+
+    private static LiveRoomInfo liveRoom(JsonNode data) {
+        JsonNode room = data.path("room_info");
+        return new LiveRoomInfo(room.path("title").asText(""), room.path("room_id").asText(""),
+                data.path("anchor_info").path("base_info").path("uname").asText(""),
+                room.path("online").asLong(0L), room.path("cover").asText(""));
+    }
+
+    private static ArticleInfo article(JsonNode data) {
+        return new ArticleInfo(data.path("title").asText(""), data.path("author_name").asText(""),
+                data.path("stats").path("view").asLong(0L), data.path("cover").asText(""));
+    }
+
+    private static DynamicInfo dynamic(JsonNode item) {
+        JsonNode major = item.path("modules").path("module_dynamic").path("major");
+        List<String> drawImages = new ArrayList<>();
+        for (JsonNode draw : major.path("draw").path("items")) {
+            drawImages.add(draw.path("src").asText(""));
+        }
+        JsonNode article = major.path("article");
+        List<String> covers = new ArrayList<>();
+        for (JsonNode cover : article.path("covers")) {
+            covers.add(cover.asText(""));
+        }
+        return new DynamicInfo(item.path("id_str").asText(""), major.path("type").asText(""), drawImages,
+                article.path("title").asText(""), article.path("desc").asText(""), article.path("label").asText(""),
+                covers);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各种链接形式的种类与 ID 识别（{@link BiliLinkExtractor#extract}），输入为触发正则捕获到的纯净链接；
+ * 同时运行原逐条正则匹配实现 {@link LegacyLinkExtractor}（位于 src/test/java）作为对照
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkExtractBenchmark {
+
+    @Param({"bv", "bv_text", "av", "ep", "ss", "md", "live", "live_h5", "cv", "read_mobile",
+            "dynamic", "dynamic_rid", "opus", "none"})
+    public String form;
+
+    private String link;
+
+    @Setup
+    public void setUp() {
+        link = switch (form) {
+            case "bv" -> "https://www.bilibili.com/video/BV1GJ411x7h7?spm_id_from=333.1007.tianma.1-1-1.click&vd_source=0123456789abcdef";
+            case "bv_text" -> "BV1GJ411x7h7";
+            case "av" -> "https://www.bilibili.com/video/av80433022/?p=3";
+            case "ep" -> "https://www.bilibili.com/bangumi/play/ep300023?from_spmid=666.25.episode.0";
+            case "ss" -> "https://www.bilibili.com/bangumi/play/ss45969";
+            case "md" -> "https://www.bilibili.com/bangumi/media/md28339735";
+            case "live" -> "https://live.bilibili.com/21452505?broadcast_type=0&is_room_feed=1";
+            case "live_h5" -> "https://live.bilibili.com/h5/21452505";
+            case "cv" -> "cv19830722";
+            case "read_mobile" -> "https://www.bilibili.com/read/mobile?id=19830722";
+            case "dynamic" -> "https://t.bilibili.com/1012345678901234567?share_source=pc_native";
+            case "dynamic_rid" -> "https://t.bilibili.com/284422040?tab=2&type=2";
+            case "opus" -> "https://m.bilibili.com/opus/1012345678901234567";
+            case "none" -> "https://www.bilibili.com/festival/2025bnj?spm_id_from=333.1007";
+            default -> throw new IllegalArgumentException(form);
+        };
+    }
+
+    @Benchmark
+    public BiliLink extract() {
+        return BiliLinkExtractor.extract(link);
+    }
+
+    @Benchmark
+    public String[] legacyCascade() {
+        return LegacyLinkExtractor.extract(link);
+    }
+}
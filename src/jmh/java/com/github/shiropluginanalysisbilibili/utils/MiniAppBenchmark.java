@@ -0,0 +1,66 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QQ 小程序分享消息的处理：
+ * - parseCQToJson / parseCQToJsonObject：把整条消息转换为 Gson 对象
+ * - tokenize：只切分 CQ 码，不反转义参数
+ * - extract：插件当前的做法，在 CQ 码参数上流式读取 qqdocurl
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiniAppBenchmark {
+
+    private String message;
+
+    @Setup
+    public void setUp() throws IOException {
+        message = Payloads.text("miniapp.txt");
+        if (MiniAppLinkExtractor.extract(message) == null) {
+            throw new IllegalStateException("录制的小程序消息中没有 qqdocurl");
+        }
+    }
+
+    @Benchmark
+    public JsonElement parseCQToJson() {
+        return BotUtils.parseCQToJson(message);
+    }
+
+    @Benchmark
+    public JsonObject parseCQToJsonObject() {
+        return BotUtils.parseCQToJsonObject(message);
+    }
+
+    @Benchmark
+    public List<CqCode.Segment> tokenize() {
+        return CqCode.parse(message);
+    }
+
+    @Benchmark
+    public String extract() throws IOException {
+        return MiniAppLinkExtractor.extract(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试使用的录制数据，位于 src/jmh/resources/payloads：
+ * - video / season / live / article / dynamic.json：各接口的完整响应
+ * - miniapp.txt：QQ 小程序分享的原始消息（json CQ 码）
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-20:10
+ */
+public final class Payloads {
+
+    private Payloads() {}
+
+    public static byte[] bytes(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到录制数据: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.shiropluginanalysisbilibili.config.PluginConfig;
+import com.github.shiropluginanalysisbilibili.dto.ArticleInfo;
+import com.github.shiropluginanalysisbilibili.dto.DynamicInfo;
+import com.github.shiropluginanalysisbilibili.dto.LiveRoomInfo;
+import com.github.shiropluginanalysisbilibili.dto.SeasonInfo;
+import com.github.shiropluginanalysisbilibili.dto.VideoInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回复消息的组织，输入为录制的完整响应，与插件中 parseAndFormat 取到响应之后的部分相同：
+ * - render：只组织消息，数据已解码（元数据缓存命中时的开销）
+ * - decodeAndRender：流式解码后再组织消息（缓存未命中、响应体已到达时的开销）
+ * 使用 {@link PluginConfig} 的默认配置，即附带封面图。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-15:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"video", "season", "live", "article", "dynamic"})
+    public String type;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PluginConfig config = new PluginConfig();
+    private byte[] body;
+    private Object data;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = Payloads.bytes(type + ".json");
+        data = decode();
+        if (render(data) == null) {
+            throw new IllegalStateException("录制数据无法组织为回复: " + type);
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        return render(data);
+    }
+
+    @Benchmark
+    public String decodeAndRender() throws IOException {
+        return render(decode());
+    }
+
+    private Object decode() throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(new ByteArrayInputStream(body))) {
+            return switch (type) {
+                case "video" -> BiliApiDecoder.decode(parser, "data", BiliApiDecoder.VIDEO).data();
+                case "season" -> BiliApiDecoder.decode(parser, "result", BiliApiDecoder.SEASON).data();
+                case "live" -> BiliApiDecoder.decode(parser, "data", BiliApiDecoder.LIVE_ROOM).data();
+                case "article" -> BiliApiDecoder.decode(parser, "data", BiliApiDecoder.ARTICLE).data();
+                case "dynamic" -> BiliApiDecoder.decode(parser, "data", BiliApiDecoder.DYNAMIC).data();
+                default -> throw new IllegalArgumentException(type);
+            };
+        }
+    }
+
+    private String render(Object decoded) {
+        return switch (type) {
+            case "video" -> BiliMessageRenderer.video((VideoInfo) decoded, config);
+            case "season" -> BiliMessageRenderer.bangumi((SeasonInfo) decoded, config);
+            case "live" -> BiliMessageRenderer.live((LiveRoomInfo) decoded, config);
+            case "article" -> BiliMessageRenderer.article((ArticleInfo) decoded, "19830722", config);
+            case "dynamic" -> BiliMessageRenderer.dynamic((DynamicInfo) decoded, config);
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+}
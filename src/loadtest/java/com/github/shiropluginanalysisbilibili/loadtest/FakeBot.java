@@ -0,0 +1,108 @@
+package com.github.shiropluginanalysisbilibili.loadtest;
+
+import com.mikuac.shiro.core.Bot;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 记录发送内容的假机器人。
+ * <p>
+ * Bot 的构造需要 WebSocket 会话、动作处理器等运行时对象，这里不调用构造方法，
+ * 而是生成 Bot 的子类代理：getSelfId 返回固定的机器人 QQ 号，发送群消息与合并转发只做记录，
+ * 其它方法返回 null 或默认值。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-10:30
+ */
+final class FakeBot {
+
+    /**
+     * 一次发送
+     *
+     * @param groupId 群号
+     * @param kind    text、video 或 forward
+     * @param nanos   发送时刻（System.nanoTime）
+     * @param length  消息长度，合并转发为节点数
+     */
+    record Sent(long groupId, String kind, long nanos, int length) {
+    }
+
+    private final long selfId;
+    private final Queue<Sent> sent = new ConcurrentLinkedQueue<>();
+    private final Bot bot;
+
+    FakeBot(long selfId) {
+        this.selfId = selfId;
+        ProxyFactory factory = new ProxyFactory();
+        factory.setTargetClass(Bot.class);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> handle(invocation.getMethod(), invocation.getArguments()));
+        this.bot = (Bot) factory.getProxy(FakeBot.class.getClassLoader());
+    }
+
+    Bot bot() {
+        return bot;
+    }
+
+    /**
+     * 取出并清空目前为止的发送记录
+     */
+    List<Sent> drain() {
+        List<Sent> drained = new ArrayList<>();
+        Sent s;
+        while ((s = sent.poll()) != null) {
+            drained.add(s);
+        }
+        return drained;
+    }
+
+    private Object handle(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getSelfId" -> {
+                return selfId;
+            }
+            case "sendGroupMsg" -> {
+                String msg = String.valueOf(args[1]);
+                sent.add(new Sent((Long) args[0], msg.contains("[CQ:video") ? "video" : "text", System.nanoTime(), msg.length()));
+                return null;
+            }
+            case "sendGroupForwardMsg" -> {
+                sent.add(new Sent((Long) args[0], "forward", System.nanoTime(), ((List<?>) args[1]).size()));
+                return null;
+            }
+            case "toString" -> {
+                return "FakeBot(" + selfId + ")";
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(this);
+            }
+            case "equals" -> {
+                return args[0] == bot;
+            }
+            default -> {
+                return defaultValue(method.getReturnType());
+            }
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return Map.of(int.class, 0, long.class, 0L, short.class, (short) 0, byte.class, (byte) 0,
+                float.class, 0f, double.class, 0d).get(type);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.shiropluginanalysisbilibili.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 一次压测的结果，同时输出为控制台文本与 JSON，JSON 用于对比不同版本
+ *
+ * @param rate           目标注入速率（条/秒）
+ * @param durationMillis 注入时长
+ * @param injected       注入的消息数
+ * @param replied        收到回复的消息数
+ * @param unanswered     没有收到回复的消息数（包括本就不该回复的普通聊天）
+ * @param throughput     每秒完成回复的消息数，按第一条注入到最后一次发送计算
+ * @param sends          各类发送的次数：text、forward、video
+ * @param firstReply     注入到第一次回复的耗时（毫秒）
+ * @param complete       注入到最后一次发送（含视频）的耗时（毫秒）
+ * @param server         本地替身的统计
+ * @param peakTempBytes  临时目录占用的峰值
+ * @param finalTempBytes 结束时临时目录的占用
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-10:30
+ */
+record LoadReport(double rate, long durationMillis, long injected, long replied, long unanswered, double throughput,
+                  Map<String, Long> sends, Percentiles firstReply, Percentiles complete, StandInServer.Stats server,
+                  long peakTempBytes, long finalTempBytes) {
+
+    /**
+     * 耗时分布（毫秒）
+     */
+    record Percentiles(long count, double p50, double p90, double p99, double max) {
+
+        static Percentiles of(long[] nanos) {
+            if (nanos.length == 0) {
+                return new Percentiles(0, 0, 0, 0, 0);
+            }
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return new Percentiles(sorted.length, millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double millis(long[] sorted, double p) {
+            int rank = (int) Math.ceil(sorted.length * p) - 1;
+            return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%.1fms p90=%.1fms p99=%.1fms 最大=%.1fms", count, p50, p90, p99, max);
+        }
+    }
+
+    String format() {
+        return "压测结果"
+                + String.format("%n  注入: %d 条，目标 %.1f 条/秒，时长 %.1fs", injected, rate, durationMillis / 1000.0)
+                + String.format("%n  回复: %d 条，无回复 %d 条，吞吐 %.2f 条/秒", replied, unanswered, throughput)
+                + "\n  发送: " + sends
+                + "\n  首次回复耗时: " + firstReply
+                + "\n  全部完成耗时: " + complete
+                + "\n  接口请求: " + server.requests()
+                + String.format("%n  注入故障: HTTP 500 %d 次，HTTP 412 %d 次；短链跳转 %d 次",
+                server.errors(), server.risks(), server.shortLinks())
+                + String.format("%n  CDN: %d 次请求，%.1f MiB", server.cdnRequests(), server.cdnBytes() / 1048576.0)
+                + String.format("%n  临时目录: 峰值 %.1f MiB，结束时 %.1f MiB", peakTempBytes / 1048576.0,
+                finalTempBytes / 1048576.0);
+    }
+}
@@ -0,0 +1,357 @@
+package com.github.shiropluginanalysisbilibili.loadtest;
+
+import cn.hutool.extra.spring.SpringUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.shiropluginanalysisbilibili.plugins.AnalysisBilibiliPlugin;
+import com.mikuac.shiro.dto.event.message.GroupMessageEvent;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 端到端压测：按目标速率把一组群消息交给 {@link AnalysisBilibiliPlugin#onGroupMessage}，
+ * 插件的全部网络请求由 {@link StandInServer} 应答，发送的消息由 {@link FakeBot} 记录，
+ * 最后输出吞吐、回复耗时分布与临时目录的峰值占用。
+ * <p>
+ * 运行：mvn -P loadtest test -Dloadtest.args="--rate=20 --duration=60"
+ * <p>
+ * 参数（均为 --名称=值）：
+ * - rate：每秒注入的消息数，默认 20
+ * - duration：注入时长（秒），默认 60
+ * - drain：注入结束后等待回复的最长时间（秒），默认 60
+ * - event-threads：模拟框架事件线程的数量，默认 8
+ * - corpus：消息语料文件，每行一条，默认使用内置语料
+ * - api-latency-ms / api-jitter-ms：API 的固定延迟与随机延迟，默认 80 / 40
+ * - api-error-rate / api-412-rate：API 返回 HTTP 500 / 412 的比例，默认 0
+ * - cdn-bytes-per-sec：CDN 每条连接的限速，默认 4 MiB/s，0 表示不限速
+ * - cdn-first-byte-ms：CDN 首字节延迟，默认 50
+ * - cdn-video / cdn-audio：CDN 返回的音视频文件（录制的 m4s），默认生成 8 MiB / 1 MiB 的无效数据，
+ *   此时混流会失败、不会发送视频，但下载与临时文件的占用照常发生
+ * - report：JSON 结果的输出路径，默认 target/loadtest-report.json
+ * - analysis-bilibili.*：插件配置，例如 --analysis-bilibili.asyncMaxConcurrency=16
+ * <p>
+ * 语料中的 {n} 替换为消息序号，{bv} 替换为按序号生成的 BV 号，用于避免缓存与合并请求；
+ * 不含占位符的消息每次都相同，用于测试缓存命中。每条消息使用不同的群号，不受冷却影响。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-10:30
+ */
+public final class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String PLUGIN_PREFIX = "analysis-bilibili.";
+
+    private static final long SELF_ID = 10000L;
+    private static final long USER_ID = 20000L;
+    private static final long GROUP_BASE = 1_000_000L;
+
+    /**
+     * 临时目录的采样间隔
+     */
+    private static final long DISK_SAMPLE_MILLIS = 100;
+
+    /**
+     * 连续多久没有新的发送视为处理完毕
+     */
+    private static final long QUIET_MILLIS = 3000;
+
+    private static final String BV_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+
+    private final Map<String, String> options;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --名称=值: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadReport report = new LoadTest(options).run();
+        System.out.println(report.format());
+        Path out = Path.of(option("report", "target/loadtest-report.json", options));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+        System.out.println("JSON 结果已保存: " + out.toAbsolutePath());
+        // 插件与宿主客户端可能留有非守护线程
+        System.exit(0);
+    }
+
+    private LoadReport run() throws Exception {
+        double rate = Double.parseDouble(option("rate", "20"));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(option("duration", "60")));
+        long drainMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(option("drain", "60")));
+        List<String> corpus = corpus();
+
+        StandInServer.Faults faults = new StandInServer.Faults(
+                Long.parseLong(option("api-latency-ms", "80")),
+                Long.parseLong(option("api-jitter-ms", "40")),
+                Double.parseDouble(option("api-error-rate", "0")),
+                Double.parseDouble(option("api-412-rate", "0")));
+        StandInServer.Cdn cdn = new StandInServer.Cdn(
+                Long.parseLong(option("cdn-bytes-per-sec", String.valueOf(4L * 1024 * 1024))),
+                Long.parseLong(option("cdn-first-byte-ms", "50")),
+                media("cdn-video", 8 * 1024 * 1024),
+                media("cdn-audio", 1024 * 1024));
+
+        Path tmp = Files.createTempDirectory("bili-loadtest");
+        try (StandInServer server = StandInServer.start(faults, cdn);
+             AnnotationConfigApplicationContext context = hostContext(server, tmp)) {
+            AnalysisBilibiliPlugin plugin = new AnalysisBilibiliPlugin();
+            FakeBot bot = new FakeBot(SELF_ID);
+            TempDiskSampler disk = new TempDiskSampler(tmp);
+            ExecutorService eventThreads = Executors.newFixedThreadPool(Integer.parseInt(option("event-threads", "8")));
+            ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+
+            // 每条消息使用独立的群号，群号 - GROUP_BASE 即为消息序号
+            Map<Long, Long> injectedAt = new ConcurrentHashMap<>();
+            AtomicLong seq = new AtomicLong();
+            long start = System.nanoTime();
+            logger.info("开始压测: {} 条/秒，{} 条语料，持续 {}ms", rate, corpus.size(), durationMillis);
+            ticker.scheduleAtFixedRate(() -> {
+                long n = seq.getAndIncrement();
+                GroupMessageEvent event = new GroupMessageEvent();
+                event.setMessage(expand(corpus.get((int) (n % corpus.size())), n));
+                event.setGroupId(GROUP_BASE + n);
+                event.setUserId(USER_ID);
+                injectedAt.put(GROUP_BASE + n, System.nanoTime());
+                eventThreads.execute(() -> {
+                    try {
+                        plugin.onGroupMessage(bot.bot(), event);
+                    } catch (RuntimeException e) {
+                        logger.warn("插件处理消息出错", e);
+                    }
+                });
+            }, 0, (long) (TimeUnit.SECONDS.toNanos(1) / rate), TimeUnit.NANOSECONDS);
+
+            Thread.sleep(durationMillis);
+            ticker.shutdownNow();
+            long injectedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // 等到连续一段时间没有新的发送，或超过最长等待时间
+            List<FakeBot.Sent> sent = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + drainMillis;
+            long lastSend = System.currentTimeMillis();
+            while (System.currentTimeMillis() < deadline && System.currentTimeMillis() - lastSend < QUIET_MILLIS) {
+                List<FakeBot.Sent> batch = bot.drain();
+                if (!batch.isEmpty()) {
+                    sent.addAll(batch);
+                    lastSend = System.currentTimeMillis();
+                }
+                Thread.sleep(200);
+            }
+            sent.addAll(bot.drain());
+
+            eventThreads.shutdownNow();
+            plugin.shutdown();
+            disk.close();
+            LoadReport report = report(rate, injectedMillis, injectedAt, sent, start, server.stats(),
+                    disk.peak(), disk.sample());
+            if (!"true".equals(option("keep-tmp", "false"))) {
+                deleteRecursively(tmp);
+            }
+            return report;
+        }
+    }
+
+    private static LoadReport report(double rate, long durationMillis, Map<Long, Long> injectedAt,
+                                     List<FakeBot.Sent> sent, long start, StandInServer.Stats server,
+                                     long peakTempBytes, long finalTempBytes) {
+        Map<Long, Long> first = new HashMap<>();
+        Map<Long, Long> last = new HashMap<>();
+        Map<String, Long> sends = new LinkedHashMap<>();
+        long end = start;
+        for (FakeBot.Sent s : sent) {
+            first.merge(s.groupId(), s.nanos(), Math::min);
+            last.merge(s.groupId(), s.nanos(), Math::max);
+            sends.merge(s.kind(), 1L, Long::sum);
+            end = Math.max(end, s.nanos());
+        }
+        long[] firstReply = new long[first.size()];
+        long[] complete = new long[first.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : first.entrySet()) {
+            long injected = injectedAt.get(e.getKey());
+            firstReply[i] = e.getValue() - injected;
+            complete[i] = last.get(e.getKey()) - injected;
+            i++;
+        }
+        double seconds = Math.max(1, end - start) / 1e9;
+        return new LoadReport(rate, durationMillis, injectedAt.size(), first.size(), injectedAt.size() - first.size(),
+                first.size() / seconds, sends, LoadReport.Percentiles.of(firstReply),
+                LoadReport.Percentiles.of(complete), server, peakTempBytes, finalTempBytes);
+    }
+
+    /**
+     * 模拟宿主的 Spring 容器：插件通过 SpringUtil 获取配置、ObjectMapper 与 OkHttpClient
+     */
+    private AnnotationConfigApplicationContext hostContext(StandInServer server, Path tmp) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PLUGIN_PREFIX + "tmpPath", tmp.toString());
+        // 预热的是真实域名，压测中没有意义
+        properties.put(PLUGIN_PREFIX + "httpApiWarmUpUrls", "");
+        options.forEach((key, value) -> {
+            if (key.startsWith(PLUGIN_PREFIX)) {
+                properties.put(key, value);
+            }
+        });
+
+        String[] address = server.address().split(":");
+        OkHttpClient hostClient = new OkHttpClient.Builder()
+                .addInterceptor(new LoopbackInterceptor(address[0], Integer.parseInt(address[1])))
+                .build();
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("loadtest", properties));
+        context.registerBean(SpringUtil.class);
+        context.registerBean(ObjectMapper.class, ObjectMapper::new);
+        context.registerBean(OkHttpClient.class, () -> hostClient);
+        context.refresh();
+        return context;
+    }
+
+    private List<String> corpus() throws IOException {
+        String file = options.get("corpus");
+        String text = file != null
+                ? Files.readString(Path.of(file), StandardCharsets.UTF_8)
+                : new String(StandInServer.resource("corpus.txt"), StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("语料为空");
+        }
+        return lines;
+    }
+
+    /**
+     * 替换语料中的占位符
+     */
+    private static String expand(String line, long n) {
+        if (line.indexOf('{') < 0) {
+            return line;
+        }
+        return line.replace("{n}", String.valueOf(100000 + n)).replace("{bv}", bvid(n));
+    }
+
+    /**
+     * 按序号生成一个合法格式的 BV 号，同一序号总是得到同一个 BV 号
+     */
+    private static String bvid(long n) {
+        StringBuilder sb = new StringBuilder("BV1");
+        long v = n;
+        for (int i = 0; i < 9; i++) {
+            sb.append(BV_ALPHABET.charAt((int) (v % BV_ALPHABET.length())));
+            v /= BV_ALPHABET.length();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * CDN 返回的内容：指定了文件时读取文件，否则生成固定大小的数据
+     */
+    private byte[] media(String name, int defaultSize) throws IOException {
+        String file = options.get(name);
+        if (file != null) {
+            return Files.readAllBytes(Path.of(file));
+        }
+        byte[] data = new byte[defaultSize];
+        new Random(name.hashCode()).nextBytes(data);
+        return data;
+    }
+
+    private String option(String name, String defaultValue) {
+        return option(name, defaultValue, options);
+    }
+
+    private static String option(String name, String defaultValue, Map<String, String> options) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            logger.warn("清理压测临时目录失败: {}", dir, e);
+        }
+    }
+
+    /**
+     * 定期统计临时目录的总大小，记录峰值
+     */
+    private static final class TempDiskSampler implements AutoCloseable {
+
+        private final Path dir;
+        private final AtomicLong peak = new AtomicLong();
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loadtest-disk-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        private TempDiskSampler(Path dir) {
+            this.dir = dir;
+            sampler.scheduleAtFixedRate(() -> peak.accumulateAndGet(sample(), Math::max),
+                    0, DISK_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private long sample() {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                return paths.mapToLong(p -> {
+                    try {
+                        return Files.isRegularFile(p) ? Files.size(p) : 0;
+                    } catch (IOException e) {
+                        // 统计期间被删除的文件
+                        return 0;
+                    }
+                }).sum();
+            } catch (IOException | UncheckedIOException e) {
+                return 0;
+            }
+        }
+
+        private long peak() {
+            return peak.get();
+        }
+
+        @Override
+        public void close() {
+            sampler.shutdownNow();
+        }
+    }
+}
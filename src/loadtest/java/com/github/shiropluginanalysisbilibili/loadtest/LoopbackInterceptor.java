@@ -0,0 +1,65 @@
+package com.github.shiropluginanalysisbilibili.loadtest;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.ConnectException;
+
+/**
+ * 把插件发往 B 站及其 CDN 的请求改写到本地替身：协议改为 http，域名与端口改为替身的监听地址，
+ * 原始域名放在请求头中供替身分发。其它域名的请求直接失败，保证压测不会访问真实的 B 站。
+ * <p>
+ * 作为应用拦截器加在宿主客户端上，插件派生的 API 与下载客户端都会继承。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-10:30
+ */
+final class LoopbackInterceptor implements Interceptor {
+
+    /**
+     * 原始域名所在的请求头
+     */
+    static final String ORIGINAL_HOST = "X-Stand-In-Host";
+
+    private static final String[] STAND_IN_HOSTS = {
+            "bilibili.com", "b23.tv", "bili2233.cn", "bilivideo.com", "bilivideo.cn", "akamaized.net", "hdslb.com"
+    };
+
+    private final String host;
+    private final int port;
+
+    LoopbackInterceptor(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        HttpUrl url = request.url();
+        if (!isStandInHost(url.host())) {
+            throw new ConnectException("压测中不允许访问外部地址: " + url.host());
+        }
+        HttpUrl local = url.newBuilder()
+                .scheme("http")
+                .host(host)
+                .port(port)
+                .build();
+        return chain.proceed(request.newBuilder()
+                .url(local)
+                .header(ORIGINAL_HOST, url.host())
+                .build());
+    }
+
+    private static boolean isStandInHost(String host) {
+        for (String suffix : STAND_IN_HOSTS) {
+            if (host.equals(suffix) || host.endsWith("." + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
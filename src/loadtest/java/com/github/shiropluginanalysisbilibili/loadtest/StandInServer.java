@@ -0,0 +1,296 @@
+package com.github.shiropluginanalysisbilibili.loadtest;
+
+import com.github.shiropluginanalysisbilibili.executor.ApiRateLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地的 B 站 API 与 CDN 替身，监听 127.0.0.1 的随机端口。请求经 {@link LoopbackInterceptor} 改写后到达，
+ * 原始域名在 {@link LoopbackInterceptor#ORIGINAL_HOST} 请求头中：
+ * - 视频信息、番剧、直播、专栏、动态、取流接口返回 loadtest/responses 下录制的响应，不区分请求的 ID；
+ *   取流接口按 platform=html5 区分单文件 MP4 与 DASH 两种响应
+ * - b23.tv 短链返回 302，跳转到一个视频地址
+ * - *.bilivideo.com 等 CDN 地址按连接限速输出音视频数据，支持 Range
+ * API 请求可按配置注入延迟、HTTP 500 与风控（HTTP 412）。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-10:30
+ */
+public final class StandInServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandInServer.class);
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    /**
+     * CDN 每次写出的数据块大小，限速按块计算
+     */
+    private static final int CDN_CHUNK = 16 * 1024;
+
+    /**
+     * 接口路径前缀与录制响应的对应关系
+     */
+    private static final Map<String, String> RESPONSES = new LinkedHashMap<>();
+
+    static {
+        RESPONSES.put("/x/web-interface/view", "view.json");
+        RESPONSES.put("/pgc/view/web/season", "season.json");
+        RESPONSES.put("/xlive/web-room/v1/index/getInfoByRoom", "live.json");
+        RESPONSES.put("/x/article/viewinfo", "article.json");
+        RESPONSES.put("/x/polymer/web-dynamic/v1/detail", "dynamic.json");
+        RESPONSES.put("/x/player/playurl", "playurl.json");
+    }
+
+    /**
+     * API 请求的故障注入
+     *
+     * @param latencyMillis 固定延迟
+     * @param jitterMillis  在固定延迟之上再随机增加 0~jitter 的延迟
+     * @param errorRate     返回 HTTP 500 的比例
+     * @param riskRate      返回 HTTP 412（风控）的比例
+     */
+    public record Faults(long latencyMillis, long jitterMillis, double errorRate, double riskRate) {
+    }
+
+    /**
+     * CDN 的行为
+     *
+     * @param bytesPerSecond  每条连接的限速，0 表示不限速
+     * @param firstByteMillis 首字节延迟
+     * @param video           视频流的内容
+     * @param audio           音频流的内容
+     */
+    public record Cdn(long bytesPerSecond, long firstByteMillis, byte[] video, byte[] audio) {
+    }
+
+    /**
+     * 服务端统计
+     *
+     * @param requests    各类接口的请求数
+     * @param errors      注入的 HTTP 500 次数
+     * @param risks       注入的 HTTP 412 次数
+     * @param shortLinks  短链跳转次数
+     * @param cdnRequests CDN 请求数
+     * @param cdnBytes    CDN 输出的字节数
+     */
+    public record Stats(Map<ApiRateLimiter.Endpoint, Long> requests, long errors, long risks, long shortLinks,
+                        long cdnRequests, long cdnBytes) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Faults faults;
+    private final Cdn cdn;
+    private final Map<String, byte[]> responses = new LinkedHashMap<>();
+    private final byte[] progressivePlayurl = resource("responses/playurl_mp4.json");
+    private final Map<ApiRateLimiter.Endpoint, LongAdder> requests = new EnumMap<>(ApiRateLimiter.Endpoint.class);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder risks = new LongAdder();
+    private final LongAdder shortLinks = new LongAdder();
+    private final LongAdder cdnRequests = new LongAdder();
+    private final AtomicLong cdnBytes = new AtomicLong();
+
+    private StandInServer(Faults faults, Cdn cdn) throws IOException {
+        this.faults = faults;
+        this.cdn = cdn;
+        for (Map.Entry<String, String> e : RESPONSES.entrySet()) {
+            responses.put(e.getKey(), resource("responses/" + e.getValue()));
+        }
+        for (ApiRateLimiter.Endpoint endpoint : ApiRateLimiter.Endpoint.values()) {
+            requests.put(endpoint, new LongAdder());
+        }
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stand-in-server");
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static StandInServer start(Faults faults, Cdn cdn) throws IOException {
+        StandInServer standIn = new StandInServer(faults, cdn);
+        standIn.server.start();
+        logger.info("本地替身已启动: {}", standIn.address());
+        return standIn;
+    }
+
+    /**
+     * 监听地址，例如 127.0.0.1:54321
+     */
+    public String address() {
+        InetSocketAddress address = server.getAddress();
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    public Stats stats() {
+        Map<ApiRateLimiter.Endpoint, Long> counts = new EnumMap<>(ApiRateLimiter.Endpoint.class);
+        requests.forEach((endpoint, n) -> counts.put(endpoint, n.sum()));
+        return new Stats(counts, errors.sum(), risks.sum(), shortLinks.sum(), cdnRequests.sum(), cdnBytes.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String host = exchange.getRequestHeaders().getFirst(LoopbackInterceptor.ORIGINAL_HOST);
+            String path = exchange.getRequestURI().getPath();
+            if (host == null) {
+                host = "";
+            }
+            if (host.equals("b23.tv") || host.endsWith("bili2233.cn")) {
+                shortLink(exchange);
+            } else if (host.endsWith(".bilivideo.com") || host.endsWith(".bilivideo.cn") || host.endsWith(".akamaized.net")) {
+                media(exchange, path);
+            } else {
+                api(exchange, host, path);
+            }
+        } catch (IOException e) {
+            // 客户端提前断开（取消的分段、对冲请求等）属于正常情况
+            logger.debug("替身响应中断: {}", e.getMessage());
+        }
+    }
+
+    private void api(HttpExchange exchange, String host, String path) throws IOException {
+        requests.get(ApiRateLimiter.Endpoint.of(host + path)).increment();
+        sleep(faults.latencyMillis() + (faults.jitterMillis() > 0 ? ThreadLocalRandom.current().nextLong(faults.jitterMillis() + 1) : 0));
+        double dice = ThreadLocalRandom.current().nextDouble();
+        if (dice < faults.riskRate()) {
+            risks.increment();
+            send(exchange, 412, "text/html", "<html><body>412 Precondition Failed</body></html>".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (dice < faults.riskRate() + faults.errorRate()) {
+            errors.increment();
+            send(exchange, 500, "text/html", "<html><body>500 Internal Server Error</body></html>".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String query = exchange.getRequestURI().getRawQuery();
+        if (path.startsWith("/x/player/playurl") && query != null && query.contains("platform=html5")) {
+            send(exchange, 200, "application/json; charset=utf-8", progressivePlayurl);
+            return;
+        }
+        for (Map.Entry<String, byte[]> e : responses.entrySet()) {
+            if (path.startsWith(e.getKey())) {
+                send(exchange, 200, "application/json; charset=utf-8", e.getValue());
+                return;
+            }
+        }
+        send(exchange, 200, "application/json; charset=utf-8",
+                "{\"code\":-404,\"message\":\"啥都木有\",\"ttl\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void shortLink(HttpExchange exchange) throws IOException {
+        shortLinks.increment();
+        sleep(faults.latencyMillis());
+        exchange.getResponseHeaders().set("Location", "https://www.bilibili.com/video/BV1GJ411x7h7?share_source=qq");
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    /**
+     * 按 Range 输出音视频数据，路径中含 audio 的返回音频流，其余返回视频流
+     */
+    private void media(HttpExchange exchange, String path) throws IOException {
+        cdnRequests.increment();
+        byte[] content = path.contains("audio") ? cdn.audio() : cdn.video();
+        long from = 0;
+        long to = content.length - 1L;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            Matcher m = RANGE.matcher(range);
+            if (!m.matches() || Long.parseLong(m.group(1)) >= content.length) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes */" + content.length);
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            }
+            from = Long.parseLong(m.group(1));
+            if (!m.group(2).isEmpty()) {
+                to = Math.min(to, Long.parseLong(m.group(2)));
+            }
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + from + "-" + to + "/" + content.length);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "video/mp4");
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        sleep(cdn.firstByteMillis());
+        long length = to - from + 1;
+        exchange.sendResponseHeaders(status, length);
+        OutputStream out = exchange.getResponseBody();
+        long start = System.nanoTime();
+        long written = 0;
+        while (written < length) {
+            int n = (int) Math.min(CDN_CHUNK, length - written);
+            out.write(content, (int) (from + written), n);
+            written += n;
+            cdnBytes.addAndGet(n);
+            if (cdn.bytesPerSecond() > 0) {
+                // 按本连接已输出的字节数计算应当经过的时间，提前的部分睡眠补齐
+                long due = TimeUnit.SECONDS.toNanos(written) / cdn.bytesPerSecond();
+                pause(due - (System.nanoTime() - start));
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        pause(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static void pause(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("替身服务器关闭", e);
+        }
+    }
+
+    /**
+     * 读取 src/loadtest/resources/loadtest 下的资源
+     */
+    static byte[] resource(String name) {
+        try (InputStream in = StandInServer.class.getResourceAsStream("/loadtest/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到资源: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,46 +1,120 @@
 package com.github.shiropluginanalysisbilibili.cache;
 
-import java.util.Collections;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
- * 简单的过期缓存：保存一组字符串（url 等），在 expireSeconds 后自动移除。
- * 如果 expireSeconds <= 0，则每次 set() 都会先清空（与 Python 版本行为一致）。
+ * 简单的过期缓存：保存一组字符串（url 等），在 expireSeconds 后失效。
+ * - 所有条目的有效期相同，按插入顺序保存即按过期顺序保存，每次读写时顺带从队头清理已过期的条目，
+ *   不需要定时任务与后台线程，插件卸载时也就没有需要释放的资源
+ * - 读取时再检查一次过期时间，清理不及时也不会返回过期的条目
+ * - 条目数有上限，超出时淘汰最早插入的条目
+ * 如果 expireSeconds <= 0，则只记住最近一次 set() 的值（与 Python 版本行为一致）。
  */
 public class ExpiringCache {
-    private final Set<String> cache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private final long expireSeconds;
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5);
+
+    /**
+     * 默认的条目数上限
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * 每次写入时最多清理的过期条目数，避免单次写入停顿过久
+     */
+    private static final int SWEEP_LIMIT = 64;
+
+    private final long expireNanos;
+    private final int maxEntries;
+    /**
+     * 值 -> 过期时间（System.nanoTime），按插入顺序排列
+     */
+    private final LinkedHashMap<String, Long> entries;
+    /**
+     * expireSeconds <= 0 时只记住的最近一个值
+     */
+    private String last;
 
     public ExpiringCache(long expireSeconds) {
-        this.expireSeconds = expireSeconds;
+        this(expireSeconds, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ExpiringCache(long expireSeconds, int maxEntries) {
+        this.expireNanos = expireSeconds > 0 ? TimeUnit.SECONDS.toNanos(expireSeconds) : 0;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > ExpiringCache.this.maxEntries;
+            }
+        };
     }
 
-    public void set(String value) {
-        if (cache.contains(value)) {
+    public synchronized void set(String value) {
+        if (expireNanos == 0) {
+            last = value;
             return;
         }
-        if (expireSeconds <= 0) {
-            cache.clear();
+        long now = System.nanoTime();
+        sweep(now, SWEEP_LIMIT);
+        Long deadline = entries.get(value);
+        if (deadline != null) {
+            if (deadline - now > 0) {
+                return;
+            }
+            // 已过期但还没被清理，重新插入到队尾
+            entries.remove(value);
+        }
+        entries.put(value, now + expireNanos);
+    }
+
+    public synchronized boolean get(String value) {
+        if (expireNanos == 0) {
+            return value != null && value.equals(last);
         }
-        cache.add(value);
-        if (expireSeconds > 0) {
-            scheduler.schedule(() -> {
-                cache.remove(value);
-            }, expireSeconds, TimeUnit.SECONDS);
+        Long deadline = entries.get(value);
+        if (deadline == null) {
+            return false;
         }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        entries.remove(value);
+        return false;
+    }
+
+    /**
+     * 未过期的条目数（会先清理所有已过期的条目）
+     */
+    public synchronized int size() {
+        if (expireNanos == 0) {
+            return last == null ? 0 : 1;
+        }
+        sweep(System.nanoTime(), Integer.MAX_VALUE);
+        return entries.size();
     }
 
-    public boolean get(String value) {
-        return cache.contains(value);
+    public synchronized void clear() {
+        entries.clear();
+        last = null;
+    }
+
+    /**
+     * 从队头开始移除已过期的条目，遇到第一个未过期的条目即停止
+     */
+    private void sweep(long now, int limit) {
+        Iterator<Long> it = entries.values().iterator();
+        for (int i = 0; i < limit && it.hasNext(); i++) {
+            if (it.next() - now > 0) {
+                return;
+            }
+            it.remove();
+        }
     }
 
     @Override
-    public String toString() {
-        return cache.toString();
+    public synchronized String toString() {
+        return expireNanos == 0 ? String.valueOf(last) : entries.keySet().toString();
     }
 }
@@ -0,0 +1,229 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * B 站 API 响应缓存：按条目数与字节数双重限制的 LRU 缓存。
+ * - 每个条目有独立的 TTL（由调用方按接口类型传入，直播间数据的 TTL 远短于视频信息）
+ * - TTL 过期后的一段时间内仍可返回旧值，同时在后台刷新（stale-while-revalidate）
+ * - 超过旧值容忍期的条目视为未命中，由调用方同步加载
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-13-11:05
+ */
+public class MetadataCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    /**
+     * 加载器，返回值与其字节权重
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        Weighted<V> load() throws Exception;
+    }
+
+    /**
+     * 加载结果，weight 为负数表示该结果只返回给本次调用，不写入缓存
+     */
+    public record Weighted<V>(V value, long weight) {
+        public static <V> Weighted<V> uncached(V value) {
+            return new Weighted<>(value, -1);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long freshUntil;
+        private final long staleUntil;
+        private boolean refreshing;
+
+        private Entry(V value, long weight, long freshUntil, long staleUntil) {
+            this.value = value;
+            this.weight = weight;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long staleMillis;
+    private final ExecutorService refresher;
+    private long totalWeight;
+
+    private long hits;
+    private long staleHits;
+    private long misses;
+
+    /**
+     * @param maxEntries   最大条目数
+     * @param maxWeight    最大总字节数
+     * @param staleSeconds TTL 过期后仍可返回旧值的时长，0 表示不返回旧值
+     */
+    public MetadataCache(int maxEntries, long maxWeight, long staleSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeight = Math.max(1, maxWeight);
+        this.staleMillis = Math.max(0, staleSeconds) * 1000L;
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "bili-meta-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 读取缓存，未命中时同步加载；命中旧值时直接返回旧值并在后台刷新
+     *
+     * @param key        缓存 key，通常为 API URL
+     * @param ttlSeconds 该条目的有效期，0 或负数表示不缓存
+     * @param loader     加载器
+     * @return 缓存值或新加载的值
+     */
+    public V get(String key, long ttlSeconds, Loader<V> loader) throws Exception {
+        if (ttlSeconds <= 0) {
+            return loader.load().value();
+        }
+        long now = System.currentTimeMillis();
+        Entry<V> stale = null;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now < entry.freshUntil) {
+                    hits++;
+                    return entry.value;
+                }
+                if (now < entry.staleUntil) {
+                    staleHits++;
+                    if (entry.refreshing) {
+                        return entry.value;
+                    }
+                    entry.refreshing = true;
+                    stale = entry;
+                } else {
+                    remove(key);
+                }
+            }
+            if (stale == null) {
+                misses++;
+            }
+        }
+
+        if (stale != null) {
+            scheduleRefresh(key, ttlSeconds, loader, stale);
+            return stale.value;
+        }
+        Weighted<V> loaded = loader.load();
+        put(key, loaded, ttlSeconds);
+        return loaded.value();
+    }
+
+    public synchronized void invalidate(String key) {
+        remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+        try {
+            refresher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleRefresh(String key, long ttlSeconds, Loader<V> loader, Entry<V> stale) {
+        try {
+            refresher.execute(() -> {
+                try {
+                    if (put(key, loader.load(), ttlSeconds)) {
+                        logger.debug("后台刷新缓存完成: {}", key);
+                    } else {
+                        // 新结果不可缓存，旧值保留，下次命中旧值时重新刷新
+                        synchronized (this) {
+                            stale.refreshing = false;
+                        }
+                    }
+                } catch (Exception e) {
+                    logger.debug("后台刷新缓存失败，继续使用旧值: {} {}", key, e.getMessage());
+                    synchronized (this) {
+                        stale.refreshing = false;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                stale.refreshing = false;
+            }
+        }
+    }
+
+    /**
+     * @return 是否写入了缓存，结果不可缓存时返回 false
+     */
+    private synchronized boolean put(String key, Weighted<V> loaded, long ttlSeconds) {
+        if (loaded == null || loaded.value() == null || loaded.weight() < 0 || loaded.weight() > maxWeight) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        long freshUntil = now + ttlSeconds * 1000L;
+        remove(key);
+        entries.put(key, new Entry<>(loaded.value(), loaded.weight(), freshUntil, freshUntil + staleMillis));
+        totalWeight += loaded.weight();
+        evict();
+        return true;
+    }
+
+    private void remove(String key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    /**
+     * 按 LRU 顺序淘汰，直到条目数与总字节数都在限制内
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalWeight > maxWeight) && it.hasNext()) {
+            Map.Entry<String, Entry<V>> eldest = it.next();
+            totalWeight -= eldest.getValue().weight;
+            it.remove();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MetadataCache{" +
+                "size=" + entries.size() +
+                ", weight=" + totalWeight +
+                ", hits=" + hits +
+                ", staleHits=" + staleHits +
+                ", misses=" + misses +
+                '}';
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 下载与合并过程中临时文件的存放区，位于 tmpPath/work 下：
+ * - 每个下载任务使用独立的工作目录，同一视频的并发任务不会互相覆盖文件
+ * - 任务结束时（无论成功还是失败）关闭 {@link Job}，立即删除整个工作目录，不依赖 JVM 退出
+ * - 工作区总大小达到配额时拒绝新任务，抛出 {@link QuotaExceededException}；
+ *   配额只在任务开始时检查，并发开始的任务可能让总大小略微超出配额
+ * - 启动时与定时清理不属于进行中任务的目录（进程崩溃的遗留），以及旧版本直接写在 tmpPath 下的中间文件
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-21-15:40
+ */
+public class TempStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(TempStorage.class);
+
+    /**
+     * 旧版本直接写在 tmpPath 下的中间文件与合并结果，以及对冲下载的临时文件
+     */
+    private static final Pattern LEGACY_FILE = Pattern.compile("BV\\w+\\.(mp4|mp3|m4s)(\\.h\\d+)?");
+
+    /**
+     * 工作区已用空间超出配额
+     */
+    public static class QuotaExceededException extends IOException {
+
+        public QuotaExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private final Path root;
+    private final Path workDir;
+    private final long quotaBytes;
+    /**
+     * 进行中任务的工作目录，清理时跳过
+     */
+    private final Set<Path> active = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param root                 临时文件根目录
+     * @param quotaBytes           工作区配额，0 或负数表示不限制
+     * @param sweepIntervalSeconds 定时清理间隔，0 或负数表示只在启动时清理
+     */
+    public TempStorage(Path root, long quotaBytes, long sweepIntervalSeconds) {
+        this.root = root;
+        this.workDir = root.resolve("work");
+        this.quotaBytes = quotaBytes;
+        // 启动时还没有任何任务，工作区里的目录都是上次运行的遗留
+        sweep();
+        if (sweepIntervalSeconds <= 0) {
+            this.sweeper = null;
+            return;
+        }
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bili-temp-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 为一个下载任务创建工作目录，用完必须关闭
+     *
+     * @param name 目录名前缀，例如 bvid
+     * @throws QuotaExceededException 工作区已用空间达到配额
+     */
+    public Job open(String name) throws IOException {
+        if (quotaBytes > 0) {
+            long used = usedBytes();
+            if (used >= quotaBytes) {
+                throw new QuotaExceededException("临时目录已用 " + used + " 字节，达到配额 " + quotaBytes);
+            }
+        }
+        Path dir = workDir.resolve(name.replaceAll("[^\\w-]", "_") + "-"
+                + Long.toString(System.currentTimeMillis(), 36) + "-" + sequence.incrementAndGet());
+        // 先登记再创建，清理线程不会误删刚创建的目录
+        active.add(dir);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            active.remove(dir);
+            throw e;
+        }
+        return new Job(dir);
+    }
+
+    /**
+     * 工作区中所有文件的总大小
+     */
+    public long usedBytes() {
+        if (!Files.isDirectory(workDir)) {
+            return 0;
+        }
+        AtomicLong total = new AtomicLong();
+        try {
+            Files.walkFileTree(workDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    total.addAndGet(attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // 统计期间被其它任务删除的文件
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("统计临时目录大小失败: {}", e.getMessage());
+        }
+        return total.get();
+    }
+
+    /**
+     * 进行中的任务数
+     */
+    public int activeJobs() {
+        return active.size();
+    }
+
+    /**
+     * 删除不属于进行中任务的工作目录，以及旧版本遗留在根目录下的中间文件
+     */
+    public void sweep() {
+        int removed = 0;
+        if (Files.isDirectory(workDir)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(workDir)) {
+                for (Path dir : dirs) {
+                    if (!active.contains(dir)) {
+                        deleteTree(dir);
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("清理临时工作目录失败: {}", e.getMessage());
+            }
+        }
+        if (Files.isDirectory(root)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                    p -> Files.isRegularFile(p) && LEGACY_FILE.matcher(p.getFileName().toString()).matches())) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            } catch (IOException e) {
+                logger.warn("清理遗留临时文件失败: {}", e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            logger.info("清理遗留的临时文件与目录 {} 个", removed);
+        }
+    }
+
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            // 先删除文件再删除目录
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    logger.warn("删除临时文件失败: {} ({})", p, e.getMessage());
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // 已被删除
+        } catch (IOException | UncheckedIOException e) {
+            // 遍历期间目录被并发删除时抛出 UncheckedIOException
+            logger.warn("删除临时目录失败: {} ({})", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * 一个下载任务的工作目录，关闭时删除整个目录
+     */
+    public final class Job implements AutoCloseable {
+        private final Path dir;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Job(Path dir) {
+            this.dir = dir;
+        }
+
+        /**
+         * 工作目录中的文件
+         */
+        public File file(String name) {
+            return dir.resolve(name).toFile();
+        }
+
+        /**
+         * 把工作目录中的结果文件交给调用方，关闭返回的句柄时才删除工作目录
+         */
+        public VideoCache.Handle handOver(File file) {
+            return new VideoCache.Handle() {
+                @Override
+                public File file() {
+                    return file;
+                }
+
+                @Override
+                public void close() {
+                    Job.this.close();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                deleteTree(dir);
+                active.remove(dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.shiropluginanalysisbilibili.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合并后视频文件的磁盘缓存，按 bvid + cid + 清晰度上限 + 目标大小 寻址。
+ * - 总大小超过配额时按 LRU 或 LFU 淘汰
+ * - 合并完成的文件通过 rename 原子发布到缓存目录，读者不会看到写了一半的文件
+ * - 通过引用计数保护正在发送的文件，持有中的文件不会被淘汰
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-13-16:30
+ */
+public class VideoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VideoCache.class);
+
+    private static final String SUFFIX = ".mp4";
+
+    /**
+     * 淘汰策略
+     */
+    public enum Policy {
+        LRU, LFU;
+
+        public static Policy of(String name) {
+            return "lfu".equalsIgnoreCase(name == null ? "" : name.trim()) ? LFU : LRU;
+        }
+    }
+
+    /**
+     * 对缓存文件的一次持有，用完必须关闭，关闭后文件才可能被淘汰
+     */
+    public interface Handle extends AutoCloseable {
+        File file();
+
+        @Override
+        void close();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Path path;
+        private final long size;
+        private long lastAccess;
+        private long hits;
+        private int refs;
+
+        private Entry(String key, Path path, long size, long lastAccess) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final Path dir;
+    private final long maxBytes;
+    private final Policy policy;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long totalBytes;
+
+    public VideoCache(Path dir, long maxBytes, Policy policy) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        Files.createDirectories(dir);
+        load();
+    }
+
+    /**
+     * @param qn          请求的清晰度上限
+     * @param budgetBytes 选择视频流时的目标大小，不同目标大小选出的流不同
+     */
+    public static String key(String bvid, long cid, int qn, long budgetBytes) {
+        return bvid + "_" + cid + "_" + qn + "_" + Math.max(0, budgetBytes);
+    }
+
+    /**
+     * 预览片段的缓存键，与完整视频区分
+     *
+     * @param seconds 预览时长
+     */
+    public static String previewKey(String bvid, long cid, int qn, long budgetBytes, int seconds) {
+        return key(bvid, cid, qn, budgetBytes) + "_p" + seconds;
+    }
+
+    /**
+     * 查找并持有一个缓存文件
+     *
+     * @return 命中时返回持有句柄，未命中返回 null
+     */
+    public synchronized Handle acquire(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!Files.exists(entry.path)) {
+            // 文件被外部删除，修正索引
+            entries.remove(key);
+            totalBytes -= entry.size;
+            return null;
+        }
+        entry.refs++;
+        entry.hits++;
+        entry.lastAccess = System.currentTimeMillis();
+        return new CacheHandle(entry);
+    }
+
+    /**
+     * 把写好的文件原子地移动到缓存中，并返回对它的持有句柄。
+     * 同一 key 的缓存文件正被其它发送方持有时不覆盖它，而是删除新文件并持有已有的文件
+     *
+     * @param key  缓存 key
+     * @param file 已完成的文件，可以位于同一文件系统中的任意位置
+     */
+    public synchronized Handle publish(String key, File file) throws IOException {
+        Entry old = entries.get(key);
+        if (old != null && old.refs > 0 && Files.exists(old.path)) {
+            Files.deleteIfExists(file.toPath());
+            old.refs++;
+            old.hits++;
+            old.lastAccess = System.currentTimeMillis();
+            return new CacheHandle(old);
+        }
+        Path target = dir.resolve(key + SUFFIX);
+        // 在锁内移动，检查与替换之间不会有其它发送方持有旧文件
+        move(file.toPath(), target);
+        long size = Files.size(target);
+        if (old != null) {
+            entries.remove(key);
+            totalBytes -= old.size;
+        }
+        Entry entry = new Entry(key, target, size, System.currentTimeMillis());
+        entry.refs = 1;
+        entry.hits = old != null ? old.hits : 0;
+        entries.put(key, entry);
+        totalBytes += size;
+        evict();
+        return new CacheHandle(entry);
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.refs--;
+        if (entry.refs == 0 && totalBytes > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * 淘汰未被持有的文件，直到总大小回到配额以内
+     */
+    private void evict() {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        Comparator<Entry> order = policy == Policy.LFU
+                ? Comparator.<Entry>comparingLong(e -> e.hits).thenComparingLong(e -> e.lastAccess)
+                : Comparator.comparingLong(e -> e.lastAccess);
+        List<Entry> candidates = new ArrayList<>(entries.values());
+        candidates.sort(order);
+        for (Entry entry : candidates) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            if (entry.refs > 0) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.path);
+                entries.remove(entry.key);
+                totalBytes -= entry.size;
+                logger.debug("视频缓存淘汰: {} ({} bytes)", entry.key, entry.size);
+            } catch (IOException e) {
+                logger.warn("删除缓存视频失败: {}", entry.path, e);
+            }
+        }
+    }
+
+    /**
+     * 启动时根据缓存目录中已有的文件重建索引
+     */
+    private void load() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    String key = name.substring(0, name.length() - SUFFIX.length());
+                    long size = Files.size(path);
+                    entries.put(key, new Entry(key, path, size, Files.getLastModifiedTime(path).toMillis()));
+                    totalBytes += size;
+                }
+            }
+        }
+        evict();
+        logger.info("视频缓存已加载: {} 个文件，共 {} bytes", entries.size(), totalBytes);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private final class CacheHandle implements Handle {
+        private final Entry entry;
+        private boolean closed;
+
+        private CacheHandle(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public File file() {
+            return entry.path.toFile();
+        }
+
+        @Override
+        public void close() {
+            synchronized (VideoCache.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(entry);
+        }
+    }
+}
@@ -31,7 +31,7 @@ public class PluginConfig {
      */
     private Boolean analysisVideoSend = true;
     /**
-     * 视频时长限制，单位秒，超过该时长的视频将不进行分析，0 或负数表示不限制
+     * 视频时长限制，单位秒，超过该时长的视频不完整下载，只发送预览片段（见 previewEnable），0 或负数表示不限制
      */
     private Long durationSecLimit = 600L;
     /**
@@ -50,6 +50,238 @@ public class PluginConfig {
      * 重新分析时间间隔，单位秒
      */
     private Long reanalysisTimeSeconds = 3L;
+    /**
+     * 是否异步处理解析任务，开启后消息处理器只负责识别链接，耗时操作交给独立的执行器
+     */
+    private Boolean asyncEnable = true;
+    /**
+     * 异步解析的最大并发数
+     */
+    private Integer asyncMaxConcurrency = 8;
+    /**
+     * 异步解析等待队列长度
+     */
+    private Integer asyncQueueCapacity = 64;
+    /**
+     * 等待队列已满时的拒绝策略：discard | discard-oldest | caller-runs
+     */
+    private String asyncRejectPolicy = "discard";
+    /**
+     * 是否缓存 B 站 API 的解析响应
+     */
+    private Boolean metaCacheEnable = true;
+    /**
+     * API 响应缓存的最大条目数
+     */
+    private Integer metaCacheMaxEntries = 512;
+    /**
+     * API 响应缓存的最大总字节数
+     */
+    private Long metaCacheMaxBytes = 16L * 1024 * 1024;
+    /**
+     * 缓存过期后仍可返回旧值（同时后台刷新）的时长，单位秒，0 表示不返回旧值
+     */
+    private Long metaCacheStaleSeconds = 300L;
+    /**
+     * 视频信息缓存有效期，单位秒
+     */
+    private Long metaCacheVideoTtlSeconds = 600L;
+    /**
+     * 番剧信息缓存有效期，单位秒
+     */
+    private Long metaCacheBangumiTtlSeconds = 1800L;
+    /**
+     * 直播间信息缓存有效期，单位秒，直播标题与人气变化较快
+     */
+    private Long metaCacheLiveTtlSeconds = 30L;
+    /**
+     * 专栏信息缓存有效期，单位秒
+     */
+    private Long metaCacheArticleTtlSeconds = 600L;
+    /**
+     * 动态信息缓存有效期，单位秒
+     */
+    private Long metaCacheDynamicTtlSeconds = 300L;
+    /**
+     * 是否在磁盘上缓存合并后的视频，关闭后视频发送完毕立即删除
+     */
+    private Boolean videoCacheEnable = true;
+    /**
+     * 视频缓存的总大小上限，单位字节
+     */
+    private Long videoCacheMaxBytes = 2L * 1024 * 1024 * 1024;
+    /**
+     * 视频缓存淘汰策略：lru | lfu
+     */
+    private String videoCachePolicy = "lru";
+    /**
+     * 视频下载的并行连接数，视频流与音频流共享
+     */
+    private Integer downloadConnections = 4;
+    /**
+     * 分段下载时每个分段的字节数
+     */
+    private Long downloadChunkBytes = 4L * 1024 * 1024;
+    /**
+     * 单个分段下载失败后的最大重试次数
+     */
+    private Integer downloadMaxRetries = 3;
+    /**
+     * 对冲下载的观察时长，单位毫秒，超过该时长仍低于速度阈值则启动备用 CDN 地址，0 表示只在失败时切换
+     */
+    private Long downloadHedgeDelayMs = 3000L;
+    /**
+     * 对冲下载的速度阈值，单位字节/秒
+     */
+    private Long downloadHedgeMinBytesPerSec = 512L * 1024;
+    /**
+     * 音视频合并方式：java 使用内置混流器（不重新编码），ffmpeg 始终调用 ffmpeg
+     */
+    private String muxEngine = "java";
+    /**
+     * 是否边下载边混流，仅在 muxEngine 为 java 时生效，音视频流直接交给内置混流器，不写中间文件
+     */
+    private Boolean downloadStreamingMux = true;
+    /**
+     * 边下载边混流时每个流同时在途的分段数，内存占用约为 2 × 该值 × downloadChunkBytes
+     */
+    private Integer downloadStreamWindow = 4;
+    /**
+     * 同时运行的 ffmpeg 进程数上限，超出的合并任务排队等待
+     */
+    private Integer ffmpegMaxConcurrency = 2;
+    /**
+     * 单个 ffmpeg 合并任务的总时长上限（包括排队），单位秒，超时后强制结束进程，0 表示不限制
+     */
+    private Long ffmpegTimeoutSeconds = 300L;
+    /**
+     * 一条消息中最多解析的链接数，多个链接会并行解析并合并为一次发送，1 表示只解析第一个链接
+     */
+    private Integer multiLinkMaxCount = 5;
+    /**
+     * 多个链接的解析结果是否以合并转发消息发送，false 时用分隔线拼成一条消息
+     */
+    private Boolean multiLinkForward = true;
+    /**
+     * 短链解析结果的缓存条数上限，缓存保存在 tmpPath/short-links.tsv 中，重启后仍然有效
+     */
+    private Integer shortLinkCacheMaxEntries = 4096;
+    /**
+     * 冷却记录的条数上限，超出时淘汰最早的记录
+     */
+    private Integer reanalysisCacheMaxEntries = 10000;
+    /**
+     * 是否对 B 站 API 请求进行客户端限流
+     */
+    private Boolean apiRateLimitEnable = true;
+    /**
+     * 每类接口每秒的请求数
+     */
+    private Double apiRatePerSecond = 3.0;
+    /**
+     * 每类接口允许的突发请求数（令牌桶容量）
+     */
+    private Integer apiRateBurst = 6;
+    /**
+     * 每类接口的并发请求上限，遇到风控时自动减半
+     */
+    private Integer apiMaxConcurrency = 4;
+    /**
+     * 请求排队等待限流的最长时间（毫秒）
+     */
+    private Long apiQueueTimeoutMillis = 3000L;
+    /**
+     * 连续触发风控时冷却时长的上限（秒）
+     */
+    private Long apiBackoffMaxSeconds = 60L;
+    /**
+     * API 客户端连接超时（毫秒）
+     */
+    private Long httpApiConnectTimeoutMs = 3000L;
+    /**
+     * API 客户端读取超时（毫秒）
+     */
+    private Long httpApiReadTimeoutMs = 5000L;
+    /**
+     * API 请求的整体超时（毫秒），包括重定向与重试
+     */
+    private Long httpApiCallTimeoutMs = 10000L;
+    /**
+     * API 客户端连接池保留的空闲连接数
+     */
+    private Integer httpApiMaxIdleConnections = 4;
+    /**
+     * 下载客户端连接超时（毫秒）
+     */
+    private Long httpDownloadConnectTimeoutMs = 5000L;
+    /**
+     * 下载客户端读取超时（毫秒）
+     */
+    private Long httpDownloadReadTimeoutMs = 30000L;
+    /**
+     * 下载客户端连接池保留的空闲连接数
+     */
+    private Integer httpDownloadMaxIdleConnections = 16;
+    /**
+     * 下载时对同一 CDN 主机的并发请求上限（分段、对冲与流式下载共用），0 表示不限制
+     */
+    private Integer httpDownloadMaxRequestsPerHost = 16;
+    /**
+     * DNS 解析结果缓存时长（秒），0 表示不缓存
+     */
+    private Long httpDnsCacheTtlSeconds = 300L;
+    /**
+     * 插件启动时预先建立连接的地址，逗号分隔
+     */
+    private String httpApiWarmUpUrls = "https://api.bilibili.com/,https://api.live.bilibili.com/";
+    /**
+     * 插件启动时预先建立连接的 CDN 地址，逗号分隔
+     */
+    private String httpDownloadWarmUpUrls = "";
+    /**
+     * 宿主没有 Micrometer 时解析指标输出到日志的间隔（秒），0 表示不输出
+     */
+    private Long metricsLogIntervalSeconds = 300L;
+    /**
+     * 发送视频的目标大小（字节），按各清晰度的码率估算大小，选择不超过该大小的最高清晰度；0 或负数表示不限制
+     */
+    private Long videoSizeBudgetBytes = 32L * 1024 * 1024;
+    /**
+     * 按群覆盖目标大小，格式为 群号:字节,群号:字节
+     */
+    private String videoSizeBudgetGroups = "";
+    /**
+     * 视频编码的优先顺序，排在前面的编码只要有满足大小的清晰度就优先使用
+     */
+    private String videoCodecPreference = "avc,hevc,av1";
+    /**
+     * 短视频是否优先下载音视频合一的 MP4，不需要合并
+     */
+    private Boolean progressiveEnable = true;
+    /**
+     * 尝试单文件 MP4 的最长视频时长（秒）
+     */
+    private Long progressiveMaxDurationSec = 60L;
+    /**
+     * 单文件 MP4 可接受的最低清晰度代码，低于该清晰度时改用 DASH
+     */
+    private Integer progressiveMinQn = 32;
+    /**
+     * 超出时长限制的视频是否发送开头的预览片段
+     */
+    private Boolean previewEnable = true;
+    /**
+     * 预览片段的时长（秒），按分段边界向上取整
+     */
+    private Integer previewSeconds = 30;
+    /**
+     * 临时工作区（tmpPath/work）的配额，达到后不再开始新的视频下载，0 或负数表示不限制
+     */
+    private Long tempQuotaBytes = 2L * 1024 * 1024 * 1024;
+    /**
+     * 定时清理崩溃遗留临时文件的间隔（秒），0 或负数表示只在启动时清理
+     */
+    private Long tempSweepIntervalSec = 600L;
 
     @Override
     public String toString() {
@@ -63,6 +295,64 @@ public class PluginConfig {
                 ", imagesSize='" + imagesSize + '\'' +
                 ", coverImagesSize='" + coverImagesSize + '\'' +
                 ", reanalysisTimeSeconds=" + reanalysisTimeSeconds +
+                ", asyncEnable=" + asyncEnable +
+                ", asyncMaxConcurrency=" + asyncMaxConcurrency +
+                ", asyncQueueCapacity=" + asyncQueueCapacity +
+                ", asyncRejectPolicy='" + asyncRejectPolicy + '\'' +
+                ", metaCacheEnable=" + metaCacheEnable +
+                ", metaCacheMaxEntries=" + metaCacheMaxEntries +
+                ", metaCacheMaxBytes=" + metaCacheMaxBytes +
+                ", metaCacheStaleSeconds=" + metaCacheStaleSeconds +
+                ", metaCacheVideoTtlSeconds=" + metaCacheVideoTtlSeconds +
+                ", metaCacheBangumiTtlSeconds=" + metaCacheBangumiTtlSeconds +
+                ", metaCacheLiveTtlSeconds=" + metaCacheLiveTtlSeconds +
+                ", metaCacheArticleTtlSeconds=" + metaCacheArticleTtlSeconds +
+                ", metaCacheDynamicTtlSeconds=" + metaCacheDynamicTtlSeconds +
+                ", videoCacheEnable=" + videoCacheEnable +
+                ", videoCacheMaxBytes=" + videoCacheMaxBytes +
+                ", videoCachePolicy='" + videoCachePolicy + '\'' +
+                ", downloadConnections=" + downloadConnections +
+                ", downloadChunkBytes=" + downloadChunkBytes +
+                ", downloadMaxRetries=" + downloadMaxRetries +
+                ", downloadHedgeDelayMs=" + downloadHedgeDelayMs +
+                ", downloadHedgeMinBytesPerSec=" + downloadHedgeMinBytesPerSec +
+                ", muxEngine='" + muxEngine + '\'' +
+                ", downloadStreamingMux=" + downloadStreamingMux +
+                ", downloadStreamWindow=" + downloadStreamWindow +
+                ", ffmpegMaxConcurrency=" + ffmpegMaxConcurrency +
+                ", ffmpegTimeoutSeconds=" + ffmpegTimeoutSeconds +
+                ", multiLinkMaxCount=" + multiLinkMaxCount +
+                ", multiLinkForward=" + multiLinkForward +
+                ", shortLinkCacheMaxEntries=" + shortLinkCacheMaxEntries +
+                ", reanalysisCacheMaxEntries=" + reanalysisCacheMaxEntries +
+                ", apiRateLimitEnable=" + apiRateLimitEnable +
+                ", apiRatePerSecond=" + apiRatePerSecond +
+                ", apiRateBurst=" + apiRateBurst +
+                ", apiMaxConcurrency=" + apiMaxConcurrency +
+                ", apiQueueTimeoutMillis=" + apiQueueTimeoutMillis +
+                ", apiBackoffMaxSeconds=" + apiBackoffMaxSeconds +
+                ", httpApiConnectTimeoutMs=" + httpApiConnectTimeoutMs +
+                ", httpApiReadTimeoutMs=" + httpApiReadTimeoutMs +
+                ", httpApiCallTimeoutMs=" + httpApiCallTimeoutMs +
+                ", httpApiMaxIdleConnections=" + httpApiMaxIdleConnections +
+                ", httpDownloadConnectTimeoutMs=" + httpDownloadConnectTimeoutMs +
+                ", httpDownloadReadTimeoutMs=" + httpDownloadReadTimeoutMs +
+                ", httpDownloadMaxIdleConnections=" + httpDownloadMaxIdleConnections +
+                ", httpDownloadMaxRequestsPerHost=" + httpDownloadMaxRequestsPerHost +
+                ", httpDnsCacheTtlSeconds=" + httpDnsCacheTtlSeconds +
+                ", httpApiWarmUpUrls='" + httpApiWarmUpUrls + '\'' +
+                ", httpDownloadWarmUpUrls='" + httpDownloadWarmUpUrls + '\'' +
+                ", metricsLogIntervalSeconds=" + metricsLogIntervalSeconds +
+                ", videoSizeBudgetBytes=" + videoSizeBudgetBytes +
+                ", videoSizeBudgetGroups='" + videoSizeBudgetGroups + '\'' +
+                ", videoCodecPreference='" + videoCodecPreference + '\'' +
+                ", progressiveEnable=" + progressiveEnable +
+                ", progressiveMaxDurationSec=" + progressiveMaxDurationSec +
+                ", progressiveMinQn=" + progressiveMinQn +
+                ", previewEnable=" + previewEnable +
+                ", previewSeconds=" + previewSeconds +
+                ", tempQuotaBytes=" + tempQuotaBytes +
+                ", tempSweepIntervalSec=" + tempSweepIntervalSec +
                 '}';
     }
     
@@ -122,6 +412,354 @@ public class PluginConfig {
                 Long.class,
                 pluginConfig.getDurationSecLimit() // 默认值 600L
         ));
+
+        pluginConfig.setAsyncEnable(env.getProperty(
+                propertiesPrefix + ".asyncEnable",
+                Boolean.class,
+                pluginConfig.getAsyncEnable() // 默认值 true
+        ));
+
+        pluginConfig.setAsyncMaxConcurrency(env.getProperty(
+                propertiesPrefix + ".asyncMaxConcurrency",
+                Integer.class,
+                pluginConfig.getAsyncMaxConcurrency() // 默认值 8
+        ));
+
+        pluginConfig.setAsyncQueueCapacity(env.getProperty(
+                propertiesPrefix + ".asyncQueueCapacity",
+                Integer.class,
+                pluginConfig.getAsyncQueueCapacity() // 默认值 64
+        ));
+
+        pluginConfig.setAsyncRejectPolicy(env.getProperty(
+                propertiesPrefix + ".asyncRejectPolicy",
+                String.class,
+                pluginConfig.getAsyncRejectPolicy() // 默认值 "discard"
+        ));
+
+        pluginConfig.setMetaCacheEnable(env.getProperty(
+                propertiesPrefix + ".metaCacheEnable",
+                Boolean.class,
+                pluginConfig.getMetaCacheEnable() // 默认值 true
+        ));
+
+        pluginConfig.setMetaCacheMaxEntries(env.getProperty(
+                propertiesPrefix + ".metaCacheMaxEntries",
+                Integer.class,
+                pluginConfig.getMetaCacheMaxEntries() // 默认值 512
+        ));
+
+        pluginConfig.setMetaCacheMaxBytes(env.getProperty(
+                propertiesPrefix + ".metaCacheMaxBytes",
+                Long.class,
+                pluginConfig.getMetaCacheMaxBytes() // 默认值 16MB
+        ));
+
+        pluginConfig.setMetaCacheStaleSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheStaleSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheStaleSeconds() // 默认值 300L
+        ));
+
+        pluginConfig.setMetaCacheVideoTtlSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheVideoTtlSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheVideoTtlSeconds() // 默认值 600L
+        ));
+
+        pluginConfig.setMetaCacheBangumiTtlSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheBangumiTtlSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheBangumiTtlSeconds() // 默认值 1800L
+        ));
+
+        pluginConfig.setMetaCacheLiveTtlSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheLiveTtlSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheLiveTtlSeconds() // 默认值 30L
+        ));
+
+        pluginConfig.setMetaCacheArticleTtlSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheArticleTtlSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheArticleTtlSeconds() // 默认值 600L
+        ));
+
+        pluginConfig.setMetaCacheDynamicTtlSeconds(env.getProperty(
+                propertiesPrefix + ".metaCacheDynamicTtlSeconds",
+                Long.class,
+                pluginConfig.getMetaCacheDynamicTtlSeconds() // 默认值 300L
+        ));
+
+        pluginConfig.setVideoCacheEnable(env.getProperty(
+                propertiesPrefix + ".videoCacheEnable",
+                Boolean.class,
+                pluginConfig.getVideoCacheEnable() // 默认值 true
+        ));
+
+        pluginConfig.setVideoCacheMaxBytes(env.getProperty(
+                propertiesPrefix + ".videoCacheMaxBytes",
+                Long.class,
+                pluginConfig.getVideoCacheMaxBytes() // 默认值 2GB
+        ));
+
+        pluginConfig.setVideoCachePolicy(env.getProperty(
+                propertiesPrefix + ".videoCachePolicy",
+                String.class,
+                pluginConfig.getVideoCachePolicy() // 默认值 "lru"
+        ));
+
+        pluginConfig.setDownloadConnections(env.getProperty(
+                propertiesPrefix + ".downloadConnections",
+                Integer.class,
+                pluginConfig.getDownloadConnections() // 默认值 4
+        ));
+
+        pluginConfig.setDownloadChunkBytes(env.getProperty(
+                propertiesPrefix + ".downloadChunkBytes",
+                Long.class,
+                pluginConfig.getDownloadChunkBytes() // 默认值 4MB
+        ));
+
+        pluginConfig.setDownloadMaxRetries(env.getProperty(
+                propertiesPrefix + ".downloadMaxRetries",
+                Integer.class,
+                pluginConfig.getDownloadMaxRetries() // 默认值 3
+        ));
+
+        pluginConfig.setDownloadHedgeDelayMs(env.getProperty(
+                propertiesPrefix + ".downloadHedgeDelayMs",
+                Long.class,
+                pluginConfig.getDownloadHedgeDelayMs() // 默认值 3000L
+        ));
+
+        pluginConfig.setDownloadHedgeMinBytesPerSec(env.getProperty(
+                propertiesPrefix + ".downloadHedgeMinBytesPerSec",
+                Long.class,
+                pluginConfig.getDownloadHedgeMinBytesPerSec() // 默认值 512KB/s
+        ));
+
+        pluginConfig.setMuxEngine(env.getProperty(
+                propertiesPrefix + ".muxEngine",
+                String.class,
+                pluginConfig.getMuxEngine() // 默认值 "java"
+        ));
+
+        pluginConfig.setDownloadStreamingMux(env.getProperty(
+                propertiesPrefix + ".downloadStreamingMux",
+                Boolean.class,
+                pluginConfig.getDownloadStreamingMux() // 默认值 true
+        ));
+
+        pluginConfig.setDownloadStreamWindow(env.getProperty(
+                propertiesPrefix + ".downloadStreamWindow",
+                Integer.class,
+                pluginConfig.getDownloadStreamWindow() // 默认值 4
+        ));
+
+        pluginConfig.setFfmpegMaxConcurrency(env.getProperty(
+                propertiesPrefix + ".ffmpegMaxConcurrency",
+                Integer.class,
+                pluginConfig.getFfmpegMaxConcurrency() // 默认值 2
+        ));
+
+        pluginConfig.setFfmpegTimeoutSeconds(env.getProperty(
+                propertiesPrefix + ".ffmpegTimeoutSeconds",
+                Long.class,
+                pluginConfig.getFfmpegTimeoutSeconds() // 默认值 300
+        ));
+
+        pluginConfig.setMultiLinkMaxCount(env.getProperty(
+                propertiesPrefix + ".multiLinkMaxCount",
+                Integer.class,
+                pluginConfig.getMultiLinkMaxCount() // 默认值 5
+        ));
+
+        pluginConfig.setMultiLinkForward(env.getProperty(
+                propertiesPrefix + ".multiLinkForward",
+                Boolean.class,
+                pluginConfig.getMultiLinkForward() // 默认值 true
+        ));
+
+        pluginConfig.setShortLinkCacheMaxEntries(env.getProperty(
+                propertiesPrefix + ".shortLinkCacheMaxEntries",
+                Integer.class,
+                pluginConfig.getShortLinkCacheMaxEntries() // 默认值 4096
+        ));
+
+        pluginConfig.setReanalysisCacheMaxEntries(env.getProperty(
+                propertiesPrefix + ".reanalysisCacheMaxEntries",
+                Integer.class,
+                pluginConfig.getReanalysisCacheMaxEntries() // 默认值 10000
+        ));
+
+        pluginConfig.setApiRateLimitEnable(env.getProperty(
+                propertiesPrefix + ".apiRateLimitEnable",
+                Boolean.class,
+                pluginConfig.getApiRateLimitEnable() // 默认值 true
+        ));
+
+        pluginConfig.setApiRatePerSecond(env.getProperty(
+                propertiesPrefix + ".apiRatePerSecond",
+                Double.class,
+                pluginConfig.getApiRatePerSecond() // 默认值 3.0
+        ));
+
+        pluginConfig.setApiRateBurst(env.getProperty(
+                propertiesPrefix + ".apiRateBurst",
+                Integer.class,
+                pluginConfig.getApiRateBurst() // 默认值 6
+        ));
+
+        pluginConfig.setApiMaxConcurrency(env.getProperty(
+                propertiesPrefix + ".apiMaxConcurrency",
+                Integer.class,
+                pluginConfig.getApiMaxConcurrency() // 默认值 4
+        ));
+
+        pluginConfig.setApiQueueTimeoutMillis(env.getProperty(
+                propertiesPrefix + ".apiQueueTimeoutMillis",
+                Long.class,
+                pluginConfig.getApiQueueTimeoutMillis() // 默认值 3000
+        ));
+
+        pluginConfig.setApiBackoffMaxSeconds(env.getProperty(
+                propertiesPrefix + ".apiBackoffMaxSeconds",
+                Long.class,
+                pluginConfig.getApiBackoffMaxSeconds() // 默认值 60
+        ));
+
+        pluginConfig.setHttpApiConnectTimeoutMs(env.getProperty(
+                propertiesPrefix + ".httpApiConnectTimeoutMs",
+                Long.class,
+                pluginConfig.getHttpApiConnectTimeoutMs() // 默认值 3000
+        ));
+
+        pluginConfig.setHttpApiReadTimeoutMs(env.getProperty(
+                propertiesPrefix + ".httpApiReadTimeoutMs",
+                Long.class,
+                pluginConfig.getHttpApiReadTimeoutMs() // 默认值 5000
+        ));
+
+        pluginConfig.setHttpApiCallTimeoutMs(env.getProperty(
+                propertiesPrefix + ".httpApiCallTimeoutMs",
+                Long.class,
+                pluginConfig.getHttpApiCallTimeoutMs() // 默认值 10000
+        ));
+
+        pluginConfig.setHttpApiMaxIdleConnections(env.getProperty(
+                propertiesPrefix + ".httpApiMaxIdleConnections",
+                Integer.class,
+                pluginConfig.getHttpApiMaxIdleConnections() // 默认值 4
+        ));
+
+        pluginConfig.setHttpDownloadConnectTimeoutMs(env.getProperty(
+                propertiesPrefix + ".httpDownloadConnectTimeoutMs",
+                Long.class,
+                pluginConfig.getHttpDownloadConnectTimeoutMs() // 默认值 5000
+        ));
+
+        pluginConfig.setHttpDownloadReadTimeoutMs(env.getProperty(
+                propertiesPrefix + ".httpDownloadReadTimeoutMs",
+                Long.class,
+                pluginConfig.getHttpDownloadReadTimeoutMs() // 默认值 30000
+        ));
+
+        pluginConfig.setHttpDownloadMaxIdleConnections(env.getProperty(
+                propertiesPrefix + ".httpDownloadMaxIdleConnections",
+                Integer.class,
+                pluginConfig.getHttpDownloadMaxIdleConnections() // 默认值 16
+        ));
+
+        pluginConfig.setHttpDownloadMaxRequestsPerHost(env.getProperty(
+                propertiesPrefix + ".httpDownloadMaxRequestsPerHost",
+                Integer.class,
+                pluginConfig.getHttpDownloadMaxRequestsPerHost() // 默认值 16
+        ));
+
+        pluginConfig.setHttpDnsCacheTtlSeconds(env.getProperty(
+                propertiesPrefix + ".httpDnsCacheTtlSeconds",
+                Long.class,
+                pluginConfig.getHttpDnsCacheTtlSeconds() // 默认值 300
+        ));
+
+        pluginConfig.setHttpApiWarmUpUrls(env.getProperty(
+                propertiesPrefix + ".httpApiWarmUpUrls",
+                String.class,
+                pluginConfig.getHttpApiWarmUpUrls() // 默认值 https://api.bilibili.com/,https://api.live.bilibili.com/
+        ));
+
+        pluginConfig.setHttpDownloadWarmUpUrls(env.getProperty(
+                propertiesPrefix + ".httpDownloadWarmUpUrls",
+                String.class,
+                pluginConfig.getHttpDownloadWarmUpUrls() // 默认值 空
+        ));
+
+        pluginConfig.setMetricsLogIntervalSeconds(env.getProperty(
+                propertiesPrefix + ".metricsLogIntervalSeconds",
+                Long.class,
+                pluginConfig.getMetricsLogIntervalSeconds() // 默认值 300
+        ));
+
+        pluginConfig.setVideoSizeBudgetBytes(env.getProperty(
+                propertiesPrefix + ".videoSizeBudgetBytes",
+                Long.class,
+                pluginConfig.getVideoSizeBudgetBytes() // 默认值 32MiB
+        ));
+
+        pluginConfig.setVideoSizeBudgetGroups(env.getProperty(
+                propertiesPrefix + ".videoSizeBudgetGroups",
+                String.class,
+                pluginConfig.getVideoSizeBudgetGroups() // 默认值 ""
+        ));
+
+        pluginConfig.setVideoCodecPreference(env.getProperty(
+                propertiesPrefix + ".videoCodecPreference",
+                String.class,
+                pluginConfig.getVideoCodecPreference() // 默认值 "avc,hevc,av1"
+        ));
+
+        pluginConfig.setProgressiveEnable(env.getProperty(
+                propertiesPrefix + ".progressiveEnable",
+                Boolean.class,
+                pluginConfig.getProgressiveEnable() // 默认值 true
+        ));
+
+        pluginConfig.setProgressiveMaxDurationSec(env.getProperty(
+                propertiesPrefix + ".progressiveMaxDurationSec",
+                Long.class,
+                pluginConfig.getProgressiveMaxDurationSec() // 默认值 60L
+        ));
+
+        pluginConfig.setProgressiveMinQn(env.getProperty(
+                propertiesPrefix + ".progressiveMinQn",
+                Integer.class,
+                pluginConfig.getProgressiveMinQn() // 默认值 32
+        ));
+
+        pluginConfig.setPreviewEnable(env.getProperty(
+                propertiesPrefix + ".previewEnable",
+                Boolean.class,
+                pluginConfig.getPreviewEnable() // 默认值 true
+        ));
+
+        pluginConfig.setPreviewSeconds(env.getProperty(
+                propertiesPrefix + ".previewSeconds",
+                Integer.class,
+                pluginConfig.getPreviewSeconds() // 默认值 30
+        ));
+
+        pluginConfig.setTempQuotaBytes(env.getProperty(
+                propertiesPrefix + ".tempQuotaBytes",
+                Long.class,
+                pluginConfig.getTempQuotaBytes() // 默认值 2 GiB
+        ));
+
+        pluginConfig.setTempSweepIntervalSec(env.getProperty(
+                propertiesPrefix + ".tempSweepIntervalSec",
+                Long.class,
+                pluginConfig.getTempSweepIntervalSec() // 默认值 600L
+        ));
         return pluginConfig;
     }
 
@@ -204,4 +842,468 @@ public class PluginConfig {
     public void setReanalysisTimeSeconds(Long reanalysisTimeSeconds) {
         this.reanalysisTimeSeconds = reanalysisTimeSeconds;
     }
+
+    public Boolean getAsyncEnable() {
+        return asyncEnable;
+    }
+
+    public void setAsyncEnable(Boolean asyncEnable) {
+        this.asyncEnable = asyncEnable;
+    }
+
+    public Integer getAsyncMaxConcurrency() {
+        return asyncMaxConcurrency;
+    }
+
+    public void setAsyncMaxConcurrency(Integer asyncMaxConcurrency) {
+        this.asyncMaxConcurrency = asyncMaxConcurrency;
+    }
+
+    public Integer getAsyncQueueCapacity() {
+        return asyncQueueCapacity;
+    }
+
+    public void setAsyncQueueCapacity(Integer asyncQueueCapacity) {
+        this.asyncQueueCapacity = asyncQueueCapacity;
+    }
+
+    public String getAsyncRejectPolicy() {
+        return asyncRejectPolicy;
+    }
+
+    public void setAsyncRejectPolicy(String asyncRejectPolicy) {
+        this.asyncRejectPolicy = asyncRejectPolicy;
+    }
+
+    public Boolean getMetaCacheEnable() {
+        return metaCacheEnable;
+    }
+
+    public void setMetaCacheEnable(Boolean metaCacheEnable) {
+        this.metaCacheEnable = metaCacheEnable;
+    }
+
+    public Integer getMetaCacheMaxEntries() {
+        return metaCacheMaxEntries;
+    }
+
+    public void setMetaCacheMaxEntries(Integer metaCacheMaxEntries) {
+        this.metaCacheMaxEntries = metaCacheMaxEntries;
+    }
+
+    public Long getMetaCacheMaxBytes() {
+        return metaCacheMaxBytes;
+    }
+
+    public void setMetaCacheMaxBytes(Long metaCacheMaxBytes) {
+        this.metaCacheMaxBytes = metaCacheMaxBytes;
+    }
+
+    public Long getMetaCacheStaleSeconds() {
+        return metaCacheStaleSeconds;
+    }
+
+    public void setMetaCacheStaleSeconds(Long metaCacheStaleSeconds) {
+        this.metaCacheStaleSeconds = metaCacheStaleSeconds;
+    }
+
+    public Long getMetaCacheVideoTtlSeconds() {
+        return metaCacheVideoTtlSeconds;
+    }
+
+    public void setMetaCacheVideoTtlSeconds(Long metaCacheVideoTtlSeconds) {
+        this.metaCacheVideoTtlSeconds = metaCacheVideoTtlSeconds;
+    }
+
+    public Long getMetaCacheBangumiTtlSeconds() {
+        return metaCacheBangumiTtlSeconds;
+    }
+
+    public void setMetaCacheBangumiTtlSeconds(Long metaCacheBangumiTtlSeconds) {
+        this.metaCacheBangumiTtlSeconds = metaCacheBangumiTtlSeconds;
+    }
+
+    public Long getMetaCacheLiveTtlSeconds() {
+        return metaCacheLiveTtlSeconds;
+    }
+
+    public void setMetaCacheLiveTtlSeconds(Long metaCacheLiveTtlSeconds) {
+        this.metaCacheLiveTtlSeconds = metaCacheLiveTtlSeconds;
+    }
+
+    public Long getMetaCacheArticleTtlSeconds() {
+        return metaCacheArticleTtlSeconds;
+    }
+
+    public void setMetaCacheArticleTtlSeconds(Long metaCacheArticleTtlSeconds) {
+        this.metaCacheArticleTtlSeconds = metaCacheArticleTtlSeconds;
+    }
+
+    public Long getMetaCacheDynamicTtlSeconds() {
+        return metaCacheDynamicTtlSeconds;
+    }
+
+    public void setMetaCacheDynamicTtlSeconds(Long metaCacheDynamicTtlSeconds) {
+        this.metaCacheDynamicTtlSeconds = metaCacheDynamicTtlSeconds;
+    }
+
+    public Boolean getVideoCacheEnable() {
+        return videoCacheEnable;
+    }
+
+    public void setVideoCacheEnable(Boolean videoCacheEnable) {
+        this.videoCacheEnable = videoCacheEnable;
+    }
+
+    public Long getVideoCacheMaxBytes() {
+        return videoCacheMaxBytes;
+    }
+
+    public void setVideoCacheMaxBytes(Long videoCacheMaxBytes) {
+        this.videoCacheMaxBytes = videoCacheMaxBytes;
+    }
+
+    public String getVideoCachePolicy() {
+        return videoCachePolicy;
+    }
+
+    public void setVideoCachePolicy(String videoCachePolicy) {
+        this.videoCachePolicy = videoCachePolicy;
+    }
+
+    public Integer getDownloadConnections() {
+        return downloadConnections;
+    }
+
+    public void setDownloadConnections(Integer downloadConnections) {
+        this.downloadConnections = downloadConnections;
+    }
+
+    public Long getDownloadChunkBytes() {
+        return downloadChunkBytes;
+    }
+
+    public void setDownloadChunkBytes(Long downloadChunkBytes) {
+        this.downloadChunkBytes = downloadChunkBytes;
+    }
+
+    public Integer getDownloadMaxRetries() {
+        return downloadMaxRetries;
+    }
+
+    public void setDownloadMaxRetries(Integer downloadMaxRetries) {
+        this.downloadMaxRetries = downloadMaxRetries;
+    }
+
+    public Long getDownloadHedgeDelayMs() {
+        return downloadHedgeDelayMs;
+    }
+
+    public void setDownloadHedgeDelayMs(Long downloadHedgeDelayMs) {
+        this.downloadHedgeDelayMs = downloadHedgeDelayMs;
+    }
+
+    public Long getDownloadHedgeMinBytesPerSec() {
+        return downloadHedgeMinBytesPerSec;
+    }
+
+    public void setDownloadHedgeMinBytesPerSec(Long downloadHedgeMinBytesPerSec) {
+        this.downloadHedgeMinBytesPerSec = downloadHedgeMinBytesPerSec;
+    }
+
+    public String getMuxEngine() {
+        return muxEngine;
+    }
+
+    public void setMuxEngine(String muxEngine) {
+        this.muxEngine = muxEngine;
+    }
+
+    public Boolean getDownloadStreamingMux() {
+        return downloadStreamingMux;
+    }
+
+    public void setDownloadStreamingMux(Boolean downloadStreamingMux) {
+        this.downloadStreamingMux = downloadStreamingMux;
+    }
+
+    public Integer getDownloadStreamWindow() {
+        return downloadStreamWindow;
+    }
+
+    public void setDownloadStreamWindow(Integer downloadStreamWindow) {
+        this.downloadStreamWindow = downloadStreamWindow;
+    }
+
+    public Integer getFfmpegMaxConcurrency() {
+        return ffmpegMaxConcurrency;
+    }
+
+    public void setFfmpegMaxConcurrency(Integer ffmpegMaxConcurrency) {
+        this.ffmpegMaxConcurrency = ffmpegMaxConcurrency;
+    }
+
+    public Long getFfmpegTimeoutSeconds() {
+        return ffmpegTimeoutSeconds;
+    }
+
+    public void setFfmpegTimeoutSeconds(Long ffmpegTimeoutSeconds) {
+        this.ffmpegTimeoutSeconds = ffmpegTimeoutSeconds;
+    }
+
+    public Integer getMultiLinkMaxCount() {
+        return multiLinkMaxCount;
+    }
+
+    public void setMultiLinkMaxCount(Integer multiLinkMaxCount) {
+        this.multiLinkMaxCount = multiLinkMaxCount;
+    }
+
+    public Boolean getMultiLinkForward() {
+        return multiLinkForward;
+    }
+
+    public void setMultiLinkForward(Boolean multiLinkForward) {
+        this.multiLinkForward = multiLinkForward;
+    }
+
+    public Integer getShortLinkCacheMaxEntries() {
+        return shortLinkCacheMaxEntries;
+    }
+
+    public void setShortLinkCacheMaxEntries(Integer shortLinkCacheMaxEntries) {
+        this.shortLinkCacheMaxEntries = shortLinkCacheMaxEntries;
+    }
+
+    public Integer getReanalysisCacheMaxEntries() {
+        return reanalysisCacheMaxEntries;
+    }
+
+    public void setReanalysisCacheMaxEntries(Integer reanalysisCacheMaxEntries) {
+        this.reanalysisCacheMaxEntries = reanalysisCacheMaxEntries;
+    }
+
+    public Boolean getApiRateLimitEnable() {
+        return apiRateLimitEnable;
+    }
+
+    public void setApiRateLimitEnable(Boolean apiRateLimitEnable) {
+        this.apiRateLimitEnable = apiRateLimitEnable;
+    }
+
+    public Double getApiRatePerSecond() {
+        return apiRatePerSecond;
+    }
+
+    public void setApiRatePerSecond(Double apiRatePerSecond) {
+        this.apiRatePerSecond = apiRatePerSecond;
+    }
+
+    public Integer getApiRateBurst() {
+        return apiRateBurst;
+    }
+
+    public void setApiRateBurst(Integer apiRateBurst) {
+        this.apiRateBurst = apiRateBurst;
+    }
+
+    public Integer getApiMaxConcurrency() {
+        return apiMaxConcurrency;
+    }
+
+    public void setApiMaxConcurrency(Integer apiMaxConcurrency) {
+        this.apiMaxConcurrency = apiMaxConcurrency;
+    }
+
+    public Long getApiQueueTimeoutMillis() {
+        return apiQueueTimeoutMillis;
+    }
+
+    public void setApiQueueTimeoutMillis(Long apiQueueTimeoutMillis) {
+        this.apiQueueTimeoutMillis = apiQueueTimeoutMillis;
+    }
+
+    public Long getApiBackoffMaxSeconds() {
+        return apiBackoffMaxSeconds;
+    }
+
+    public void setApiBackoffMaxSeconds(Long apiBackoffMaxSeconds) {
+        this.apiBackoffMaxSeconds = apiBackoffMaxSeconds;
+    }
+
+    public Long getHttpApiConnectTimeoutMs() {
+        return httpApiConnectTimeoutMs;
+    }
+
+    public void setHttpApiConnectTimeoutMs(Long httpApiConnectTimeoutMs) {
+        this.httpApiConnectTimeoutMs = httpApiConnectTimeoutMs;
+    }
+
+    public Long getHttpApiReadTimeoutMs() {
+        return httpApiReadTimeoutMs;
+    }
+
+    public void setHttpApiReadTimeoutMs(Long httpApiReadTimeoutMs) {
+        this.httpApiReadTimeoutMs = httpApiReadTimeoutMs;
+    }
+
+    public Long getHttpApiCallTimeoutMs() {
+        return httpApiCallTimeoutMs;
+    }
+
+    public void setHttpApiCallTimeoutMs(Long httpApiCallTimeoutMs) {
+        this.httpApiCallTimeoutMs = httpApiCallTimeoutMs;
+    }
+
+    public Integer getHttpApiMaxIdleConnections() {
+        return httpApiMaxIdleConnections;
+    }
+
+    public void setHttpApiMaxIdleConnections(Integer httpApiMaxIdleConnections) {
+        this.httpApiMaxIdleConnections = httpApiMaxIdleConnections;
+    }
+
+    public Long getHttpDownloadConnectTimeoutMs() {
+        return httpDownloadConnectTimeoutMs;
+    }
+
+    public void setHttpDownloadConnectTimeoutMs(Long httpDownloadConnectTimeoutMs) {
+        this.httpDownloadConnectTimeoutMs = httpDownloadConnectTimeoutMs;
+    }
+
+    public Long getHttpDownloadReadTimeoutMs() {
+        return httpDownloadReadTimeoutMs;
+    }
+
+    public void setHttpDownloadReadTimeoutMs(Long httpDownloadReadTimeoutMs) {
+        this.httpDownloadReadTimeoutMs = httpDownloadReadTimeoutMs;
+    }
+
+    public Integer getHttpDownloadMaxIdleConnections() {
+        return httpDownloadMaxIdleConnections;
+    }
+
+    public void setHttpDownloadMaxIdleConnections(Integer httpDownloadMaxIdleConnections) {
+        this.httpDownloadMaxIdleConnections = httpDownloadMaxIdleConnections;
+    }
+
+    public Integer getHttpDownloadMaxRequestsPerHost() {
+        return httpDownloadMaxRequestsPerHost;
+    }
+
+    public void setHttpDownloadMaxRequestsPerHost(Integer httpDownloadMaxRequestsPerHost) {
+        this.httpDownloadMaxRequestsPerHost = httpDownloadMaxRequestsPerHost;
+    }
+
+    public Long getHttpDnsCacheTtlSeconds() {
+        return httpDnsCacheTtlSeconds;
+    }
+
+    public void setHttpDnsCacheTtlSeconds(Long httpDnsCacheTtlSeconds) {
+        this.httpDnsCacheTtlSeconds = httpDnsCacheTtlSeconds;
+    }
+
+    public String getHttpApiWarmUpUrls() {
+        return httpApiWarmUpUrls;
+    }
+
+    public void setHttpApiWarmUpUrls(String httpApiWarmUpUrls) {
+        this.httpApiWarmUpUrls = httpApiWarmUpUrls;
+    }
+
+    public String getHttpDownloadWarmUpUrls() {
+        return httpDownloadWarmUpUrls;
+    }
+
+    public void setHttpDownloadWarmUpUrls(String httpDownloadWarmUpUrls) {
+        this.httpDownloadWarmUpUrls = httpDownloadWarmUpUrls;
+    }
+
+    public Long getMetricsLogIntervalSeconds() {
+        return metricsLogIntervalSeconds;
+    }
+
+    public void setMetricsLogIntervalSeconds(Long metricsLogIntervalSeconds) {
+        this.metricsLogIntervalSeconds = metricsLogIntervalSeconds;
+    }
+
+    public Long getVideoSizeBudgetBytes() {
+        return videoSizeBudgetBytes;
+    }
+
+    public void setVideoSizeBudgetBytes(Long videoSizeBudgetBytes) {
+        this.videoSizeBudgetBytes = videoSizeBudgetBytes;
+    }
+
+    public String getVideoSizeBudgetGroups() {
+        return videoSizeBudgetGroups;
+    }
+
+    public void setVideoSizeBudgetGroups(String videoSizeBudgetGroups) {
+        this.videoSizeBudgetGroups = videoSizeBudgetGroups;
+    }
+
+    public String getVideoCodecPreference() {
+        return videoCodecPreference;
+    }
+
+    public void setVideoCodecPreference(String videoCodecPreference) {
+        this.videoCodecPreference = videoCodecPreference;
+    }
+
+    public Boolean getProgressiveEnable() {
+        return progressiveEnable;
+    }
+
+    public void setProgressiveEnable(Boolean progressiveEnable) {
+        this.progressiveEnable = progressiveEnable;
+    }
+
+    public Long getProgressiveMaxDurationSec() {
+        return progressiveMaxDurationSec;
+    }
+
+    public void setProgressiveMaxDurationSec(Long progressiveMaxDurationSec) {
+        this.progressiveMaxDurationSec = progressiveMaxDurationSec;
+    }
+
+    public Integer getProgressiveMinQn() {
+        return progressiveMinQn;
+    }
+
+    public void setProgressiveMinQn(Integer progressiveMinQn) {
+        this.progressiveMinQn = progressiveMinQn;
+    }
+
+    public Boolean getPreviewEnable() {
+        return previewEnable;
+    }
+
+    public void setPreviewEnable(Boolean previewEnable) {
+        this.previewEnable = previewEnable;
+    }
+
+    public Integer getPreviewSeconds() {
+        return previewSeconds;
+    }
+
+    public void setPreviewSeconds(Integer previewSeconds) {
+        this.previewSeconds = previewSeconds;
+    }
+
+    public Long getTempQuotaBytes() {
+        return tempQuotaBytes;
+    }
+
+    public void setTempQuotaBytes(Long tempQuotaBytes) {
+        this.tempQuotaBytes = tempQuotaBytes;
+    }
+
+    public Long getTempSweepIntervalSec() {
+        return tempSweepIntervalSec;
+    }
+
+    public void setTempSweepIntervalSec(Long tempSweepIntervalSec) {
+        this.tempSweepIntervalSec = tempSweepIntervalSec;
+    }
 }
\ No newline at end of file
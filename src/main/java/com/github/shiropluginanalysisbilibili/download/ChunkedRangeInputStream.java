@@ -0,0 +1,268 @@
+package com.github.shiropluginanalysisbilibili.download;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 按顺序交付的分段下载流：
+ * 同时最多有 window 个 Range 分段在后台下载，分段数据暂存在内存中，按顺序交给读取方。
+ * 读取方消费完一个分段后才会发起下一个分段，因此内存占用不超过 window × chunkSize。
+ * <p>
+ * 分段失败时依次换用其它候选地址重试；服务器不支持 Range 时直接透传整个响应体。
+ * 每个分段请求在读完响应体之前占用一个主机许可；透传的响应只在取得响应头之前占用，
+ * 否则读取方同时读取视频流与音频流时可能互相等待。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-16-10:40
+ */
+final class ChunkedRangeInputStream extends InputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedRangeInputStream.class);
+
+    private final OkHttpClient client;
+    private final Function<String, Request> requestFactory;
+    private final List<String> urls;
+    private final HostScoreboard scoreboard;
+    private final HostLimiter hostLimiter;
+    private final Executor executor;
+    private final long chunkSize;
+    private final int window;
+    private final int maxRetries;
+
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private long total = -1;
+    private long nextChunkStart;
+
+    private byte[] current = new byte[0];
+    private int currentPos;
+
+    /**
+     * 服务器不支持 Range 时透传的响应
+     */
+    private Response passthrough;
+    private InputStream passthroughStream;
+    private volatile boolean closed;
+
+    ChunkedRangeInputStream(OkHttpClient client, Function<String, Request> requestFactory, List<String> urls,
+                            HostScoreboard scoreboard, HostLimiter hostLimiter, Executor executor,
+                            long chunkSize, int window, int maxRetries) {
+        this.client = client;
+        this.requestFactory = requestFactory;
+        this.urls = urls;
+        this.scoreboard = scoreboard;
+        this.hostLimiter = hostLimiter;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.window = Math.max(1, window);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("流已关闭");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (passthroughStream != null) {
+            return passthroughStream.read(b, off, len);
+        }
+        if (currentPos >= current.length && !nextChunk()) {
+            return -1;
+        }
+        if (passthroughStream != null) {
+            return passthroughStream.read(b, off, len);
+        }
+        int n = Math.min(len, current.length - currentPos);
+        System.arraycopy(current, currentPos, b, off, n);
+        currentPos += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (CompletableFuture<byte[]> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        if (passthrough != null) {
+            passthrough.close();
+        }
+    }
+
+    /**
+     * 切换到下一个分段
+     *
+     * @return false 表示已读完
+     */
+    private boolean nextChunk() throws IOException {
+        if (total < 0) {
+            probe();
+            if (passthroughStream != null) {
+                return true;
+            }
+        } else {
+            CompletableFuture<byte[]> future = pending.poll();
+            if (future == null) {
+                return false;
+            }
+            current = await(future);
+        }
+        currentPos = 0;
+        fillWindow();
+        return current.length > 0 || !pending.isEmpty();
+    }
+
+    /**
+     * 第一个分段同步下载，同时得到文件总大小；失败时轮换候选地址重试
+     */
+    private void probe() throws IOException {
+        IOException last = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            String url = urls.get(attempt % urls.size());
+            long start = System.nanoTime();
+            Response resp = null;
+            HostLimiter.Permit permit = null;
+            try {
+                permit = hostLimiter.acquire(url);
+                resp = client.newCall(withRange(url, 0, chunkSize - 1)).execute();
+                if (resp.code() != 206) {
+                    if (!resp.isSuccessful()) {
+                        throw new IOException("HTTP " + resp.code());
+                    }
+                    logger.debug("服务器不支持 Range，直接透传响应: {}", HostScoreboard.host(url));
+                    passthrough = resp;
+                    passthroughStream = resp.body().byteStream();
+                    return;
+                }
+                long length = RangedDownloader.parseTotal(resp.header("Content-Range"));
+                if (length < 0) {
+                    throw new IOException("无法识别 Content-Range: " + resp.header("Content-Range"));
+                }
+                byte[] data = resp.body().bytes();
+                if (data.length != Math.min(chunkSize, length)) {
+                    throw new IOException("分段数据不完整: " + data.length + "/" + Math.min(chunkSize, length));
+                }
+                scoreboard.record(url, data.length, System.nanoTime() - start);
+                total = length;
+                current = data;
+                nextChunkStart = data.length;
+                return;
+            } catch (IOException e) {
+                scoreboard.recordFailure(url);
+                last = e;
+                logger.debug("首个分段下载失败，第 {} 次重试: {}", attempt + 1, e.getMessage());
+            } finally {
+                if (resp != null && resp != passthrough) {
+                    resp.close();
+                }
+                if (permit != null) {
+                    permit.close();
+                }
+            }
+        }
+        throw new IOException("首个分段重试 " + maxRetries + " 次后仍失败", last);
+    }
+
+    private void fillWindow() {
+        while (pending.size() < window && nextChunkStart < total) {
+            long from = nextChunkStart;
+            long to = Math.min(from + chunkSize, total) - 1;
+            nextChunkStart = to + 1;
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fetch(from, to);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+    }
+
+    /**
+     * 下载一个分段，失败时轮换候选地址重试
+     */
+    private byte[] fetch(long from, long to) throws IOException {
+        IOException last = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            String url = urls.get(attempt % urls.size());
+            long start = System.nanoTime();
+            HostLimiter.Permit permit = hostLimiter.acquire(url);
+            try (Response resp = client.newCall(withRange(url, from, to)).execute()) {
+                if (resp.code() != 206) {
+                    throw new IOException("分段请求未返回 206，HTTP " + resp.code());
+                }
+                byte[] data = resp.body().bytes();
+                if (data.length != to - from + 1) {
+                    throw new IOException("分段数据不完整: " + data.length + "/" + (to - from + 1));
+                }
+                scoreboard.record(url, data.length, System.nanoTime() - start);
+                return data;
+            } catch (IOException e) {
+                if (closed) {
+                    throw e;
+                }
+                scoreboard.recordFailure(url);
+                last = e;
+                logger.debug("分段 {}-{} 下载失败，第 {} 次重试: {}", from, to, attempt + 1, e.getMessage());
+            } finally {
+                permit.close();
+            }
+        }
+        throw new IOException("分段 " + from + "-" + to + " 重试 " + maxRetries + " 次后仍失败", last);
+    }
+
+    private Request withRange(String url, long from, long to) {
+        return requestFactory.apply(url).newBuilder()
+                .header("Range", "bytes=" + from + "-" + to)
+                .build();
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("下载被中断");
+        } catch (CancellationException e) {
+            throw new IOException("下载已取消", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.shiropluginanalysisbilibili.download;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 对同一 CDN 主机的并发请求上限。
+ * 下载全部使用同步的 {@code Call.execute()}，OkHttp Dispatcher 的 maxRequestsPerHost 只限制 enqueue，
+ * 因此在发起请求前按主机取得许可，读完（或放弃）响应体后归还。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-14:20
+ */
+final class HostLimiter {
+
+    /**
+     * 一次许可，关闭时归还，重复关闭无效
+     */
+    interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permit UNLIMITED = () -> {
+    };
+
+    private final int maxPerHost;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxPerHost 每个主机的并发请求上限，0 或负数表示不限制
+     */
+    HostLimiter(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * 取得对 url 所在主机发起一次请求的许可，达到上限时阻塞等待
+     */
+    Permit acquire(String url) throws InterruptedIOException {
+        if (maxPerHost <= 0) {
+            return UNLIMITED;
+        }
+        Semaphore semaphore = hosts.computeIfAbsent(HostScoreboard.host(url), h -> new Semaphore(maxPerHost));
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待下载许可时被中断");
+        }
+        return new Permit() {
+            private boolean released;
+
+            @Override
+            public synchronized void close() {
+                if (!released) {
+                    released = true;
+                    semaphore.release();
+                }
+            }
+        };
+    }
+}
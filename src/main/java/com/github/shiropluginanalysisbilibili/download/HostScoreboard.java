@@ -0,0 +1,77 @@
+package com.github.shiropluginanalysisbilibili.download;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CDN 节点吞吐评分：按主机记录下载速度的指数滑动平均，用于给候选地址排序。
+ * - 每次下载结束（无论胜出还是被取消）都会用实测速度更新评分
+ * - 下载失败时评分减半，短时间内不再优先选择该节点
+ * - 没有历史数据的节点按已知节点的平均评分参与排序，评分相同的节点保持 API 返回的原始顺序
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-14-15:20
+ */
+public class HostScoreboard {
+
+    /**
+     * 新样本的权重
+     */
+    private static final double ALPHA = 0.3;
+
+    private final Map<String, Double> scores = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次下载的实测吞吐
+     *
+     * @param url         下载地址
+     * @param bytes       下载的字节数
+     * @param elapsedNano 耗时，纳秒
+     */
+    public void record(String url, long bytes, long elapsedNano) {
+        if (bytes <= 0 || elapsedNano <= 0) {
+            return;
+        }
+        double bytesPerSec = bytes * 1_000_000_000.0 / elapsedNano;
+        scores.merge(host(url), bytesPerSec, (old, sample) -> old * (1 - ALPHA) + sample * ALPHA);
+    }
+
+    /**
+     * 记录一次下载失败
+     */
+    public void recordFailure(String url) {
+        scores.compute(host(url), (h, old) -> old == null ? 0.0 : old / 2);
+    }
+
+    /**
+     * 按评分从高到低排序候选地址
+     */
+    public List<String> rank(List<String> urls) {
+        double unknown = scores.values().stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        List<String> ranked = new ArrayList<>(urls);
+        // List.sort 是稳定排序，评分相同的地址保持原始顺序
+        ranked.sort(Comparator.comparingDouble((String url) -> -scores.getOrDefault(host(url), unknown)));
+        return ranked;
+    }
+
+    /**
+     * 当前各主机的评分（字节/秒）
+     */
+    public Map<String, Double> snapshot() {
+        return new LinkedHashMap<>(scores);
+    }
+
+    static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package com.github.shiropluginanalysisbilibili.download;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 分段并行下载器：
+ * - 多个资源（DASH 的视频流与音频流）同时下载
+ * - 每个资源按 HTTP Range 切分为若干分段，由多条连接并行拉取，通过 FileChannel 按位置写入预分配的文件
+ * - 单个分段失败时只重试该分段，并从已写入的位置续传
+ * - 服务器不支持 Range 时回退为单连接顺序下载
+ * - 对同一 CDN 主机的并发请求数有上限（{@link HostLimiter}），分段、对冲与流式读取共用
+ * - 资源有备用 CDN 地址时进行对冲下载：主地址在一段时间后仍低于速度阈值或直接失败，
+ *   就启动备用地址，谁先完成用谁，其余的取消
+ * - 也可以通过 {@link #openStream(List, int)} 以流的方式按顺序交付，边下载边消费，不落盘
+ * - 也可以通过 {@link #downloadRange(List, long, long, File)} 只下载资源的一部分（例如预览片段）
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-14-10:10
+ */
+public class RangedDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(RangedDownloader.class);
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 一个下载目标
+     *
+     * @param urls 候选地址，第一个为主地址，其余为备用地址
+     * @param file 输出文件
+     */
+    public record Target(List<String> urls, File file) {
+        public Target(String url, File file) {
+            this(List.of(url), file);
+        }
+    }
+
+    /**
+     * 单次下载的进度，用于测速与取消
+     */
+    private static final class Progress {
+        private final AtomicLong bytes = new AtomicLong();
+        private final long startNano = System.nanoTime();
+        private volatile boolean cancelled;
+
+        private double bytesPerSec() {
+            long elapsed = System.nanoTime() - startNano;
+            return elapsed <= 0 ? 0 : bytes.get() * 1_000_000_000.0 / elapsed;
+        }
+
+        private void checkCancelled() throws IOException {
+            if (cancelled) {
+                throw new IOException("下载已取消");
+            }
+        }
+    }
+
+    /**
+     * 文件中的写入位置，写入过程中逐次前移，写到一半失败时据此续传
+     */
+    private static final class Cursor {
+        private long position;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+    }
+
+    private final OkHttpClient client;
+    private final Function<String, Request> requestFactory;
+    private final long chunkSize;
+    private final int maxRetries;
+    private final long hedgeDelayMillis;
+    private final long hedgeMinBytesPerSec;
+    private final HostScoreboard scoreboard = new HostScoreboard();
+    private final HostLimiter hostLimiter;
+    private final ExecutorService streamExecutor;
+    private final ExecutorService chunkExecutor;
+
+    /**
+     * @param client              HTTP 客户端
+     * @param requestFactory      根据 URL 构造带防盗链请求头的请求
+     * @param connections         分段下载的总连接数
+     * @param chunkSize           每个分段的字节数
+     * @param maxRetries          单个分段的最大重试次数
+     * @param hedgeDelayMillis    启动备用地址前的观察时长，0 或负数表示只在失败时切换
+     * @param hedgeMinBytesPerSec 观察期后低于该速度则启动下一个备用地址
+     * @param maxRequestsPerHost  对同一主机的并发请求上限，0 或负数表示不限制
+     */
+    public RangedDownloader(OkHttpClient client, Function<String, Request> requestFactory,
+                            int connections, long chunkSize, int maxRetries,
+                            long hedgeDelayMillis, long hedgeMinBytesPerSec, int maxRequestsPerHost) {
+        this.client = client;
+        this.requestFactory = requestFactory;
+        this.chunkSize = Math.max(256 * 1024, chunkSize);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeMinBytesPerSec = hedgeMinBytesPerSec;
+        this.hostLimiter = new HostLimiter(maxRequestsPerHost);
+        this.streamExecutor = Executors.newCachedThreadPool(daemonFactory("bili-dl-stream-"));
+        this.chunkExecutor = Executors.newFixedThreadPool(Math.max(1, connections), daemonFactory("bili-dl-chunk-"));
+    }
+
+    /**
+     * 同时下载所有目标，全部完成后返回；任一目标失败则抛出异常
+     */
+    public void downloadAll(List<Target> targets) throws IOException {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(targets.size());
+        for (Target target : targets) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    downloadHedged(target.urls(), target.file());
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, streamExecutor));
+        }
+        await(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+    }
+
+    /**
+     * 从多个候选地址对冲下载同一个资源，按节点评分决定启动顺序
+     */
+    public void downloadHedged(List<String> urls, File out) throws IOException {
+        if (urls.isEmpty()) {
+            throw new IOException("没有可用的下载地址: " + out.getName());
+        }
+        List<String> ranked = scoreboard.rank(urls);
+        BlockingQueue<Attempt> finished = new LinkedBlockingQueue<>();
+        List<Attempt> attempts = new ArrayList<>();
+        Attempt winner = null;
+        IOException failure = null;
+        try {
+            attempts.add(launch(ranked.get(0), out, 0, finished));
+            int running = 1;
+            while (running > 0) {
+                Attempt done = hedgeDelayMillis > 0
+                        ? finished.poll(hedgeDelayMillis, TimeUnit.MILLISECONDS)
+                        : finished.take();
+                boolean hasBackup = attempts.size() < ranked.size();
+                if (done == null) {
+                    // 观察期结束，所有进行中的下载都太慢时启动下一个备用地址
+                    if (hasBackup && bestBytesPerSec(attempts) < hedgeMinBytesPerSec) {
+                        String next = ranked.get(attempts.size());
+                        logger.info("下载速度低于 {} B/s，启动备用地址: {}", hedgeMinBytesPerSec, HostScoreboard.host(next));
+                        attempts.add(launch(next, out, attempts.size(), finished));
+                        running++;
+                    }
+                    continue;
+                }
+                running--;
+                if (done.error == null) {
+                    winner = done;
+                    break;
+                }
+                scoreboard.recordFailure(done.url);
+                if (failure == null) {
+                    failure = done.error;
+                } else {
+                    failure.addSuppressed(done.error);
+                }
+                if (hasBackup) {
+                    String next = ranked.get(attempts.size());
+                    logger.info("下载失败，切换备用地址: {} ({})", HostScoreboard.host(next), done.error.getMessage());
+                    attempts.add(launch(next, out, attempts.size(), finished));
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new InterruptedIOException("下载被中断");
+        } finally {
+            for (Attempt attempt : attempts) {
+                if (attempt != winner) {
+                    attempt.cancel();
+                }
+            }
+        }
+
+        if (winner == null) {
+            throw failure != null ? failure : new IOException("所有下载地址均失败: " + out.getName());
+        }
+        scoreboard.record(winner.url, winner.progress.bytes.get(), System.nanoTime() - winner.progress.startNano);
+        Files.move(winner.file.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        if (attempts.size() > 1) {
+            logger.info("对冲下载完成，胜出节点: {}", HostScoreboard.host(winner.url));
+        }
+    }
+
+    /**
+     * 下载单个资源到文件
+     */
+    public void download(String url, File out) throws IOException {
+        download(url, out, new Progress());
+    }
+
+    /**
+     * 只下载资源的 [from, to] 区间，按原始偏移写入文件，文件中其余位置的内容保持不变，
+     * 因此可以分多次把同一资源的相邻区间下载到同一个文件中。
+     * 失败时按节点评分依次换用备用地址；服务器必须支持 Range
+     */
+    public void downloadRange(List<String> urls, long from, long to, File out) throws IOException {
+        if (urls.isEmpty()) {
+            throw new IOException("没有可用的下载地址: " + out.getName());
+        }
+        IOException failure = null;
+        for (String url : scoreboard.rank(urls)) {
+            Progress progress = new Progress();
+            try (FileChannel channel = FileChannel.open(out.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+                downloadChunk(url, channel, from, to, progress);
+                scoreboard.record(url, progress.bytes.get(), System.nanoTime() - progress.startNano);
+                return;
+            } catch (IOException e) {
+                scoreboard.recordFailure(url);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                logger.debug("区间 {}-{} 下载失败 {}: {}", from, to, HostScoreboard.host(url), e.getMessage());
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * 以输入流的形式按顺序读取资源，不写入磁盘：
+     * 后台最多 window 个分段并行下载，已下载但未读取的数据保存在内存中，
+     * 读取方跟不上时下载会暂停，因此内存占用不超过 window × 分段大小。
+     * 分段失败时按节点评分依次换用备用地址重试。
+     *
+     * @param urls   候选地址
+     * @param window 同时在途的分段数
+     */
+    public InputStream openStream(List<String> urls, int window) throws IOException {
+        if (urls.isEmpty()) {
+            throw new IOException("没有可用的下载地址");
+        }
+        return new ChunkedRangeInputStream(client, requestFactory, scoreboard.rank(urls), scoreboard, hostLimiter,
+                chunkExecutor, chunkSize, window, maxRetries);
+    }
+
+    /**
+     * 当前各 CDN 节点的吞吐评分
+     */
+    public HostScoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    private void download(String url, File out, Progress progress) throws IOException {
+        long start = System.currentTimeMillis();
+        // 用第一个分段的请求探测文件总大小以及是否支持 Range
+        Request probe = withRange(url, 0, chunkSize - 1);
+        long total;
+        long firstEnd;
+        long written;
+        HostLimiter.Permit permit = hostLimiter.acquire(url);
+        try (Response resp = client.newCall(probe).execute()) {
+            if (resp.code() != 206) {
+                if (!resp.isSuccessful()) {
+                    throw new IOException("HTTP " + resp.code());
+                }
+                // 不支持 Range，整个响应体就是完整文件
+                try (InputStream in = resp.body().byteStream();
+                     FileChannel channel = openChannel(out, -1)) {
+                    writeFully(in, channel, 0, Long.MAX_VALUE, progress);
+                }
+                logger.debug("服务器不支持 Range，已顺序下载 {} 耗时 {}ms", out.getName(), System.currentTimeMillis() - start);
+                return;
+            }
+            total = parseTotal(resp.header("Content-Range"));
+            if (total < 0) {
+                throw new IOException("无法识别 Content-Range: " + resp.header("Content-Range"));
+            }
+            firstEnd = Math.min(chunkSize, total);
+            try (InputStream in = resp.body().byteStream();
+                 FileChannel channel = openChannel(out, total)) {
+                written = writeFully(in, channel, 0, firstEnd, progress);
+            }
+        } finally {
+            permit.close();
+        }
+
+        // 剩余分段并行下载，共享同一个 FileChannel 按位置写入
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(out.toPath(), StandardOpenOption.WRITE)) {
+            if (written < firstEnd) {
+                // 探测请求提前断开，把第一个分段剩余的部分作为普通分段补齐
+                chunks.add(chunkAsync(url, channel, written, firstEnd - 1, progress));
+            }
+            for (long from = firstEnd; from < total; from += chunkSize) {
+                chunks.add(chunkAsync(url, channel, from, Math.min(from + chunkSize, total) - 1, progress));
+            }
+            await(CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])));
+        }
+        logger.debug("分段下载完成 {} 大小={} 分段={} 耗时 {}ms",
+                out.getName(), total, (total + chunkSize - 1) / chunkSize, System.currentTimeMillis() - start);
+    }
+
+    private CompletableFuture<Void> chunkAsync(String url, FileChannel channel, long from, long to, Progress progress) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                downloadChunk(url, channel, from, to, progress);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, chunkExecutor);
+    }
+
+    /**
+     * 下载 [from, to] 区间，失败时从已写入的位置续传
+     */
+    private void downloadChunk(String url, FileChannel channel, long from, long to, Progress progress) throws IOException {
+        Cursor cursor = new Cursor(from);
+        int attempt = 0;
+        while (true) {
+            progress.checkCancelled();
+            HostLimiter.Permit permit = hostLimiter.acquire(url);
+            try (Response resp = client.newCall(withRange(url, cursor.position, to)).execute()) {
+                if (resp.code() != 206) {
+                    throw new IOException("分段请求未返回 206，HTTP " + resp.code());
+                }
+                try (InputStream in = resp.body().byteStream()) {
+                    writeFully(in, channel, cursor, to + 1 - cursor.position, progress);
+                }
+                if (cursor.position <= to) {
+                    throw new IOException("分段数据不完整: " + cursor.position + "/" + (to + 1));
+                }
+                return;
+            } catch (IOException e) {
+                progress.checkCancelled();
+                if (++attempt > maxRetries) {
+                    throw new IOException("分段 " + from + "-" + to + " 重试 " + maxRetries + " 次后仍失败", e);
+                }
+                logger.debug("分段 {}-{} 下载失败，第 {} 次重试，从 {} 续传: {}",
+                        from, to, attempt, cursor.position, e.getMessage());
+            } finally {
+                permit.close();
+            }
+        }
+    }
+
+    private Attempt launch(String url, File out, int index, BlockingQueue<Attempt> finished) {
+        Attempt attempt = new Attempt(url, new File(out.getParentFile(), out.getName() + ".h" + index));
+        streamExecutor.execute(() -> {
+            try {
+                download(url, attempt.file, attempt.progress);
+            } catch (IOException e) {
+                attempt.error = e;
+            } catch (RuntimeException e) {
+                attempt.error = new IOException(e);
+            }
+            attempt.finish(scoreboard);
+            finished.add(attempt);
+        });
+        return attempt;
+    }
+
+    private static double bestBytesPerSec(List<Attempt> attempts) {
+        double best = 0;
+        for (Attempt attempt : attempts) {
+            if (attempt.error == null) {
+                best = Math.max(best, attempt.progress.bytesPerSec());
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 对冲下载中针对某一个地址的一次尝试，写入独立的临时文件
+     */
+    private static final class Attempt {
+        private final String url;
+        private final File file;
+        private final Progress progress = new Progress();
+        private volatile IOException error;
+        private boolean finished;
+
+        private Attempt(String url, File file) {
+            this.url = url;
+            this.file = file;
+        }
+
+        /**
+         * 取消这次尝试；已结束的尝试直接删除临时文件，未结束的等结束时再删除
+         */
+        private synchronized void cancel() {
+            progress.cancelled = true;
+            if (finished) {
+                deleteQuietly(file);
+            }
+        }
+
+        private synchronized void finish(HostScoreboard scoreboard) {
+            finished = true;
+            if (progress.cancelled) {
+                // 被取消的尝试也提供了有效的测速样本
+                scoreboard.record(url, progress.bytes.get(), System.nanoTime() - progress.startNano);
+                deleteQuietly(file);
+            } else if (error != null) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * 把输入流写入文件的指定位置，最多写 limit 字节
+     *
+     * @return 写入结束后的文件位置
+     */
+    private static long writeFully(InputStream in, FileChannel channel, long position, long limit,
+                                   Progress progress) throws IOException {
+        Cursor cursor = new Cursor(position);
+        writeFully(in, channel, cursor, limit, progress);
+        return cursor.position;
+    }
+
+    /**
+     * 把输入流写入 cursor 处，最多写 limit 字节；每次写入后立即前移 cursor 并计入进度，
+     * 中途抛出异常时 cursor 停在已写入数据之后
+     */
+    private static void writeFully(InputStream in, FileChannel channel, Cursor cursor, long limit,
+                                   Progress progress) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        long remaining = limit;
+        while (remaining > 0) {
+            progress.checkCancelled();
+            int n = in.read(buf, 0, (int) Math.min(buf.length, remaining));
+            if (n < 0) {
+                break;
+            }
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, n);
+            while (bb.hasRemaining()) {
+                int written = channel.write(bb, cursor.position);
+                cursor.position += written;
+                progress.bytes.addAndGet(written);
+            }
+            remaining -= n;
+        }
+    }
+
+    /**
+     * 打开输出文件并按总大小预分配，total 为负数时不预分配
+     */
+    private static FileChannel openChannel(File out, long total) throws IOException {
+        if (total >= 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(out, "rw")) {
+                raf.setLength(total);
+            }
+            return FileChannel.open(out.toPath(), StandardOpenOption.WRITE);
+        }
+        return FileChannel.open(out.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private Request withRange(String url, long from, long to) {
+        return requestFactory.apply(url).newBuilder()
+                .header("Range", "bytes=" + from + "-" + to)
+                .build();
+    }
+
+    static long parseTotal(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        Matcher m = CONTENT_RANGE.matcher(contentRange);
+        if (!m.find() || "*".equals(m.group(3))) {
+            return -1;
+        }
+        return Long.parseLong(m.group(3));
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            logger.debug("删除临时下载文件失败: {}", file.getAbsolutePath());
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
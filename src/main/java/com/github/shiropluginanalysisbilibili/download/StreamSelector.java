@@ -0,0 +1,217 @@
+package com.github.shiropluginanalysisbilibili.download;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按目标文件大小从取流接口的 DASH 结果中选择视频流与音频流：
+ * - 每条流的大小按 bandwidth × 时长估算，接口给出 size 时直接使用
+ * - 编码按配置的优先顺序选择，排在前面的编码只要有放得下的清晰度，就不会选择后面的编码
+ * - 同一编码内选择放得下的最高清晰度；视频清晰度优先于音频码率，视频放得下时再选择放得下的最高音频码率
+ * - 所有组合都超出目标大小时，选择首选编码中最小的视频流与最小的音频流
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-20-14:20
+ */
+public final class StreamSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamSelector.class);
+
+    /**
+     * 估算大小时为 MP4 封装预留的余量
+     */
+    private static final double CONTAINER_OVERHEAD = 1.02;
+
+    /**
+     * 视频编码，codecid 与 codecs 前缀以取流接口为准
+     */
+    public enum Codec {
+        AVC(7, "avc"), HEVC(12, "hev", "hvc"), AV1(13, "av01"), OTHER(-1);
+
+        private final int codecId;
+        private final String[] prefixes;
+
+        Codec(int codecId, String... prefixes) {
+            this.codecId = codecId;
+            this.prefixes = prefixes;
+        }
+
+        static Codec of(int codecId, String codecs) {
+            for (Codec codec : values()) {
+                if (codec != OTHER && codec.codecId == codecId) {
+                    return codec;
+                }
+            }
+            String lower = codecs.toLowerCase(Locale.ROOT);
+            for (Codec codec : values()) {
+                for (String prefix : codec.prefixes) {
+                    if (lower.startsWith(prefix)) {
+                        return codec;
+                    }
+                }
+            }
+            return OTHER;
+        }
+
+        static Codec of(String name) {
+            return switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "avc", "h264", "avc1" -> AVC;
+                case "hevc", "h265", "hev1", "hvc1" -> HEVC;
+                case "av1", "av01" -> AV1;
+                default -> OTHER;
+            };
+        }
+    }
+
+    /**
+     * 一条候选流
+     *
+     * @param quality        清晰度代码（视频为 qn，音频为音质代码）
+     * @param codec          视频编码，音频流为 {@link Codec#OTHER}
+     * @param bandwidth      码率（bit/s）
+     * @param estimatedBytes 估算的大小
+     * @param stream         接口返回的原始节点
+     */
+    public record Candidate(int quality, Codec codec, long bandwidth, long estimatedBytes, JsonNode stream) {
+    }
+
+    /**
+     * 选择结果
+     *
+     * @param video       视频流
+     * @param audio       音频流，视频没有音轨时为 null
+     * @param budgetBytes 目标大小，0 或负数表示不限制
+     */
+    public record Selection(Candidate video, Candidate audio, long budgetBytes) {
+
+        public long estimatedBytes() {
+            return video.estimatedBytes() + (audio != null ? audio.estimatedBytes() : 0);
+        }
+
+        public boolean withinBudget() {
+            return budgetBytes <= 0 || estimatedBytes() <= budgetBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "video=" + video.quality() + "/" + video.codec() + "@" + video.bandwidth()
+                    + " audio=" + (audio != null ? audio.quality() + "@" + audio.bandwidth() : "none")
+                    + " 估算=" + estimatedBytes() + " 目标=" + (budgetBytes > 0 ? budgetBytes : "不限");
+        }
+    }
+
+    private final List<Codec> preference;
+
+    /**
+     * @param codecPreference 编码优先顺序，例如 avc,hevc,av1；未列出的编码排在最后
+     */
+    public StreamSelector(String codecPreference) {
+        List<Codec> codecs = new ArrayList<>();
+        if (codecPreference != null) {
+            for (String name : codecPreference.split(",")) {
+                Codec codec = Codec.of(name);
+                if (codec != Codec.OTHER && !codecs.contains(codec)) {
+                    codecs.add(codec);
+                }
+            }
+        }
+        this.preference = codecs.isEmpty() ? List.of(Codec.AVC, Codec.HEVC, Codec.AV1) : List.copyOf(codecs);
+    }
+
+    /**
+     * @param dash        取流接口 data.dash 节点
+     * @param durationSec 视频时长
+     * @param budgetBytes 目标大小，0 或负数表示不限制
+     * @return 选择结果，没有视频流时返回 null
+     */
+    public Selection select(JsonNode dash, long durationSec, long budgetBytes) {
+        List<Candidate> videos = candidates(dash.path("video"), durationSec, true);
+        if (videos.isEmpty()) {
+            return null;
+        }
+        List<Candidate> audios = candidates(dash.path("audio"), durationSec, false);
+        // 编码优先，其次清晰度，最后码率
+        videos.sort(Comparator.comparingInt((Candidate c) -> rank(c.codec()))
+                .thenComparing(Comparator.comparingInt(Candidate::quality).reversed())
+                .thenComparing(Comparator.comparingLong(Candidate::bandwidth).reversed()));
+        audios.sort(Comparator.comparingLong(Candidate::bandwidth).reversed());
+
+        if (budgetBytes <= 0) {
+            return new Selection(videos.get(0), audios.isEmpty() ? null : audios.get(0), budgetBytes);
+        }
+        for (Candidate video : videos) {
+            if (audios.isEmpty()) {
+                if (video.estimatedBytes() <= budgetBytes) {
+                    return new Selection(video, null, budgetBytes);
+                }
+                continue;
+            }
+            for (Candidate audio : audios) {
+                if (video.estimatedBytes() + audio.estimatedBytes() <= budgetBytes) {
+                    return new Selection(video, audio, budgetBytes);
+                }
+            }
+        }
+        // 都放不下，尽量小
+        Codec best = videos.get(0).codec();
+        Candidate smallestVideo = videos.stream()
+                .filter(c -> c.codec() == best)
+                .min(Comparator.comparingLong(Candidate::estimatedBytes))
+                .orElse(videos.get(0));
+        Candidate smallestAudio = audios.isEmpty() ? null : audios.get(audios.size() - 1);
+        return new Selection(smallestVideo, smallestAudio, budgetBytes);
+    }
+
+    private int rank(Codec codec) {
+        int i = preference.indexOf(codec);
+        return i >= 0 ? i : preference.size();
+    }
+
+    private static List<Candidate> candidates(JsonNode streams, long durationSec, boolean video) {
+        List<Candidate> list = new ArrayList<>();
+        for (JsonNode stream : streams) {
+            long bandwidth = stream.path("bandwidth").asLong(0);
+            long size = stream.path("size").asLong(0);
+            long estimated = size > 0 ? size : (long) (bandwidth / 8.0 * Math.max(1, durationSec) * CONTAINER_OVERHEAD);
+            Codec codec = video ? Codec.of(stream.path("codecid").asInt(-1), stream.path("codecs").asText("")) : Codec.OTHER;
+            list.add(new Candidate(stream.path("id").asInt(0), codec, bandwidth, estimated, stream));
+        }
+        return list;
+    }
+
+    /**
+     * 解析按群覆盖的目标大小
+     *
+     * @param spec 群号:字节，多个用逗号分隔，例如 123456:16777216,654321:0
+     * @return 群号 -> 目标大小，格式错误的项会被忽略
+     */
+    public static Map<Long, Long> parseGroupBudgets(String spec) {
+        Map<Long, Long> budgets = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return budgets;
+        }
+        for (String item : spec.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            int colon = item.indexOf(':');
+            try {
+                if (colon < 0) {
+                    throw new NumberFormatException("缺少冒号");
+                }
+                budgets.put(Long.parseLong(item.substring(0, colon).trim()), Long.parseLong(item.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("忽略格式错误的群视频大小配置: {}", item);
+            }
+        }
+        return budgets;
+    }
+}
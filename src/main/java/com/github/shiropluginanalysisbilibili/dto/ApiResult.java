@@ -0,0 +1,14 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+/**
+ * B 站接口响应的外层结构
+ *
+ * @param code    业务状态码，0 表示成功
+ * @param message 错误信息
+ * @param data    解码后的数据，接口没有返回数据时为 null
+ * @param bytes   响应体字节数，用作缓存权重
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record ApiResult<T>(int code, String message, T data, long bytes) {
+}
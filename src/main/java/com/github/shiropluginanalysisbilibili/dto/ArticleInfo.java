@@ -0,0 +1,14 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+/**
+ * 专栏信息，对应 /x/article/viewinfo 的 data
+ *
+ * @param title      标题
+ * @param authorName 作者
+ * @param view       阅读数
+ * @param cover      封面
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record ArticleInfo(String title, String authorName, long view, String cover) {
+}
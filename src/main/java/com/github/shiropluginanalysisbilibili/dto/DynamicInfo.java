@@ -0,0 +1,20 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+import java.util.List;
+
+/**
+ * 动态信息，对应 web-dynamic detail 的 data.item，只保留 modules.module_dynamic.major 中用到的字段
+ *
+ * @param idStr         动态 ID
+ * @param majorType     major.type，例如 MAJOR_TYPE_DRAW、MAJOR_TYPE_ARTICLE
+ * @param drawImages    图片动态的图片地址
+ * @param articleTitle  图文动态的标题
+ * @param articleDesc   图文动态的摘要
+ * @param articleLabel  图文动态的阅读量标签
+ * @param articleCovers 图文动态的封面
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record DynamicInfo(String idStr, String majorType, List<String> drawImages,
+                          String articleTitle, String articleDesc, String articleLabel, List<String> articleCovers) {
+}
@@ -0,0 +1,15 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+/**
+ * 直播间信息，对应 getInfoByRoom 的 data
+ *
+ * @param title  直播标题
+ * @param roomId 房间号
+ * @param uname  主播昵称
+ * @param online 人气
+ * @param cover  封面
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record LiveRoomInfo(String title, String roomId, String uname, long online, String cover) {
+}
@@ -0,0 +1,14 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+/**
+ * 番剧信息，对应 /pgc/view/web/season 的 result
+ *
+ * @param title    标题
+ * @param mediaId  media_id，接口没有返回时为 null
+ * @param evaluate 简介
+ * @param cover    封面
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record SeasonInfo(String title, String mediaId, String evaluate, String cover) {
+}
@@ -0,0 +1,27 @@
+package com.github.shiropluginanalysisbilibili.dto;
+
+/**
+ * 视频信息，对应 /x/web-interface/view 的 data
+ *
+ * @param bvid     BV 号
+ * @param aid      AV 号
+ * @param cid      第一个分 P 的 cid
+ * @param title    标题
+ * @param desc     简介
+ * @param pic      封面
+ * @param duration 时长（秒）
+ * @param stat     播放数据，接口没有返回时为 null
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:00
+ */
+public record VideoInfo(String bvid, long aid, long cid, String title, String desc, String pic,
+                        long duration, Stat stat) {
+
+    /**
+     * @param view    播放
+     * @param danmaku 弹幕
+     * @param like    点赞
+     */
+    public record Stat(long view, long danmaku, long like) {
+    }
+}
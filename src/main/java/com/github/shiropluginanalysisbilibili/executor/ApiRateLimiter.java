@@ -0,0 +1,302 @@
+package com.github.shiropluginanalysisbilibili.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * B 站 API 的客户端限流器：
+ * - 每类接口（视频信息、番剧、直播、专栏、动态、取流）各有一个令牌桶，限制请求速率
+ * - 每类接口的并发上限按 AIMD 调整：请求成功时缓慢增加，遇到风控（HTTP 412、code -412/-352）时减半
+ * - 遇到风控后所有接口进入冷却期，冷却时长随连续风控次数翻倍，直到下一次成功的请求
+ * - 请求最多排队等待 queueTimeout；预计等不到时立即拒绝，不再发出注定失败的请求
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-10:15
+ */
+public class ApiRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiRateLimiter.class);
+
+    /**
+     * 第一次风控后的冷却时长
+     */
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    /**
+     * 接口分类，每类单独限流
+     */
+    public enum Endpoint {
+        VIEW, PGC, LIVE, ARTICLE, DYNAMIC, PLAYURL, OTHER;
+
+        public static Endpoint of(String url) {
+            if (url.contains("/x/player/") || url.contains("/pgc/player/")) {
+                return PLAYURL;
+            }
+            if (url.contains("/x/web-interface/view")) {
+                return VIEW;
+            }
+            if (url.contains("/pgc/")) {
+                return PGC;
+            }
+            if (url.contains("live.bilibili.com/")) {
+                return LIVE;
+            }
+            if (url.contains("/x/article/")) {
+                return ARTICLE;
+            }
+            if (url.contains("/x/polymer/")) {
+                return DYNAMIC;
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * 某类接口的限流状态
+     *
+     * @param endpoint       接口分类
+     * @param tokens         令牌桶中剩余的令牌
+     * @param limit          当前的并发上限
+     * @param inFlight       进行中的请求数
+     * @param waiting        排队中的请求数
+     * @param cooldownMillis 剩余的冷却时长（所有接口共享）
+     * @param acquired       累计放行的请求数
+     * @param rejected       累计因排队超时被拒绝的请求数
+     * @param throttled      累计遇到风控的次数
+     */
+    public record State(Endpoint endpoint, double tokens, int limit, int inFlight, int waiting,
+                        long cooldownMillis, long acquired, long rejected, long throttled) {
+    }
+
+    /**
+     * 排队超时或冷却期内被拒绝
+     */
+    public static class RejectedException extends IOException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 一次请求的许可，请求结束后关闭；关闭前可报告请求结果，用于调整并发上限
+     */
+    public static final class Permit implements AutoCloseable {
+
+        /**
+         * 不限流时使用的许可
+         */
+        public static final Permit NONE = new Permit(null, null);
+
+        private final ApiRateLimiter limiter;
+        private final Bucket bucket;
+        private boolean released;
+
+        private Permit(ApiRateLimiter limiter, Bucket bucket) {
+            this.limiter = limiter;
+            this.bucket = bucket;
+        }
+
+        /**
+         * 报告 HTTP 状态码，412 视为风控
+         */
+        public void onHttpStatus(int status) {
+            if (status == 412) {
+                release(true);
+            }
+        }
+
+        /**
+         * 报告接口返回的 code，-412/-352 视为风控，其余视为成功
+         */
+        public void onApiCode(int code) {
+            release(code == -412 || code == -352);
+        }
+
+        @Override
+        public void close() {
+            if (bucket != null && !released) {
+                released = true;
+                limiter.release(bucket, null);
+            }
+        }
+
+        private void release(boolean riskControl) {
+            if (bucket != null && !released) {
+                released = true;
+                limiter.release(bucket, riskControl);
+            }
+        }
+    }
+
+    private final class Bucket {
+        private final Endpoint endpoint;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition changed = lock.newCondition();
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+        /**
+         * AIMD 调整的并发上限，取整后使用
+         */
+        private double limit = maxConcurrency;
+        private int inFlight;
+        private int waiting;
+        private long acquired;
+        private long rejected;
+        private long throttled;
+
+        private Bucket(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+            refilledAt = now;
+        }
+    }
+
+    private final double ratePerNano;
+    private final int burst;
+    private final int maxConcurrency;
+    private final long queueTimeoutNanos;
+    private final long maxBackoffMillis;
+    private final Map<Endpoint, Bucket> buckets = new EnumMap<>(Endpoint.class);
+    /**
+     * 冷却期的结束时间（System.nanoTime），所有接口共享
+     */
+    private volatile long cooldownUntil = System.nanoTime();
+    /**
+     * 当前的冷却时长，0 表示最近一次请求没有遇到风控
+     */
+    private long backoffMillis;
+
+    /**
+     * @param ratePerSecond      每类接口每秒的请求数
+     * @param burst              令牌桶容量，即允许的突发请求数
+     * @param maxConcurrency     每类接口的并发上限
+     * @param queueTimeoutMillis 请求最多排队等待的时长
+     * @param maxBackoffSeconds  连续风控时冷却时长的上限
+     */
+    public ApiRateLimiter(double ratePerSecond, int burst, int maxConcurrency, long queueTimeoutMillis, long maxBackoffSeconds) {
+        this.ratePerNano = Math.max(0.01, ratePerSecond) / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, queueTimeoutMillis));
+        this.maxBackoffMillis = Math.max(INITIAL_BACKOFF_MILLIS, TimeUnit.SECONDS.toMillis(maxBackoffSeconds));
+        for (Endpoint endpoint : Endpoint.values()) {
+            buckets.put(endpoint, new Bucket(endpoint));
+        }
+    }
+
+    /**
+     * 为一次请求获取许可，必要时排队等待
+     *
+     * @param url 请求地址，用于区分接口分类
+     * @throws RejectedException 排队超时，或冷却期在排队时限内不会结束
+     */
+    public Permit acquire(String url) throws IOException {
+        Bucket bucket = buckets.get(Endpoint.of(url));
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        bucket.lock.lock();
+        bucket.waiting++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long wait;
+                long cooldown = cooldownUntil - now;
+                if (cooldown > 0) {
+                    wait = cooldown;
+                } else {
+                    bucket.refill(now);
+                    boolean hasSlot = bucket.inFlight < (int) bucket.limit;
+                    if (hasSlot && bucket.tokens >= 1) {
+                        bucket.tokens--;
+                        bucket.inFlight++;
+                        bucket.acquired++;
+                        return new Permit(this, bucket);
+                    }
+                    // 没有空闲并发时只能等别的请求结束，等待时长未知
+                    wait = hasSlot ? (long) Math.ceil((1 - bucket.tokens) / ratePerNano) : -1;
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0 || wait > remaining) {
+                    bucket.rejected++;
+                    throw new RejectedException("B站接口限流中，放弃请求: " + bucket.endpoint
+                            + (cooldown > 0 ? " 冷却剩余 " + TimeUnit.NANOSECONDS.toMillis(cooldown) + "ms" : ""));
+                }
+                bucket.changed.awaitNanos(wait < 0 ? remaining : wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待 B站接口限流时被中断");
+        } finally {
+            bucket.waiting--;
+            bucket.lock.unlock();
+        }
+    }
+
+    /**
+     * 各类接口的当前状态
+     */
+    public List<State> states() {
+        long cooldown = Math.max(0, TimeUnit.NANOSECONDS.toMillis(cooldownUntil - System.nanoTime()));
+        List<State> states = new ArrayList<>(buckets.size());
+        for (Bucket bucket : buckets.values()) {
+            bucket.lock.lock();
+            try {
+                bucket.refill(System.nanoTime());
+                states.add(new State(bucket.endpoint, bucket.tokens, (int) bucket.limit, bucket.inFlight,
+                        bucket.waiting, cooldown, bucket.acquired, bucket.rejected, bucket.throttled));
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @param riskControl true 表示遇到风控，false 表示成功，null 表示结果未知（例如网络错误），不调整并发上限
+     */
+    private void release(Bucket bucket, Boolean riskControl) {
+        if (Boolean.TRUE.equals(riskControl)) {
+            enterCooldown(bucket.endpoint);
+        } else if (Boolean.FALSE.equals(riskControl)) {
+            synchronized (this) {
+                backoffMillis = 0;
+            }
+        }
+        bucket.lock.lock();
+        try {
+            bucket.inFlight--;
+            if (Boolean.TRUE.equals(riskControl)) {
+                bucket.throttled++;
+                bucket.limit = Math.max(1, bucket.limit / 2);
+                bucket.tokens = 0;
+            } else if (Boolean.FALSE.equals(riskControl)) {
+                bucket.limit = Math.min(maxConcurrency, bucket.limit + 1 / bucket.limit);
+            }
+            bucket.changed.signalAll();
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    private synchronized void enterCooldown(Endpoint endpoint) {
+        backoffMillis = backoffMillis == 0 ? INITIAL_BACKOFF_MILLIS : Math.min(maxBackoffMillis, backoffMillis * 2);
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        // 并发请求可能同时遇到风控，只延长不缩短
+        if (until - cooldownUntil > 0) {
+            cooldownUntil = until;
+        }
+        logger.warn("B站接口触发风控: {}，所有接口冷却 {}ms", endpoint, backoffMillis);
+    }
+}
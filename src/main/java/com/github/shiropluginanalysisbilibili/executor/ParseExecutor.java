@@ -0,0 +1,207 @@
+package com.github.shiropluginanalysisbilibili.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 解析任务执行器：把短链展开、API 请求、视频下载与合并等耗时操作从 Shiro 事件线程中移出。
+ * - 并发数与等待队列长度均有上限，避免刷屏时无限堆积任务
+ * - JDK 21+ 使用虚拟线程作为工作线程，JDK 17 回退为守护平台线程
+ * - 队列满时按配置的拒绝策略处理
+ * - 一个解析任务内部需要并行的子任务（如同一条消息中的多个链接）交给独立的线程池，避免占满工作线程后互相等待
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-12-10:20
+ */
+public class ParseExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParseExecutor.class);
+
+    /**
+     * 队列满时的处理方式
+     */
+    public enum RejectPolicy {
+        /**
+         * 直接丢弃新任务
+         */
+        DISCARD,
+        /**
+         * 丢弃队列中最早的任务，再放入新任务
+         */
+        DISCARD_OLDEST,
+        /**
+         * 在提交任务的线程（即 Shiro 事件线程）上直接执行
+         */
+        CALLER_RUNS;
+
+        public static RejectPolicy of(String name) {
+            if (name == null || name.isEmpty()) {
+                return DISCARD;
+            }
+            String normalized = name.trim().replace('-', '_').toUpperCase();
+            for (RejectPolicy policy : values()) {
+                if (policy.name().replace("_", "").equals(normalized.replace("_", ""))) {
+                    return policy;
+                }
+            }
+            logger.warn("未知的拒绝策略 {}，使用默认值 DISCARD", name);
+            return DISCARD;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService fanOutExecutor;
+    private final boolean virtual;
+
+    public ParseExecutor(int maxConcurrency, int queueCapacity, RejectPolicy rejectPolicy) {
+        int threads = Math.max(1, maxConcurrency);
+        ThreadFactory virtualFactory = virtualThreadFactory("bili-parse-v-");
+        this.virtual = virtualFactory != null;
+        ThreadFactory factory = virtual ? virtualFactory : platformThreadFactory("bili-parse-");
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                factory,
+                rejectHandler(rejectPolicy)
+        );
+        // 空闲时回收全部工作线程，虚拟线程下几乎没有开销
+        this.executor.allowCoreThreadTimeOut(true);
+        this.fanOutExecutor = Executors.newCachedThreadPool(
+                virtual ? virtualThreadFactory("bili-fanout-v-") : platformThreadFactory("bili-fanout-"));
+        logger.info("解析执行器已启动: 并发={} 队列={} 拒绝策略={} 虚拟线程={}",
+                threads, queueCapacity, rejectPolicy, virtual);
+    }
+
+    /**
+     * 提交一个解析任务，任务内部异常只记录日志，不会向外抛出
+     *
+     * @param description 任务描述，用于日志
+     * @param task        实际执行的任务
+     */
+    public void submit(String description, Runnable task) {
+        executor.execute(new NamedTask(description, task));
+    }
+
+    /**
+     * 在解析任务内部并行执行一组子任务，按原顺序返回结果；失败的子任务记录日志并返回 null
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) throws InterruptedException {
+        List<Future<T>> futures = fanOutExecutor.invokeAll(tasks);
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                logger.error("解析子任务执行失败", e.getCause());
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * 停止接收新任务，并等待已有任务结束
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        fanOutExecutor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                logger.warn("解析执行器未能在 {} {} 内结束，强制停止", timeout, unit);
+                executor.shutdownNow();
+                fanOutExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            fanOutExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RejectedExecutionHandler rejectHandler(RejectPolicy policy) {
+        return switch (policy) {
+            case CALLER_RUNS -> (r, pool) -> {
+                if (!pool.isShutdown()) {
+                    logger.warn("解析队列已满，在调用线程上执行: {}", r);
+                    r.run();
+                }
+            };
+            case DISCARD_OLDEST -> (r, pool) -> {
+                if (!pool.isShutdown()) {
+                    Runnable dropped = pool.getQueue().poll();
+                    logger.warn("解析队列已满，丢弃最早的任务: {}", dropped);
+                    pool.execute(r);
+                }
+            };
+            default -> (r, pool) -> logger.warn("解析队列已满，丢弃任务: {}", r);
+        };
+    }
+
+    /**
+     * 通过反射获取 JDK 21 的虚拟线程工厂，编译目标仍保持 JDK 17
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private record NamedTask(String description, Runnable task) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("解析任务执行失败: {}", description, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.shiropluginanalysisbilibili.executor;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 请求合并（single-flight）：同一个 key 同一时间只执行一次加载，
+ * 并发到达的其它调用者直接等待并共享这一次的结果。
+ * <p>
+ * 每个参与者拿到结果后各自消费（例如发送到各自的群），
+ * 最后一个参与者消费完成后触发释放回调（例如删除共享的临时文件）。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-12-15:40
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * 允许抛出异常的结果消费者
+     */
+    @FunctionalInterface
+    public interface Handler<V> {
+        void accept(V value) throws Exception;
+    }
+
+    private static final class Call<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        /**
+         * 当前仍持有该结果的参与者数量
+         */
+        private final AtomicInteger refs = new AtomicInteger(1);
+    }
+
+    private final Map<K, Call<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行或加入一次加载，并用 handler 消费结果
+     *
+     * @param key       合并的 key，通常为规范化后的链接
+     * @param loader    真正的加载逻辑，只由第一个到达的调用者执行
+     * @param handler   每个参与者各自对结果的处理
+     * @param onRelease 所有参与者处理完毕后对结果的释放，只执行一次，可为 null
+     * @return true 表示本次调用者执行了加载，false 表示加入了已有的加载
+     * @throws Exception 加载或处理过程中的异常
+     */
+    public boolean execute(K key, Callable<V> loader, Handler<V> handler, Consumer<V> onRelease) throws Exception {
+        Call<V> created = new Call<>();
+        Call<V> call = calls.compute(key, (k, existing) -> {
+            if (existing != null) {
+                existing.refs.incrementAndGet();
+                return existing;
+            }
+            return created;
+        });
+        boolean leader = call == created;
+        if (leader) {
+            try {
+                call.future.complete(loader.call());
+            } catch (Throwable e) {
+                call.future.completeExceptionally(e);
+            } finally {
+                // 加载结束后立即移除，之后到达的请求会重新加载
+                calls.remove(key, call);
+            }
+        }
+
+        V value = null;
+        try {
+            value = await(call.future);
+            handler.accept(value);
+        } finally {
+            if (call.refs.decrementAndGet() == 0 && onRelease != null && value != null) {
+                onRelease.accept(value);
+            }
+        }
+        return leader;
+    }
+
+    /**
+     * 执行或加入一次加载并返回结果
+     */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        Object[] holder = new Object[1];
+        execute(key, loader, value -> holder[0] = value, null);
+        @SuppressWarnings("unchecked")
+        V value = (V) holder[0];
+        return value;
+    }
+
+    /**
+     * 当前正在进行中的加载数量
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.shiropluginanalysisbilibili.http;
+
+import okhttp3.Dns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带缓存的 DNS 解析，API 客户端与下载客户端共用一份：
+ * - 解析结果在 ttl 内直接复用，不再经过系统解析器
+ * - 过期后重新解析失败时继续使用旧结果，避免 DNS 抖动导致整批解析失败
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-14:00
+ */
+public class CachingDns implements Dns {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDns.class);
+
+    private record Entry(List<InetAddress> addresses, long expiresAt) {
+    }
+
+    private final Dns delegate;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate   实际的解析器
+     * @param ttlSeconds 解析结果的有效期，0 或负数表示不缓存
+     */
+    public CachingDns(Dns delegate, long ttlSeconds) {
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds));
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        if (ttlNanos == 0) {
+            return delegate.lookup(hostname);
+        }
+        long now = System.nanoTime();
+        Entry cached = entries.get(hostname);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.addresses;
+        }
+        try {
+            List<InetAddress> addresses = List.copyOf(delegate.lookup(hostname));
+            entries.put(hostname, new Entry(addresses, now + ttlNanos));
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (cached != null) {
+                logger.warn("DNS 解析失败，继续使用过期的解析结果: {}", hostname);
+                return cached.addresses;
+            }
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
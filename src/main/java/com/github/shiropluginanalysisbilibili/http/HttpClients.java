@@ -0,0 +1,113 @@
+package com.github.shiropluginanalysisbilibili.http;
+
+import com.github.shiropluginanalysisbilibili.config.PluginConfig;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 插件使用的两套 HTTP 客户端配置：
+ * - API 客户端：请求小而多，使用 HTTP/2 多路复用，连接池小，超时短，失败尽快返回
+ * - 下载客户端：请求大而少，只用 HTTP/1.1（每个分段一条独立连接，互不阻塞），连接池大，读超时长
+ * 两者都从宿主提供的客户端派生（保留其代理、拦截器等设置），但各自使用独立的连接池与超时，
+ * 慢速的 CDN 下载不会占用 API 请求的连接；DNS 缓存由两者共享。
+ * 插件的请求全部同步执行，不经过 Dispatcher 的并发限制，对 CDN 主机的并发上限由下载器自行控制。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-14:10
+ */
+public final class HttpClients {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClients.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; BiliAnalysisBot/1.0)";
+
+    /**
+     * 空闲连接的保持时长
+     */
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private HttpClients() {}
+
+    /**
+     * B 站 API 请求使用的客户端
+     */
+    public static OkHttpClient api(OkHttpClient base, Dns dns, PluginConfig config) {
+        return base.newBuilder()
+                .dns(dns)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(config.getHttpApiMaxIdleConnections(), KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(config.getHttpApiConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getHttpApiReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .callTimeout(config.getHttpApiCallTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 视频、音频下载使用的客户端，不设置整体超时，慢速下载由分段重试与对冲处理
+     */
+    public static OkHttpClient download(OkHttpClient base, Dns dns, PluginConfig config) {
+        return base.newBuilder()
+                .dns(dns)
+                .protocols(List.of(Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(config.getHttpDownloadMaxIdleConnections(), KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(config.getHttpDownloadConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getHttpDownloadReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .callTimeout(0, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 在后台线程中向各个地址发送 HEAD 请求，提前完成 DNS 解析与 TLS 握手，建立的连接留在连接池中复用
+     *
+     * @param urls 逗号分隔的地址，为空时不预热
+     */
+    public static void warmUp(OkHttpClient client, String urls) {
+        List<String> targets = new ArrayList<>();
+        if (urls != null) {
+            for (String url : urls.split(",")) {
+                if (!url.isBlank()) {
+                    targets.add(url.trim());
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            for (String url : targets) {
+                long start = System.currentTimeMillis();
+                Request request = new Request.Builder()
+                        .url(url)
+                        .head()
+                        .header("User-Agent", USER_AGENT)
+                        .build();
+                try (Response resp = client.newCall(request).execute()) {
+                    logger.debug("连接预热完成: {} HTTP {} {} 耗时 {}ms", url, resp.code(), resp.protocol(),
+                            System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    logger.debug("连接预热失败: {}", url, e);
+                }
+            }
+        }, "bili-http-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 关闭客户端连接池中的连接，只能用于本类创建的客户端；
+     * Dispatcher 与宿主的客户端共用，不在这里关闭
+     */
+    public static void shutdown(OkHttpClient client) {
+        client.connectionPool().evictAll();
+    }
+}
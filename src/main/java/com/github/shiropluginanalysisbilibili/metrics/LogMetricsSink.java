@@ -0,0 +1,178 @@
+package com.github.shiropluginanalysisbilibili.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 没有 Micrometer 时使用的指标实现：在插件内按固定分桶统计耗时，定期把上一个周期的统计输出到日志后清零。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-16:30
+ */
+final class LogMetricsSink implements MetricsSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogMetricsSink.class);
+
+    /**
+     * 耗时分桶的上界（毫秒），最后一个桶收纳更慢的请求
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000, 120_000
+    };
+
+    /**
+     * 一个阶段一种类型一个周期内的耗时分布
+     */
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos, boolean success) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int i = 0;
+            while (i < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            if (!success) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        /**
+         * 输出本周期的统计并清零，周期内没有记录时返回 null
+         */
+        private String drain() {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sumThenReset();
+                count += counts[i];
+            }
+            long failed = failures.sumThenReset();
+            long total = totalNanos.sumThenReset();
+            long max = maxNanos.getThenReset();
+            if (count == 0) {
+                return null;
+            }
+            return "n=" + count
+                    + " 失败=" + failed
+                    + " 均值=" + TimeUnit.NANOSECONDS.toMillis(total / count) + "ms"
+                    + " p50≤" + percentile(counts, count, 0.50)
+                    + " p95≤" + percentile(counts, count, 0.95)
+                    + " p99≤" + percentile(counts, count, 0.99)
+                    + " 最大=" + TimeUnit.NANOSECONDS.toMillis(max) + "ms";
+        }
+
+        private static String percentile(long[] counts, long total, double p) {
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] + "ms" : "∞";
+                }
+            }
+            return "∞";
+        }
+    }
+
+    /**
+     * 按 "阶段[类型]" 排序，日志中同一阶段的各类型排在一起
+     */
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicLong> links = new ConcurrentSkipListMap<>();
+    private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+    private final long intervalSeconds;
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * @param intervalSeconds 日志输出间隔，0 或负数表示只统计不输出
+     */
+    LogMetricsSink(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+        if (intervalSeconds <= 0) {
+            this.reporter = null;
+            return;
+        }
+        this.reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bili-metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void recordLatency(PipelineMetrics.Stage stage, String type, boolean success, long nanos) {
+        histograms.computeIfAbsent(stage.tag() + "[" + type + "]", k -> new Histogram()).record(nanos, success);
+    }
+
+    @Override
+    public void countLink(PipelineMetrics.Outcome outcome, String type) {
+        links.computeIfAbsent(type + ":" + outcome.tag(), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void registerGauge(String name, Supplier<Number> value) {
+        gauges.put(name, value);
+    }
+
+    @Override
+    public void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+    }
+
+    private void report() {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+                String line = e.getValue().drain();
+                if (line != null) {
+                    sb.append("\n  ").append(e.getKey()).append(' ').append(line);
+                }
+            }
+            if (sb.length() == 0) {
+                // 本周期没有任何解析，不输出
+                return;
+            }
+            StringBuilder counts = new StringBuilder();
+            for (Map.Entry<String, AtomicLong> e : links.entrySet()) {
+                long n = e.getValue().getAndSet(0);
+                if (n > 0) {
+                    counts.append(' ').append(e.getKey()).append('=').append(n);
+                }
+            }
+            StringBuilder current = new StringBuilder();
+            for (Map.Entry<String, Supplier<Number>> e : gauges.entrySet()) {
+                current.append(' ').append(e.getKey()).append('=').append(e.getValue().get());
+            }
+            logger.info("解析指标（最近 {}s）:{}\n  链接:{}\n  当前:{}", intervalSeconds, sb, counts, current);
+        } catch (RuntimeException e) {
+            logger.warn("输出解析指标失败", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.shiropluginanalysisbilibili.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 指标的实际去处：Micrometer 或日志
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-16:30
+ */
+interface MetricsSink {
+
+    void recordLatency(PipelineMetrics.Stage stage, String type, boolean success, long nanos);
+
+    void countLink(PipelineMetrics.Outcome outcome, String type);
+
+    void registerGauge(String name, Supplier<Number> value);
+
+    void close();
+}
@@ -0,0 +1,68 @@
+package com.github.shiropluginanalysisbilibili.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 注册到宿主 MeterRegistry 的指标，只有确认类路径中有 Micrometer 后才会加载本类。
+ * - bili.pipeline.stage：各阶段耗时，标签 stage、type、outcome，带百分位直方图
+ * - bili.pipeline.links：链接处理结果计数，标签 outcome、type
+ * - bili.pipeline.&lt;name&gt;：进行中的任务数等瞬时值
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-16:30
+ */
+final class MicrometerMetricsSink implements MetricsSink {
+
+    private static final String PREFIX = "bili.pipeline.";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    MicrometerMetricsSink(Object registry) {
+        this.registry = (MeterRegistry) registry;
+    }
+
+    @Override
+    public void recordLatency(PipelineMetrics.Stage stage, String type, boolean success, long nanos) {
+        String outcome = success ? "success" : "failure";
+        timers.computeIfAbsent(stage.tag() + '|' + type + '|' + outcome, k -> Timer.builder(PREFIX + "stage")
+                .description("解析流程各阶段耗时")
+                .tag("stage", stage.tag())
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+        ).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void countLink(PipelineMetrics.Outcome outcome, String type) {
+        counters.computeIfAbsent(outcome.tag() + '|' + type, k -> Counter.builder(PREFIX + "links")
+                .description("链接处理结果")
+                .tag("outcome", outcome.tag())
+                .tag("type", type)
+                .register(registry)
+        ).increment();
+    }
+
+    @Override
+    public void registerGauge(String name, Supplier<Number> value) {
+        Gauge.builder(PREFIX + name, value)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        // 指标归宿主的 MeterRegistry 管理，无需释放
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.shiropluginanalysisbilibili.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 解析流程的指标：各阶段的耗时分布、每个链接的处理结果计数与进行中的任务数。
+ * <p>
+ * 宿主的 Spring 容器中有 Micrometer 的 MeterRegistry 时直接注册到其中（耗时带百分位直方图），
+ * 否则在插件内部统计，并按固定间隔输出到日志。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-19-16:30
+ */
+public final class PipelineMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineMetrics.class);
+
+    private static final String MICROMETER_CLASS = "io.micrometer.core.instrument.MeterRegistry";
+
+    /**
+     * 不区分类型的阶段使用的类型标签
+     */
+    public static final String NO_TYPE = "none";
+
+    /**
+     * 解析流程的阶段
+     */
+    public enum Stage {
+        /**
+         * 文本消息的链接匹配
+         */
+        TRIGGER("trigger"),
+        /**
+         * QQ 小程序的链接提取
+         */
+        MINI_APP("mini_app"),
+        /**
+         * 短链展开
+         */
+        SHORT_LINK("short_link"),
+        /**
+         * 链接种类与 ID 的识别
+         */
+        EXTRACT("extract"),
+        /**
+         * API 请求（含元数据缓存命中）
+         */
+        FETCH("fetch"),
+        /**
+         * 单个链接从请求到组织好回复文本
+         */
+        RENDER("render"),
+        /**
+         * 视频下载（含合并）
+         */
+        DOWNLOAD("download"),
+        /**
+         * 音视频合并；边下载边混流时类型为 java_stream，耗时包含下载
+         */
+        MERGE("merge"),
+        /**
+         * 发送群消息
+         */
+        SEND("send");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    /**
+     * 单个链接的处理结果
+     */
+    public enum Outcome {
+        SUCCESS, FAILURE,
+        /**
+         * 同一条消息中重复的链接
+         */
+        DEDUP,
+        /**
+         * 处于冷却期的链接
+         */
+        COOLDOWN;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final MetricsSink sink;
+
+    private PipelineMetrics(MetricsSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 优先使用宿主的 MeterRegistry，没有时使用日志输出
+     *
+     * @param beanLookup         按类型获取宿主容器中的 Bean，例如 SpringUtil::getBean；找不到时返回 null 或抛出异常
+     * @param logIntervalSeconds 日志输出间隔，0 或负数表示不输出
+     */
+    public static PipelineMetrics create(Function<Class<?>, Object> beanLookup, long logIntervalSeconds) {
+        Class<?> registryType = micrometerRegistryType();
+        if (registryType != null) {
+            Object registry = null;
+            try {
+                registry = beanLookup.apply(registryType);
+            } catch (RuntimeException e) {
+                logger.debug("宿主中没有 MeterRegistry: {}", e.getMessage());
+            }
+            if (registry != null) {
+                logger.info("解析指标上报到宿主的 MeterRegistry: {}", registry.getClass().getSimpleName());
+                return new PipelineMetrics(new MicrometerMetricsSink(registry));
+            }
+        }
+        logger.info("宿主没有 MeterRegistry，解析指标每 {}s 输出到日志", logIntervalSeconds);
+        return new PipelineMetrics(new LogMetricsSink(logIntervalSeconds));
+    }
+
+    /**
+     * 宿主类路径中的 MeterRegistry 类型，没有 Micrometer 时返回 null
+     */
+    private static Class<?> micrometerRegistryType() {
+        try {
+            return Class.forName(MICROMETER_CLASS, false, PipelineMetrics.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 阶段计时的起点，与 {@link #record} 配合使用
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     *
+     * @param type       链接类型（video、bangumi 等），不区分类型时传 {@link #NO_TYPE}
+     * @param startNanos {@link #start()} 的返回值
+     * @param success    阶段是否成功
+     */
+    public void record(Stage stage, String type, long startNanos, boolean success) {
+        sink.recordLatency(stage, type == null ? NO_TYPE : type, success, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 执行并记录一个阶段的耗时，抛出异常视为失败
+     */
+    public <T> T time(Stage stage, String type, Callable<T> action) throws Exception {
+        long start = start();
+        boolean success = false;
+        try {
+            T result = action.call();
+            success = true;
+            return result;
+        } finally {
+            record(stage, type, start, success);
+        }
+    }
+
+    /**
+     * 同 {@link #time}，用于没有返回值的阶段
+     */
+    public void run(Stage stage, String type, Action action) throws Exception {
+        long start = start();
+        boolean success = false;
+        try {
+            action.run();
+            success = true;
+        } finally {
+            record(stage, type, start, success);
+        }
+    }
+
+    /**
+     * 允许抛出异常的无返回值操作
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * 记录一个链接的处理结果
+     */
+    public void count(Outcome outcome, String type) {
+        sink.countLink(outcome, type == null ? NO_TYPE : type);
+    }
+
+    /**
+     * 注册一个进行中任务数之类的瞬时值
+     *
+     * @param name 名称，例如 parse_queue
+     */
+    public void gauge(String name, Supplier<Number> value) {
+        sink.registerGauge(name, value);
+    }
+
+    public void shutdown() {
+        sink.close();
+    }
+}
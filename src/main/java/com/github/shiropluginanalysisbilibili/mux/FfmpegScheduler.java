@@ -0,0 +1,283 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ffmpeg 合并任务调度器：
+ * - 同时运行的 ffmpeg 进程数有上限，超出的任务排队等待
+ * - 每个任务有总时长限制（包括排队），超时后强制结束进程
+ * - 解析 ffmpeg 的 -progress 输出，记录进度与处理速度
+ * - 检查退出码，失败时带上 ffmpeg 最后几行错误输出
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-16-15:20
+ */
+public class FfmpegScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(FfmpegScheduler.class);
+
+    /**
+     * 失败时保留的 ffmpeg 输出行数
+     */
+    private static final int ERROR_TAIL_LINES = 10;
+
+    /**
+     * 调度器的运行统计
+     *
+     * @param queued        排队中的任务数
+     * @param running       运行中的任务数
+     * @param completed     成功完成的任务数
+     * @param failed        失败的任务数（不含超时）
+     * @param timedOut      超时被结束的任务数
+     * @param avgMillis     成功任务的平均耗时
+     * @param lastSpeed     最近一次任务的处理速度（相对实时播放的倍数）
+     */
+    public record Stats(int queued, int running, long completed, long failed, long timedOut,
+                        long avgMillis, double lastSpeed) {
+    }
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long timeoutMillis;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private volatile double lastSpeed;
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    /**
+     * @param maxConcurrency 同时运行的 ffmpeg 进程数上限
+     * @param timeoutSeconds 单个任务的总时长上限（秒），0 或负数表示不限制
+     */
+    public FfmpegScheduler(int maxConcurrency, long timeoutSeconds) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        // 不限制时用一个足够长的时长代替，避免计算截止时间时溢出
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds > 0 ? timeoutSeconds : TimeUnit.DAYS.toSeconds(365));
+    }
+
+    /**
+     * 合并音视频，视频流直接复制，音频转码为 AAC
+     *
+     * @param durationSec 视频时长，用于计算进度百分比，未知时传 0
+     */
+    public void merge(File video, File audio, File output, long durationSec) throws IOException {
+        run(List.of(
+                "ffmpeg", "-y",
+                "-nostdin", "-nostats", "-loglevel", "error",
+                "-progress", "pipe:1",
+                "-i", video.getAbsolutePath(),
+                "-i", audio.getAbsolutePath(),
+                "-c:v", "copy",
+                "-c:a", "aac",
+                output.getAbsolutePath()
+        ), output.getName(), durationSec);
+    }
+
+    /**
+     * 排队执行一条 ffmpeg 命令，命令中需要带上 -progress pipe:1
+     */
+    public void run(List<String> command, String name, long durationSec) throws IOException {
+        if (shutdown) {
+            throw new IOException("ffmpeg 调度器已关闭");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int depth = queued.incrementAndGet();
+        if (running.get() >= maxConcurrency) {
+            logger.info("ffmpeg 任务排队中: {} 排队={} 运行中={}", name, depth, running.get());
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待 ffmpeg 时被中断");
+        } finally {
+            queued.decrementAndGet();
+        }
+        if (!acquired) {
+            timedOut.incrementAndGet();
+            throw new IOException("ffmpeg 排队超时: " + name);
+        }
+        running.incrementAndGet();
+        try {
+            execute(command, name, durationSec, deadline);
+        } finally {
+            running.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.get();
+        return new Stats(queued.get(), running.get(), done, failed.get(), timedOut.get(),
+                done == 0 ? 0 : totalMillis.get() / done, lastSpeed);
+    }
+
+    /**
+     * 拒绝新任务并结束所有运行中的 ffmpeg 进程
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Process process : processes) {
+            process.destroyForcibly();
+        }
+    }
+
+    private void execute(List<String> command, String name, long durationSec, long deadline) throws IOException {
+        long start = System.currentTimeMillis();
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        processes.add(process);
+        Progress progress = new Progress(name, durationSec);
+        Thread reader = new Thread(() -> progress.consume(process), "bili-ffmpeg-progress");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            if (!process.waitFor(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                kill(process);
+                timedOut.incrementAndGet();
+                throw new IOException("ffmpeg 执行超时，已结束进程: " + name);
+            }
+            // 进程已退出，等待剩余输出读完
+            reader.join(1000);
+            int exit = process.exitValue();
+            if (exit != 0) {
+                failed.incrementAndGet();
+                throw new IOException("ffmpeg 退出码 " + exit + ": " + name + "\n" + progress.errorTail());
+            }
+        } catch (InterruptedException e) {
+            kill(process);
+            failed.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("ffmpeg 任务被中断: " + name);
+        } finally {
+            processes.remove(process);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        completed.incrementAndGet();
+        totalMillis.addAndGet(elapsed);
+        lastSpeed = progress.speed;
+        logger.debug("ffmpeg 合并完成: {} 耗时 {}ms 输出 {} 字节 速度 {}x",
+                name, elapsed, progress.totalSize, progress.speed);
+    }
+
+    private static void kill(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(3, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * 解析 -progress 输出：每个进度块由若干 key=value 行组成，以 progress=continue/end 结尾；
+     * 其余行视为错误输出，只保留最后几行
+     */
+    private static final class Progress {
+        private final String name;
+        private final long durationMicros;
+        private final Deque<String> tail = new ArrayDeque<>();
+        private volatile long outTimeMicros;
+        private volatile long totalSize;
+        private volatile double speed;
+
+        private Progress(String name, long durationSec) {
+            this.name = name;
+            this.durationMicros = TimeUnit.SECONDS.toMicros(Math.max(0, durationSec));
+        }
+
+        private void consume(Process process) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    accept(line);
+                }
+            } catch (IOException e) {
+                // 进程被结束时输出流会被关闭
+            }
+        }
+
+        private void accept(String line) {
+            int eq = line.indexOf('=');
+            if (eq <= 0 || line.indexOf(' ') >= 0 && line.indexOf(' ') < eq) {
+                synchronized (tail) {
+                    if (tail.size() == ERROR_TAIL_LINES) {
+                        tail.removeFirst();
+                    }
+                    tail.addLast(line);
+                }
+                return;
+            }
+            String key = line.substring(0, eq);
+            String value = line.substring(eq + 1).trim();
+            switch (key) {
+                case "out_time_us", "out_time_ms" -> outTimeMicros = parseLong(value);
+                case "total_size" -> totalSize = parseLong(value);
+                case "speed" -> speed = parseSpeed(value);
+                case "progress" -> {
+                    if (logger.isDebugEnabled() && durationMicros > 0) {
+                        logger.debug("ffmpeg 进度: {} {}% 速度 {}x", name,
+                                Math.min(100, outTimeMicros * 100 / durationMicros), speed);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private String errorTail() {
+            synchronized (tail) {
+                return String.join("\n", tail);
+            }
+        }
+
+        private static long parseLong(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private static double parseSpeed(String value) {
+            String v = value.endsWith("x") ? value.substring(0, value.length() - 1) : value;
+            try {
+                return Double.parseDouble(v.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
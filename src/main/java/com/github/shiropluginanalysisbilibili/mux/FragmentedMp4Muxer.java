@@ -0,0 +1,405 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 纯 Java 的 DASH 音视频混流器：把 B 站 DASH 的视频 fMP4 与音频 fMP4 合并为一个双轨的分片 MP4，不重新编码。
+ * - 两路输入的 moov 合并为一个 moov，视频轨 ID 为 1，音频轨 ID 为 2
+ * - 两路输入的 moof/mdat 按解码时间交错写出，mdat 原样复制
+ * - 只依赖顺序读取，输入既可以是文件，也可以是下载中的数据流
+ * - 可以只输出前若干秒（预览片段），输入只需包含对应的前缀，截断处必须是完整的分片边界
+ * <p>
+ * 遇到无法处理的输入时抛出 {@link UnsupportedMediaException}，调用方应回退到 ffmpeg。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-15-15:00
+ */
+public final class FragmentedMp4Muxer {
+
+    private static final Set<String> VIDEO_CODECS = Set.of("avc1", "avc3", "hvc1", "hev1", "av01");
+    private static final Set<String> AUDIO_CODECS = Set.of("mp4a");
+
+    private static final int VIDEO_TRACK_ID = 1;
+    private static final int AUDIO_TRACK_ID = 2;
+
+    private static final int IO_BUFFER = 256 * 1024;
+
+    private FragmentedMp4Muxer() {
+    }
+
+    /**
+     * 合并音视频文件
+     */
+    public static void mux(File video, File audio, File output) throws IOException {
+        mux(video, audio, output, 0);
+    }
+
+    /**
+     * 合并音视频文件，只输出前 clipSeconds 秒
+     *
+     * @param clipSeconds 片段时长，0 或负数表示输出全部
+     */
+    public static void mux(File video, File audio, File output, double clipSeconds) throws IOException {
+        try (InputStream v = new BufferedInputStream(new FileInputStream(video), IO_BUFFER);
+             InputStream a = new BufferedInputStream(new FileInputStream(audio), IO_BUFFER);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(output), IO_BUFFER)) {
+            mux(v, a, out, clipSeconds);
+        }
+    }
+
+    /**
+     * 合并音视频数据流，两个输入流都只会被顺序读取一遍
+     */
+    public static void mux(InputStream video, InputStream audio, OutputStream output) throws IOException {
+        mux(video, audio, output, 0);
+    }
+
+    /**
+     * 合并音视频数据流，只输出起始时间早于 clipSeconds 的分片，头部的时长也改为片段时长
+     *
+     * @param clipSeconds 片段时长，0 或负数表示输出全部
+     */
+    public static void mux(InputStream video, InputStream audio, OutputStream output, double clipSeconds)
+            throws IOException {
+        Mp4FragmentReader videoReader = new Mp4FragmentReader(video);
+        Mp4FragmentReader audioReader = new Mp4FragmentReader(audio);
+        Track videoTrack = Track.of(videoReader.readInit(), "vide", VIDEO_CODECS, VIDEO_TRACK_ID);
+        Track audioTrack = Track.of(audioReader.readInit(), "soun", AUDIO_CODECS, AUDIO_TRACK_ID);
+
+        CountingOutputStream out = new CountingOutputStream(output);
+        out.write(ftyp());
+        out.write(buildMoov(videoTrack, audioTrack, clipSeconds).toBytes());
+
+        boolean hasVideo = videoReader.nextFragment();
+        boolean hasAudio = audioReader.nextFragment();
+        long sequence = 1;
+        while (hasVideo || hasAudio) {
+            if (clipSeconds > 0) {
+                // 超出片段时长的分片不再写出，输入中剩余的数据直接丢弃
+                hasVideo = hasVideo && videoTrack.time(videoReader.moof()) < clipSeconds;
+                hasAudio = hasAudio && audioTrack.time(audioReader.moof()) < clipSeconds;
+                if (!hasVideo && !hasAudio) {
+                    break;
+                }
+            }
+            // 按解码时间交错写出两路分片
+            boolean pickVideo = hasVideo
+                    && (!hasAudio || videoTrack.time(videoReader.moof()) <= audioTrack.time(audioReader.moof()));
+            Mp4FragmentReader reader = pickVideo ? videoReader : audioReader;
+            Track track = pickVideo ? videoTrack : audioTrack;
+
+            Mp4Box moof = reader.moof();
+            track.advance(moof);
+            rewriteMoof(moof, track.trackId, sequence++, reader.moofOffset(), out.count);
+            out.write(moof.toBytes());
+            reader.copyMediaData(out);
+
+            if (pickVideo) {
+                hasVideo = videoReader.nextFragment();
+            } else {
+                hasAudio = audioReader.nextFragment();
+            }
+        }
+        out.flush();
+    }
+
+    private static Mp4Box buildMoov(Track video, Track audio, double clipSeconds) {
+        Mp4Box moov = Mp4Box.container("moov");
+
+        Mp4Box mvhd = video.moov.child("mvhd");
+        long movieScale = video.movieTimescale;
+        long audioDuration = rescale(audio.movieDuration(), audio.movieTimescale, movieScale);
+        long duration = Math.max(video.movieDuration(), audioDuration);
+        long clipDuration = clipSeconds > 0 ? (long) Math.ceil(clipSeconds * movieScale) : 0;
+        if (clipDuration > 0 && (duration <= 0 || duration > clipDuration)) {
+            duration = clipDuration;
+        }
+        setMovieDuration(mvhd, duration);
+        // next_track_ID 位于 mvhd 的最后 4 个字节
+        mvhd.putU32(mvhd.payload.length - 4, AUDIO_TRACK_ID + 1);
+        moov.children.add(mvhd);
+
+        setTrackId(video.trak, VIDEO_TRACK_ID);
+        setTrackId(audio.trak, AUDIO_TRACK_ID);
+        // 音频轨 tkhd 与 elst 中的时长使用的是音频文件的 movie timescale，需要换算到输出的 movie timescale
+        rescaleTrack(audio.trak, audio.movieTimescale, movieScale);
+        if (clipDuration > 0) {
+            clipTrack(video.trak, clipDuration);
+            clipTrack(audio.trak, clipDuration);
+        }
+        moov.children.add(video.trak);
+        moov.children.add(audio.trak);
+
+        Mp4Box mvex = Mp4Box.container("mvex");
+        mvex.children.add(video.trex);
+        mvex.children.add(audio.trex);
+        moov.children.add(mvex);
+        return moov;
+    }
+
+    /**
+     * 重写 moof：序号、轨道 ID，以及显式的 base_data_offset
+     */
+    private static void rewriteMoof(Mp4Box moof, int trackId, long sequence, long oldOffset, long newOffset) {
+        Mp4Box mfhd = moof.child("mfhd");
+        if (mfhd != null) {
+            mfhd.putU32(4, sequence);
+        }
+        for (Mp4Box traf : moof.all("traf")) {
+            Mp4Box tfhd = traf.child("tfhd");
+            if (tfhd == null) {
+                continue;
+            }
+            tfhd.putU32(4, trackId);
+            // base-data-offset-present：绝对偏移需要跟随 moof 的新位置平移
+            if ((tfhd.flags() & 0x01) != 0) {
+                tfhd.putU64(8, tfhd.u64(8) - oldOffset + newOffset);
+            }
+        }
+    }
+
+    private static void setTrackId(Mp4Box trak, int trackId) {
+        Mp4Box tkhd = trak.child("tkhd");
+        tkhd.putU32(tkhd.version() == 1 ? 20 : 12, trackId);
+    }
+
+    private static void rescaleTrack(Mp4Box trak, long from, long to) {
+        if (from == to || from <= 0) {
+            return;
+        }
+        Mp4Box tkhd = trak.child("tkhd");
+        if (tkhd.version() == 1) {
+            tkhd.putU64(28, rescale(tkhd.u64(28), from, to));
+        } else {
+            tkhd.putU32(20, rescale32(tkhd.u32(20), from, to));
+        }
+        Mp4Box elst = trak.find("edts", "elst");
+        if (elst != null) {
+            int count = (int) elst.u32(4);
+            int entrySize = elst.version() == 1 ? 20 : 12;
+            for (int i = 0; i < count; i++) {
+                int offset = 8 + i * entrySize;
+                if (elst.version() == 1) {
+                    elst.putU64(offset, rescale(elst.u64(offset), from, to));
+                } else {
+                    elst.putU32(offset, rescale32(elst.u32(offset), from, to));
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 tkhd 与 elst 中超出片段时长的时长截短，否则播放器会按原视频的时长显示进度条
+     */
+    private static void clipTrack(Mp4Box trak, long maxDuration) {
+        Mp4Box tkhd = trak.child("tkhd");
+        if (tkhd.version() == 1) {
+            if (Long.compareUnsigned(tkhd.u64(28), maxDuration) > 0) {
+                tkhd.putU64(28, maxDuration);
+            }
+        } else if (tkhd.u32(20) > maxDuration) {
+            tkhd.putU32(20, maxDuration);
+        }
+        Mp4Box elst = trak.find("edts", "elst");
+        if (elst != null) {
+            int count = (int) elst.u32(4);
+            int entrySize = elst.version() == 1 ? 20 : 12;
+            for (int i = 0; i < count; i++) {
+                int offset = 8 + i * entrySize;
+                if (elst.version() == 1) {
+                    if (Long.compareUnsigned(elst.u64(offset), maxDuration) > 0) {
+                        elst.putU64(offset, maxDuration);
+                    }
+                } else if (elst.u32(offset) > maxDuration) {
+                    elst.putU32(offset, maxDuration);
+                }
+            }
+        }
+    }
+
+    private static void setMovieDuration(Mp4Box mvhd, long duration) {
+        if (mvhd.version() == 1) {
+            mvhd.putU64(24, duration);
+        } else {
+            mvhd.putU32(16, Math.min(duration, 0xFFFFFFFFL));
+        }
+    }
+
+    private static long rescale(long value, long from, long to) {
+        if (value == -1 || from <= 0 || from == to) {
+            return value;
+        }
+        return (long) (value * (double) to / from);
+    }
+
+    private static long rescale32(long value, long from, long to) {
+        if (value == 0xFFFFFFFFL) {
+            return value;
+        }
+        return Math.min(rescale(value, from, to), 0xFFFFFFFEL);
+    }
+
+    private static byte[] ftyp() {
+        String[] compatible = {"isom", "iso6", "mp41"};
+        ByteBuffer buf = ByteBuffer.allocate(16 + compatible.length * 4);
+        buf.putInt(buf.capacity());
+        buf.put("ftyp".getBytes(StandardCharsets.ISO_8859_1));
+        buf.put("isom".getBytes(StandardCharsets.ISO_8859_1));
+        buf.putInt(0x200);
+        for (String brand : compatible) {
+            buf.put(brand.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return buf.array();
+    }
+
+    /**
+     * 单路输入的轨道信息
+     */
+    private static final class Track {
+        private final Mp4Box moov;
+        private final Mp4Box trak;
+        private final Mp4Box trex;
+        private final int trackId;
+        private final long movieTimescale;
+        private final long mediaTimescale;
+        /**
+         * 没有 tfdt 时按分片时长累加得到的解码时间
+         */
+        private long nextDecodeTime;
+
+        private Track(Mp4Box moov, Mp4Box trak, Mp4Box trex, int trackId, long movieTimescale, long mediaTimescale) {
+            this.moov = moov;
+            this.trak = trak;
+            this.trex = trex;
+            this.trackId = trackId;
+            this.movieTimescale = movieTimescale;
+            this.mediaTimescale = mediaTimescale;
+        }
+
+        static Track of(Mp4Box moov, String handler, Set<String> codecs, int trackId) throws UnsupportedMediaException {
+            if (moov.all("trak").size() != 1) {
+                throw new UnsupportedMediaException("只支持单轨输入");
+            }
+            Mp4Box trak = moov.child("trak");
+            Mp4Box hdlr = trak.find("mdia", "hdlr");
+            if (hdlr == null || !handler.equals(hdlr.fourcc(8))) {
+                throw new UnsupportedMediaException("轨道类型不是 " + handler);
+            }
+            Mp4Box stsd = trak.find("mdia", "minf", "stbl", "stsd");
+            String codec = stsd != null && stsd.payload.length >= 16 ? stsd.fourcc(12) : "";
+            if (!codecs.contains(codec)) {
+                throw new UnsupportedMediaException("不支持的编码: " + codec);
+            }
+            Mp4Box trex = moov.find("mvex", "trex");
+            if (trex == null) {
+                throw new UnsupportedMediaException("输入不是分片 MP4：缺少 mvex");
+            }
+            trex.putU32(4, trackId);
+            Mp4Box mvhd = moov.child("mvhd");
+            long movieTimescale = mvhd.u32(mvhd.version() == 1 ? 20 : 12);
+            Mp4Box mdhd = trak.find("mdia", "mdhd");
+            long mediaTimescale = mdhd.u32(mdhd.version() == 1 ? 20 : 12);
+            return new Track(moov, trak, trex, trackId, movieTimescale, mediaTimescale);
+        }
+
+        long movieDuration() {
+            Mp4Box mvhd = moov.child("mvhd");
+            return mvhd.version() == 1 ? mvhd.u64(24) : mvhd.u32(16);
+        }
+
+        /**
+         * 分片的起始解码时间，单位秒
+         */
+        double time(Mp4Box moof) {
+            Mp4Box tfdt = moof.find("traf", "tfdt");
+            long decodeTime = tfdt == null ? nextDecodeTime
+                    : tfdt.version() == 1 ? tfdt.u64(4) : tfdt.u32(4);
+            return mediaTimescale > 0 ? decodeTime / (double) mediaTimescale : decodeTime;
+        }
+
+        /**
+         * 写出一个分片后推进累计解码时间
+         */
+        void advance(Mp4Box moof) {
+            Mp4Box tfdt = moof.find("traf", "tfdt");
+            long start = tfdt == null ? nextDecodeTime
+                    : tfdt.version() == 1 ? tfdt.u64(4) : tfdt.u32(4);
+            nextDecodeTime = start + fragmentDuration(moof);
+        }
+
+        private long fragmentDuration(Mp4Box moof) {
+            Mp4Box traf = moof.child("traf");
+            if (traf == null) {
+                return 0;
+            }
+            Mp4Box tfhd = traf.child("tfhd");
+            long defaultDuration = trex.u32(12);
+            if (tfhd != null && (tfhd.flags() & 0x08) != 0) {
+                int offset = 8;
+                if ((tfhd.flags() & 0x01) != 0) {
+                    offset += 8;
+                }
+                if ((tfhd.flags() & 0x02) != 0) {
+                    offset += 4;
+                }
+                defaultDuration = tfhd.u32(offset);
+            }
+            long total = 0;
+            for (Mp4Box trun : traf.all("trun")) {
+                int flags = trun.flags();
+                long count = trun.u32(4);
+                if ((flags & 0x100) == 0) {
+                    total += count * defaultDuration;
+                    continue;
+                }
+                int offset = 8;
+                if ((flags & 0x01) != 0) {
+                    offset += 4;
+                }
+                if ((flags & 0x04) != 0) {
+                    offset += 4;
+                }
+                int sampleSize = 4 * Integer.bitCount(flags & 0xF00);
+                for (long i = 0; i < count; i++) {
+                    total += trun.u32(offset);
+                    offset += sampleSize;
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * 记录已写出字节数的输出流，用于计算 moof 在输出文件中的偏移
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 简单的 ISO BMFF（MP4）box 树，只用于重写 moov / moof 这类体积很小的元数据 box。
+ * 容器 box 会递归解析子 box，其余 box 保留原始字节。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-15-14:00
+ */
+final class Mp4Box {
+
+    /**
+     * 需要递归解析的容器 box
+     */
+    private static final Set<String> CONTAINERS = Set.of(
+            "moov", "trak", "edts", "mdia", "minf", "stbl", "mvex", "moof", "traf", "dinf", "udta");
+
+    final String type;
+    /**
+     * 非容器 box 的内容（不含 box 头）
+     */
+    byte[] payload;
+    final List<Mp4Box> children;
+
+    private Mp4Box(String type, byte[] payload, List<Mp4Box> children) {
+        this.type = type;
+        this.payload = payload;
+        this.children = children;
+    }
+
+    static Mp4Box leaf(String type, byte[] payload) {
+        return new Mp4Box(type, payload, null);
+    }
+
+    static Mp4Box container(String type) {
+        return new Mp4Box(type, null, new ArrayList<>());
+    }
+
+    /**
+     * 解析一个 box 的内容
+     *
+     * @param type    box 类型
+     * @param content box 内容（不含 box 头）
+     */
+    static Mp4Box parse(String type, byte[] content) {
+        if (!CONTAINERS.contains(type)) {
+            return leaf(type, content);
+        }
+        Mp4Box box = container(type);
+        ByteBuffer buf = ByteBuffer.wrap(content);
+        while (buf.remaining() >= 8) {
+            long size = buf.getInt() & 0xFFFFFFFFL;
+            String childType = readType(buf);
+            int header = 8;
+            if (size == 1) {
+                size = buf.getLong();
+                header = 16;
+            } else if (size == 0) {
+                size = buf.remaining() + header;
+            }
+            int length = (int) (size - header);
+            if (length < 0 || length > buf.remaining()) {
+                break;
+            }
+            byte[] child = new byte[length];
+            buf.get(child);
+            box.children.add(parse(childType, child));
+        }
+        return box;
+    }
+
+    boolean isContainer() {
+        return children != null;
+    }
+
+    Mp4Box child(String childType) {
+        if (children != null) {
+            for (Mp4Box child : children) {
+                if (child.type.equals(childType)) {
+                    return child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按路径查找后代 box，例如 find("mdia", "minf", "stbl", "stsd")
+     */
+    Mp4Box find(String... path) {
+        Mp4Box box = this;
+        for (String p : path) {
+            box = box.child(p);
+            if (box == null) {
+                return null;
+            }
+        }
+        return box;
+    }
+
+    List<Mp4Box> all(String childType) {
+        List<Mp4Box> result = new ArrayList<>();
+        if (children != null) {
+            for (Mp4Box child : children) {
+                if (child.type.equals(childType)) {
+                    result.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    void remove(String childType) {
+        if (children != null) {
+            Iterator<Mp4Box> it = children.iterator();
+            while (it.hasNext()) {
+                if (it.next().type.equals(childType)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * full box 的 version 字段
+     */
+    int version() {
+        return payload[0] & 0xFF;
+    }
+
+    /**
+     * full box 的 flags 字段
+     */
+    int flags() {
+        return ((payload[1] & 0xFF) << 16) | ((payload[2] & 0xFF) << 8) | (payload[3] & 0xFF);
+    }
+
+    long u32(int offset) {
+        return ByteBuffer.wrap(payload).getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    long u64(int offset) {
+        return ByteBuffer.wrap(payload).getLong(offset);
+    }
+
+    void putU32(int offset, long value) {
+        ByteBuffer.wrap(payload).putInt(offset, (int) value);
+    }
+
+    void putU64(int offset, long value) {
+        ByteBuffer.wrap(payload).putLong(offset, value);
+    }
+
+    String fourcc(int offset) {
+        return new String(payload, offset, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    byte[] toBytes() {
+        byte[] content;
+        if (isContainer()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Mp4Box child : children) {
+                out.writeBytes(child.toBytes());
+            }
+            content = out.toByteArray();
+        } else {
+            content = payload;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(8 + content.length);
+        buf.putInt(8 + content.length);
+        buf.put(type.getBytes(StandardCharsets.ISO_8859_1));
+        buf.put(content);
+        return buf.array();
+    }
+
+    static String readType(ByteBuffer buf) {
+        byte[] type = new byte[4];
+        buf.get(type);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 顺序读取分片 MP4（DASH 的单轨 fMP4）的读取器，只依赖 InputStream，不需要随机访问：
+ * - {@link #readInit()} 读取初始化段，返回解析后的 moov
+ * - {@link #nextFragment()} 读取下一个 moof，mdat 留在流中
+ * - {@link #copyMediaData(OutputStream)} 把紧随其后的 mdat 原样复制到输出
+ * <p>
+ * 因此媒体数据可以直接从下载流转发到输出文件，无需整体缓存在内存或磁盘上。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-15-14:30
+ */
+final class Mp4FragmentReader {
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final InputStream in;
+    /**
+     * 已从流中读取的字节数，即下一个 box 在原文件中的偏移
+     */
+    private long position;
+
+    /**
+     * 预读但尚未消费的 box 头
+     */
+    private String peekType;
+    private long peekSize;
+    private int peekHeader;
+    private long peekOffset;
+
+    private Mp4Box moof;
+    private long moofOffset;
+
+    Mp4FragmentReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * 读取初始化段，跳过 ftyp 等 box，直到读到 moov
+     */
+    Mp4Box readInit() throws IOException {
+        while (peekHeader()) {
+            if ("moov".equals(peekType)) {
+                return Mp4Box.parse("moov", readBody());
+            }
+            if ("moof".equals(peekType) || "mdat".equals(peekType)) {
+                break;
+            }
+            skipBody();
+        }
+        throw new UnsupportedMediaException("输入不是分片 MP4：未找到 moov");
+    }
+
+    /**
+     * 读取下一个 moof，跳过 sidx、styp 等与媒体数据无关的 box
+     *
+     * @return false 表示已到达流末尾
+     */
+    boolean nextFragment() throws IOException {
+        while (peekHeader()) {
+            if ("moof".equals(peekType)) {
+                moofOffset = peekOffset;
+                moof = Mp4Box.parse("moof", readBody());
+                return true;
+            }
+            skipBody();
+        }
+        moof = null;
+        return false;
+    }
+
+    Mp4Box moof() {
+        return moof;
+    }
+
+    /**
+     * 当前 moof 在原始流中的偏移
+     */
+    long moofOffset() {
+        return moofOffset;
+    }
+
+    /**
+     * 把当前 moof 之后的 mdat 原样复制到输出（包括 box 头）
+     *
+     * @return 复制的字节数
+     */
+    long copyMediaData(OutputStream out) throws IOException {
+        long copied = 0;
+        byte[] buf = new byte[COPY_BUFFER];
+        while (peekHeader() && "mdat".equals(peekType)) {
+            out.write(headerBytes(peekType, peekSize, peekHeader));
+            long remaining = peekSize - peekHeader;
+            peekType = null;
+            while (remaining > 0) {
+                int n = in.read(buf, 0, (int) Math.min(buf.length, remaining));
+                if (n < 0) {
+                    throw new EOFException("mdat 数据不完整");
+                }
+                out.write(buf, 0, n);
+                remaining -= n;
+                position += n;
+            }
+            copied += peekSize;
+        }
+        return copied;
+    }
+
+    /**
+     * 预读下一个 box 头
+     *
+     * @return false 表示已到达流末尾
+     */
+    private boolean peekHeader() throws IOException {
+        if (peekType != null) {
+            return true;
+        }
+        byte[] header = new byte[8];
+        int first = in.readNBytes(header, 0, 8);
+        if (first == 0) {
+            return false;
+        }
+        if (first < 8) {
+            throw new EOFException("box 头不完整");
+        }
+        peekOffset = position;
+        position += 8;
+        ByteBuffer buf = ByteBuffer.wrap(header);
+        long size = buf.getInt() & 0xFFFFFFFFL;
+        peekType = Mp4Box.readType(buf);
+        peekHeader = 8;
+        if (size == 1) {
+            byte[] large = in.readNBytes(8);
+            if (large.length < 8) {
+                throw new EOFException("box 头不完整");
+            }
+            position += 8;
+            size = ByteBuffer.wrap(large).getLong();
+            peekHeader = 16;
+        } else if (size == 0) {
+            throw new UnsupportedMediaException("不支持延伸到文件末尾的 box: " + peekType);
+        }
+        if (size < peekHeader) {
+            throw new IOException("非法的 box 大小: " + peekType + " " + size);
+        }
+        peekSize = size;
+        return true;
+    }
+
+    private byte[] readBody() throws IOException {
+        long length = peekSize - peekHeader;
+        if (length > Integer.MAX_VALUE - 16) {
+            throw new UnsupportedMediaException("box 过大: " + peekType);
+        }
+        byte[] body = in.readNBytes((int) length);
+        if (body.length < length) {
+            throw new EOFException(peekType + " 数据不完整");
+        }
+        position += length;
+        peekType = null;
+        return body;
+    }
+
+    private void skipBody() throws IOException {
+        long length = peekSize - peekHeader;
+        in.skipNBytes(length);
+        position += length;
+        peekType = null;
+    }
+
+    private static byte[] headerBytes(String type, long size, int headerSize) {
+        ByteBuffer buf = ByteBuffer.allocate(headerSize);
+        if (headerSize == 16) {
+            buf.putInt(1);
+            buf.put(type.getBytes(StandardCharsets.ISO_8859_1));
+            buf.putLong(size);
+        } else {
+            buf.putInt((int) size);
+            buf.put(type.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return buf.array();
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * DASH 单文件流的分段索引（sidx box），即取流接口中 SegmentBase.indexRange 指向的数据：
+ * - 每个子分段对应一段连续的 moof/mdat，给出字节大小与时长
+ * - 据此可以算出前 N 秒的数据在文件中的结束位置，只用一次 Range 请求取回
+ * <p>
+ * 只支持单层索引，引用其它 sidx 的层级索引会抛出 {@link UnsupportedMediaException}。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-21-10:30
+ */
+public final class SegmentIndex {
+
+    /**
+     * 文件开头的一段前缀
+     *
+     * @param end     前缀的结束偏移（不含）
+     * @param seconds 前缀包含的媒体时长，按子分段取整，不小于请求的时长（文件更短时除外）
+     */
+    public record Prefix(long end, double seconds) {
+    }
+
+    private final long timescale;
+    private final long firstOffset;
+    private final long[] sizes;
+    private final long[] durations;
+
+    private SegmentIndex(long timescale, long firstOffset, long[] sizes, long[] durations) {
+        this.timescale = timescale;
+        this.firstOffset = firstOffset;
+        this.sizes = sizes;
+        this.durations = durations;
+    }
+
+    /**
+     * 解析 sidx box
+     *
+     * @param box    完整的 sidx box，包括 box 头
+     * @param anchor sidx box 之后第一个字节在文件中的偏移，即 indexRange 的结束位置 + 1
+     */
+    public static SegmentIndex parse(byte[] box, long anchor) throws UnsupportedMediaException {
+        if (box.length < 8) {
+            throw new UnsupportedMediaException("sidx 数据不完整");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(box);
+        long size = buf.getInt() & 0xFFFFFFFFL;
+        String type = Mp4Box.readType(buf);
+        if (!"sidx".equals(type)) {
+            throw new UnsupportedMediaException("indexRange 指向的不是 sidx: " + type);
+        }
+        if (size < 32 || size > box.length) {
+            throw new UnsupportedMediaException("sidx 数据不完整: " + box.length + "/" + size);
+        }
+        Mp4Box sidx = Mp4Box.leaf("sidx", Arrays.copyOfRange(box, 8, (int) size));
+        long timescale = sidx.u32(8);
+        int offset = 12;
+        long firstOffset;
+        if (sidx.version() == 1) {
+            firstOffset = sidx.u64(offset + 8);
+            offset += 16;
+        } else {
+            firstOffset = sidx.u32(offset + 4);
+            offset += 8;
+        }
+        // reserved(16) + reference_count(16)
+        int count = (int) (sidx.u32(offset) & 0xFFFF);
+        offset += 4;
+        if (timescale <= 0 || count == 0) {
+            throw new UnsupportedMediaException("sidx 中没有可用的子分段");
+        }
+        if (offset + count * 12L > sidx.payload.length) {
+            throw new UnsupportedMediaException("sidx 引用数据不完整");
+        }
+        long[] sizes = new long[count];
+        long[] durations = new long[count];
+        for (int i = 0; i < count; i++) {
+            long reference = sidx.u32(offset);
+            if ((reference & 0x80000000L) != 0) {
+                throw new UnsupportedMediaException("不支持层级 sidx");
+            }
+            sizes[i] = reference & 0x7FFFFFFFL;
+            durations[i] = sidx.u32(offset + 4);
+            offset += 12;
+        }
+        return new SegmentIndex(timescale, anchor + firstOffset, sizes, durations);
+    }
+
+    /**
+     * 覆盖前 seconds 秒所需的最短前缀，至少包含一个子分段
+     */
+    public Prefix prefix(double seconds) {
+        long end = firstOffset;
+        long time = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            end += sizes[i];
+            time += durations[i];
+            if (time >= seconds * timescale) {
+                break;
+            }
+        }
+        return new Prefix(end, time / (double) timescale);
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.io.IOException;
+
+/**
+ * 内置混流器无法处理的输入（非分片 MP4、不支持的编码、加密流等），调用方应回退到 ffmpeg
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-15-14:10
+ */
+public class UnsupportedMediaException extends IOException {
+
+    public UnsupportedMediaException(String message) {
+        super(message);
+    }
+}
@@ -1,24 +1,50 @@
 package com.github.shiropluginanalysisbilibili.plugins;
 
 import cn.hutool.extra.spring.SpringUtil;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.github.shiropluginanalysisbilibili.utils.BotUtils;
 import com.github.shiropluginanalysisbilibili.utils.FileUtil;
 import com.github.shiropluginanalysisbilibili.cache.ExpiringCache;
+import com.github.shiropluginanalysisbilibili.cache.MetadataCache;
+import com.github.shiropluginanalysisbilibili.cache.TempStorage;
+import com.github.shiropluginanalysisbilibili.cache.VideoCache;
 import com.github.shiropluginanalysisbilibili.config.PluginConfig;
-import com.github.shiropluginanalysisbilibili.utils.BiliUtils;
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.github.shiropluginanalysisbilibili.dto.ApiResult;
+import com.github.shiropluginanalysisbilibili.dto.ArticleInfo;
+import com.github.shiropluginanalysisbilibili.dto.DynamicInfo;
+import com.github.shiropluginanalysisbilibili.dto.LiveRoomInfo;
+import com.github.shiropluginanalysisbilibili.dto.SeasonInfo;
+import com.github.shiropluginanalysisbilibili.dto.VideoInfo;
+import com.github.shiropluginanalysisbilibili.download.RangedDownloader;
+import com.github.shiropluginanalysisbilibili.download.StreamSelector;
+import com.github.shiropluginanalysisbilibili.executor.ApiRateLimiter;
+import com.github.shiropluginanalysisbilibili.executor.ParseExecutor;
+import com.github.shiropluginanalysisbilibili.executor.SingleFlight;
+import com.github.shiropluginanalysisbilibili.http.CachingDns;
+import com.github.shiropluginanalysisbilibili.http.HttpClients;
+import com.github.shiropluginanalysisbilibili.metrics.PipelineMetrics;
+import com.github.shiropluginanalysisbilibili.mux.FfmpegScheduler;
+import com.github.shiropluginanalysisbilibili.mux.FragmentedMp4Muxer;
+import com.github.shiropluginanalysisbilibili.mux.SegmentIndex;
+import com.github.shiropluginanalysisbilibili.mux.UnsupportedMediaException;
+import com.github.shiropluginanalysisbilibili.utils.BiliApiDecoder;
+import com.github.shiropluginanalysisbilibili.utils.BiliLink;
+import com.github.shiropluginanalysisbilibili.utils.BiliLinkExtractor;
+import com.github.shiropluginanalysisbilibili.utils.BiliMessageRenderer;
+import com.github.shiropluginanalysisbilibili.utils.CqCode;
+import com.github.shiropluginanalysisbilibili.utils.LinkPrefilter;
+import com.github.shiropluginanalysisbilibili.utils.MiniAppLinkExtractor;
+import com.github.shiropluginanalysisbilibili.utils.ShortLinkResolver;
 import com.mikuac.shiro.annotation.MessageHandlerFilter;
 import com.mikuac.shiro.common.utils.MsgUtils;
+import com.mikuac.shiro.common.utils.ShiroUtils;
 import com.mikuac.shiro.core.Bot;
 import com.mikuac.shiro.core.BotPlugin;
 import com.mikuac.shiro.dto.event.message.GroupMessageEvent;
 import com.mikuac.shiro.enums.MsgTypeEnum;
-import okhttp3.HttpUrl;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Dns;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -28,12 +54,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,7 +83,6 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisBilibiliPlugin.class);
 
-    private  final Gson gson = new Gson();
     // 最终版正则：融合了宽泛触发和精确捕获
 // 修改 AnalysisBilibiliPlugin.java 的第 50-54 行
 
@@ -59,29 +95,143 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
                     // `|` 或，后面是宽泛的关键词，用于确保即使URL不标准也能触发 find()
                     "|b23\\.tv|bili(22|23|33|2233)\\.cn|\\.bilibili\\.com|QQ小程序(?:&amp;#93;|&#93;|])哔哩哔哩";
 
+    // 包可见，供 src/jmh 中的基准测试使用
+    static final Pattern TRIGGER_PATTERN = Pattern.compile(REGEX, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
 
-    // 用于存放最近已完成解析的URL，实现10秒内防重复解析
+
+    // 用于存放各群最近已完成解析的URL，实现冷却时间内防重复解析
     private final ExpiringCache recentlyCompletedUrls;
-    // 用于防止同一个URL被并发处理的锁集合
-    private final Set<String> processingUrls = ConcurrentHashMap.newKeySet();
+    // 同一个URL的并发解析只请求一次API，结果分发给所有等待的群
+    private final SingleFlight<String, String> renderFlight = new SingleFlight<>();
+    // 同一个视频的并发请求只下载一次
+    private final SingleFlight<String, VideoCache.Handle> videoFlight = new SingleFlight<>();
     private final PluginConfig pluginConfig;
 
     private final ObjectMapper mapper;
 
+    /**
+     * B 站 API 请求使用的客户端
+     */
     private final OkHttpClient client;
 
+    /**
+     * 视频、音频下载使用的客户端
+     */
+    private final OkHttpClient downloadClient;
+
+    /**
+     * 解析执行器，关闭异步模式时为 null，所有处理在事件线程上同步完成
+     */
+    private final ParseExecutor parseExecutor;
+
+    /**
+     * B 站 API 响应缓存，关闭缓存时为 null
+     */
+    private final MetadataCache<ApiResult<?>> metadataCache;
+
+    /**
+     * 合并后视频的磁盘缓存，关闭缓存或初始化失败时为 null，视频发送后直接删除
+     */
+    private final VideoCache videoCache;
+    private final TempStorage tempStorage;
+
+    /**
+     * 音视频分段并行下载器
+     */
+    private final RangedDownloader downloader;
+
+    /**
+     * 按目标大小选择视频流与音频流
+     */
+    private final StreamSelector streamSelector;
+
+    /**
+     * 按群覆盖的视频目标大小
+     */
+    private final Map<Long, Long> groupVideoBudgets;
+
+    /**
+     * ffmpeg 合并任务调度器，限制同时运行的 ffmpeg 进程数
+     */
+    private final FfmpegScheduler ffmpegScheduler;
+
+    /**
+     * b23.tv 短链解析器，解析结果持久化在临时目录中
+     */
+    private final ShortLinkResolver shortLinkResolver;
+
+    /**
+     * B 站 API 客户端限流器，未启用时为 null
+     */
+    private final ApiRateLimiter apiRateLimiter;
+
+    /**
+     * 解析流程各阶段的耗时与结果统计
+     */
+    private final PipelineMetrics metrics;
+
     private final static String PLUGIN_NAME = "analysis-bilibili";
 
+    /**
+     * 合并转发消息中显示的发送者昵称
+     */
+    private final static String FORWARD_NICKNAME = "B站解析";
+
+    /**
+     * 多个解析结果拼成一条消息时使用的分隔线
+     */
+    private final static String MULTI_LINK_SEPARATOR = "──────────";
+
+    /**
+     * 下载视频时请求的清晰度，80 为 1080P
+     */
+    private final static int VIDEO_QN = 80;
+
     public AnalysisBilibiliPlugin() {
         super();
         logger.info("{} 正在加载...", this.getClass().getSimpleName());
         Environment env = SpringUtil.getBean(Environment.class);
         ObjectMapper objectMapper = SpringUtil.getBean(ObjectMapper.class);
         mapper = objectMapper != null ? objectMapper : new ObjectMapper();
-        OkHttpClient httpClient = SpringUtil.getBean(OkHttpClient.class);
-        client = httpClient != null ? httpClient : new OkHttpClient.Builder().build();
         pluginConfig = PluginConfig.getFromEnv(env, PLUGIN_NAME);
-        this.recentlyCompletedUrls = new ExpiringCache(pluginConfig.getReanalysisTimeSeconds());
+        // 宿主的客户端只作为模板，API 请求与视频下载各自派生一个独立的连接池与调度器
+        OkHttpClient httpClient = SpringUtil.getBean(OkHttpClient.class);
+        OkHttpClient baseClient = httpClient != null ? httpClient : new OkHttpClient.Builder().build();
+        CachingDns dns = new CachingDns(Dns.SYSTEM, pluginConfig.getHttpDnsCacheTtlSeconds());
+        client = HttpClients.api(baseClient, dns, pluginConfig);
+        downloadClient = HttpClients.download(baseClient, dns, pluginConfig);
+        HttpClients.warmUp(client, pluginConfig.getHttpApiWarmUpUrls());
+        HttpClients.warmUp(downloadClient, pluginConfig.getHttpDownloadWarmUpUrls());
+        this.recentlyCompletedUrls = new ExpiringCache(pluginConfig.getReanalysisTimeSeconds(),
+                pluginConfig.getReanalysisCacheMaxEntries());
+        this.parseExecutor = pluginConfig.getAsyncEnable()
+                ? new ParseExecutor(pluginConfig.getAsyncMaxConcurrency(), pluginConfig.getAsyncQueueCapacity(),
+                ParseExecutor.RejectPolicy.of(pluginConfig.getAsyncRejectPolicy()))
+                : null;
+        this.metadataCache = pluginConfig.getMetaCacheEnable()
+                ? new MetadataCache<>(pluginConfig.getMetaCacheMaxEntries(), pluginConfig.getMetaCacheMaxBytes(),
+                pluginConfig.getMetaCacheStaleSeconds())
+                : null;
+        this.videoCache = createVideoCache(pluginConfig);
+        this.tempStorage = new TempStorage(Path.of(pluginConfig.getTmpPath()), pluginConfig.getTempQuotaBytes(),
+                pluginConfig.getTempSweepIntervalSec());
+        this.downloader = new RangedDownloader(downloadClient, this::buildHttpRequest, pluginConfig.getDownloadConnections(),
+                pluginConfig.getDownloadChunkBytes(), pluginConfig.getDownloadMaxRetries(),
+                pluginConfig.getDownloadHedgeDelayMs(), pluginConfig.getDownloadHedgeMinBytesPerSec(),
+                pluginConfig.getHttpDownloadMaxRequestsPerHost());
+        this.streamSelector = new StreamSelector(pluginConfig.getVideoCodecPreference());
+        this.groupVideoBudgets = StreamSelector.parseGroupBudgets(pluginConfig.getVideoSizeBudgetGroups());
+        this.ffmpegScheduler = new FfmpegScheduler(pluginConfig.getFfmpegMaxConcurrency(),
+                pluginConfig.getFfmpegTimeoutSeconds());
+        this.shortLinkResolver = new ShortLinkResolver(client, Path.of(pluginConfig.getTmpPath(), "short-links.tsv"),
+                pluginConfig.getShortLinkCacheMaxEntries());
+        this.apiRateLimiter = pluginConfig.getApiRateLimitEnable()
+                ? new ApiRateLimiter(pluginConfig.getApiRatePerSecond(), pluginConfig.getApiRateBurst(),
+                pluginConfig.getApiMaxConcurrency(), pluginConfig.getApiQueueTimeoutMillis(),
+                pluginConfig.getApiBackoffMaxSeconds())
+                : null;
+        this.metrics = PipelineMetrics.create(SpringUtil::getBean, pluginConfig.getMetricsLogIntervalSeconds());
+        registerGauges();
         logger.info("{} 配置信息: {}", pluginConfig, this.getClass().getSimpleName());
         logger.info("{}} 加载完成", this.getClass().getSimpleName());
     }
@@ -99,338 +249,343 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
             return MESSAGE_IGNORE;
         }
 
+        // 绝大多数消息与 B 站无关，先用不分配内存的关键字扫描快速排除，不创建任何 Matcher
+        if (!LinkPrefilter.mayContainLink(event.getMessage())) {
+            return MESSAGE_IGNORE;
+        }
+
+        List<String> urlsToParse;
         try {
-            String msgText = event.getMessage();
-            String urlToParse = null; // 3. 定义一个变量，用于存放最终待解析的纯净URL
-
-            // ========================= 核心改造区域 开始 =========================
-
-            // 4. 优先判断是否为QQ小程序 (JSON CQ码)
-            if (msgText.trim().startsWith("[CQ:json")) {
-                logger.debug("检测到JSON CQ码，尝试作为QQ小程序进行解析...");
-
-                // 使用你的工具类将CQ码字符串解析为JsonObject
-                JsonObject cqJsonObj = BotUtils.parseCQToJsonObject(msgText);
-
-                // 检查解析是否成功，并逐层深入获取qqdocurl
-                if (cqJsonObj != null && cqJsonObj.has("data")) {
-                    JsonObject dataObj = cqJsonObj.getAsJsonObject("data");
-
-                    // QQ小程序的数据本身又是一个内嵌的JSON字符串，需要再次解析
-                    if (dataObj.has("data")) {
-                        String innerJsonStr = dataObj.get("data").getAsString();
-                        try {
-                            // 使用Gson解析内嵌的JSON字符串
-                            JsonObject innerData = gson.fromJson(innerJsonStr, JsonObject.class);
-
-                            // 安全地逐层获取 'qqdocurl'
-                            JsonElement metaEl = innerData.get("meta");
-                            if (metaEl != null && metaEl.isJsonObject()) {
-                                JsonElement detailEl = metaEl.getAsJsonObject().get("detail_1");
-                                if (detailEl != null && detailEl.isJsonObject()) {
-                                    JsonElement urlEl = detailEl.getAsJsonObject().get("qqdocurl");
-                                    if (urlEl != null && !urlEl.isJsonNull()) {
-                                        urlToParse = urlEl.getAsString();
-                                        logger.info("从QQ小程序中成功提取到URL: {}", urlToParse);
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            logger.warn("解析QQ小程序内嵌JSON失败", e);
-                        }
-                    }
-                }
+            urlsToParse = detectLinks(event.getMessage(), Math.max(1, pluginConfig.getMultiLinkMaxCount()));
+        } catch (Exception ex) {
+            logger.error("识别链接出错", ex);
+            return MESSAGE_IGNORE;
+        }
+        if (urlsToParse.isEmpty()) {
+            return MESSAGE_IGNORE;
+        }
 
-                if (urlToParse == null) {
-                    logger.warn("这是一个QQ小程序，但未能成功提取bilibili链接。");
-                    return MESSAGE_IGNORE;
-                }
+        long groupId = event.getGroupId();
+        // 事件线程只负责识别链接，后续的网络请求、下载与合并交给解析执行器
+        if (parseExecutor != null) {
+            parseExecutor.submit("group=" + groupId + " urls=" + urlsToParse, () -> processLinks(bot, groupId, urlsToParse));
+        } else {
+            processLinks(bot, groupId, urlsToParse);
+        }
+        return MESSAGE_IGNORE;
+    }
 
-            } else {
-                // 5. 如果不是JSON CQ码，则执行原有的纯文本链接匹配逻辑
-                // 使用最终版正则表达式
-                Pattern patternTrigger = Pattern.compile(REGEX, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-                Matcher matcher = patternTrigger.matcher(msgText);
-
-                // 我们需要循环查找，因为一条消息里可能既有关键词又有真正的链接
-                while (matcher.find()) {
-                    // 关键：只关心捕获组1是否捕获到了内容
-                    String captured = matcher.group(1);
-
-                    // 如果 group(1) 不为 null，说明我们精确匹配到了需要的 URL 或 ID
-                    if (captured != null && !captured.isEmpty()) {
-                        urlToParse = captured;
-                        break; // 找到第一个就跳出循环
-                    }
-                }
+    /**
+     * 从消息中识别出所有待解析的链接或 ID（去重，最多 max 个），只做字符串处理，不发起任何网络请求
+     *
+     * @param msgText 原始消息
+     * @param max     最多识别的链接数
+     * @return 待解析的纯净 URL 或 ID，没有可解析的内容时返回空列表
+     */
+    private List<String> detectLinks(String msgText, int max) {
+        String urlToParse = null; // 定义一个变量，用于存放最终待解析的纯净URL
+
+        // 优先判断是否为QQ小程序 (JSON CQ码)
+        if (CqCode.startsWith(msgText, "json")) {
+            logger.debug("检测到JSON CQ码，尝试作为QQ小程序进行解析...");
 
-                // 如果循环结束后 urlToParse 仍然是 null，说明只匹配到了关键词，没有可解析的内容
-                if (urlToParse == null) {
-                    // 匹配到了关键词但没有有效链接/ID，跳过
-                    logger.debug("消息触发了关键词，但未找到可解析的URL或ID。");
-                    return MESSAGE_IGNORE;
+            // QQ小程序的数据本身又是一个内嵌的JSON字符串，直接在 CQ 码参数上流式读取 meta.detail_1.qqdocurl
+            long start = metrics.start();
+            try {
+                urlToParse = MiniAppLinkExtractor.extract(msgText);
+                if (urlToParse != null) {
+                    logger.info("从QQ小程序中成功提取到URL: {}", urlToParse);
                 }
+            } catch (Exception e) {
+                logger.warn("解析QQ小程序内嵌JSON失败", e);
             }
+            metrics.record(PipelineMetrics.Stage.MINI_APP, PipelineMetrics.NO_TYPE, start, urlToParse != null);
 
-            // ========================= 核心改造区域 结束 =========================
+            if (urlToParse == null) {
+                logger.warn("这是一个QQ小程序，但未能成功提取bilibili链接。");
+                return List.of();
+            }
+            return List.of(urlToParse);
+        }
 
-            // 6. 后续所有操作都基于我们提取出的纯净URL (urlToParse)
+        // 如果不是JSON CQ码，则执行原有的纯文本链接匹配逻辑
+        // 使用最终版正则表达式
+        long start = metrics.start();
+        Matcher matcher = TRIGGER_PATTERN.matcher(msgText);
 
-            // 先尝试处理短链接 b23
-            if (urlToParse.toLowerCase().contains("b23.tv") || urlToParse.toLowerCase().contains("bili23.cn")) {
-                try {
-                    String expanded = expandShortLink(urlToParse); // 直接展开提取出的URL
-                    if (expanded != null && !expanded.isEmpty()) {
-                        urlToParse = expanded; // 更新为展开后的长链接
-                    }
-                } catch (Exception e) {
-                    logger.debug("短链接展开失败: {}", e.getMessage());
-                }
-            }
+        // 我们需要循环查找，因为一条消息里可能既有关键词又有真正的链接，也可能有多个链接
+        Set<String> urls = new LinkedHashSet<>();
+        while (urls.size() < max && matcher.find()) {
+            // 关键：只关心捕获组1是否捕获到了内容
+            String captured = matcher.group(1);
 
-            // 使用BiliUtils从纯净URL中提取信息
-            String[] extracted = BiliUtils.extract(urlToParse);
-            String type = extracted[0];
-            String api = extracted[1];
-            String cvid = extracted[2];
-            logger.debug("解析结果 type={} api={}", type, api);
-            if (type == null || api == null) {
-                // 没有可解析的类型
-                return MESSAGE_IGNORE;
+            // 如果 group(1) 不为 null，说明我们精确匹配到了需要的 URL 或 ID
+            if (captured != null && !captured.isEmpty()) {
+                urls.add(captured);
             }
+        }
 
-            long groupId = event.getGroupId();
-            String dedupKey = api; // 使用api作为URL的唯一标识
-            // 1. 检查是否在10秒冷却时间内
-            if (recentlyCompletedUrls.get(dedupKey)) {
-                logger.info("URL在冷却时间内，忽略重复解析: {}", dedupKey);
-                return MESSAGE_IGNORE;
-            }
+        metrics.record(PipelineMetrics.Stage.TRIGGER, PipelineMetrics.NO_TYPE, start, !urls.isEmpty());
 
-            // 2. 检查是否正在被处理，并尝试加锁
-            // processingUrls.add() 是一个原子操作，如果元素已存在，返回false
-            if (!processingUrls.add(dedupKey)) {
-                logger.info("URL正在被其它线程处理，忽略本次请求: {}", dedupKey);
-                return MESSAGE_IGNORE;
-            }
+        // 如果循环结束后仍然没有链接，说明只匹配到了关键词，没有可解析的内容
+        if (urls.isEmpty()) {
+            // 匹配到了关键词但没有有效链接/ID，跳过
+            logger.debug("消息触发了关键词，但未找到可解析的URL或ID。");
+        }
+        return new ArrayList<>(urls);
+    }
 
-            try {
+    /**
+     * 一个链接的解析结果
+     *
+     * @param link 识别出的链接
+     * @param api  API 地址
+     * @param msg  组织好的回复文本
+     */
+    private record Rendered(BiliLink link, String api, String msg) {
+    }
 
-                // 调用 API 并组织返回文本
-                String msg = parseAndFormat(type, api, cvid);
-                if (msg != null && !msg.isEmpty()) {
-                    // 发送文本到群
-                    bot.sendGroupMsg(groupId, msg, false);
-                } else {
-                    return MESSAGE_IGNORE;
+    /**
+     * 处理一条消息中识别出的所有链接：短链展开、并行调用 API，解析结果合并为一次发送，最后逐个发送视频。
+     * 异步模式下运行在解析执行器的工作线程上。
+     *
+     * @param bot         机器人
+     * @param groupId     群号
+     * @param urlsToParse 识别出的纯净 URL 或 ID
+     */
+    private void processLinks(Bot bot, long groupId, List<String> urlsToParse) {
+        // 同一条消息中不同写法的同一链接只解析一次
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        // 已开始处理的链接，无论成功还是失败都要开启冷却
+        Set<String> claimed = ConcurrentHashMap.newKeySet();
+        try {
+            List<Rendered> results = new ArrayList<>();
+            if (urlsToParse.size() == 1 || parseExecutor == null) {
+                for (String url : urlsToParse) {
+                    results.add(render(groupId, url, seen, claimed));
                 }
+            } else {
+                List<Callable<Rendered>> tasks = new ArrayList<>();
+                for (String url : urlsToParse) {
+                    tasks.add(() -> render(groupId, url, seen, claimed));
+                }
+                results = parseExecutor.invokeAll(tasks);
+            }
+            results.removeIf(r -> r == null || r.msg() == null || r.msg().isEmpty());
+            if (results.isEmpty()) {
+                return;
+            }
+
+            // 发送文本到群，多个链接只发送一次
+            sendRendered(bot, groupId, results);
 
-                // 如果是视频类型且配置允许，下载视频并发送
-                if (pluginConfig.getAnalysisVideoSend() && "video".equals(type)) {
-                    File file = downloadVideo(api);
-                    if (file != null) {
-                        logger.info("下载到视频，准备发送: {}", file.getAbsolutePath());
-                        String videoMsg = MsgUtils.builder()
-                                .video(FileUtil.getFileUrlPrefix() + file.getAbsolutePath(), Strings.EMPTY)
-                                .build();
-                        bot.sendGroupMsg(groupId, videoMsg, false);
-                        if (file.exists()) {
-                            boolean deleted = file.delete();
-                            if (!deleted) {
-                                logger.warn("下载后删除临时视频文件失败: {}", file.getAbsolutePath());
-                            }
-                        }
+            // 如果是视频类型且配置允许，下载视频并发送
+            if (pluginConfig.getAnalysisVideoSend()) {
+                for (Rendered rendered : results) {
+                    if ("video".equals(rendered.link().type())) {
+                        sendVideo(bot, groupId, rendered.api());
                     }
                 }
-            } finally {
-                // 3. 无论处理成功还是失败，都要在 finally 块中释放锁，并开启冷却计时
-                logger.debug("URL处理完成，释放锁并开始冷却计时: {}", dedupKey);
-                processingUrls.remove(dedupKey); // 释放处理锁
-                recentlyCompletedUrls.set(dedupKey); // 添加到“最近完成”缓存，开始10秒计时
             }
-
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         } catch (Exception ex) {
             logger.error("解析出错", ex);
+        } finally {
+            // 无论处理成功还是失败，都开启本群的冷却计时
+            for (String cooldownKey : claimed) {
+                logger.debug("URL处理完成，开始冷却计时: {}", cooldownKey);
+                recentlyCompletedUrls.set(cooldownKey);
+            }
         }
-        return MESSAGE_IGNORE;
     }
 
-    private String parseAndFormat(String type, String apiUrl, String cvid) {
-        try {
-            JsonNode root = httpGetJson(apiUrl);
-           logger.debug("AnalysisBilibiliPlugin 解析 json 内容: {}", root.toPrettyString());
-           logger.debug("AnalysisBilibiliPlugin 解析到的类型={} ", type);
-            if (!pluginConfig.getSkipVideoAnalysis() && "video".equals(type)) {
-                JsonNode data = root.path("data");
-                if (data.isMissingNode() || data.isNull()) {
-                    return null;
-                }
-                String title = data.path("title").asText("");
-                long aid = data.path("aid").asLong(0L);
-                String vurl = "https://www.bilibili.com/video/av" + aid;
-                StringBuilder sb = new StringBuilder();
-                sb.append("标题：").append(title).append("\n");
-                sb.append("链接：").append(vurl).append("\n");
-                JsonNode stat = data.path("stat");
-                if (!stat.isMissingNode()) {
-                    sb.append("播放：").append(BiliUtils.handleNum(stat.path("view").asLong(0L))).append(" | ");
-                    sb.append("弹幕：").append(BiliUtils.handleNum(stat.path("danmaku").asLong(0L))).append(" | ");
-                    sb.append("点赞：").append(BiliUtils.handleNum(stat.path("like").asLong(0L))).append("\n");
-                }
-                String desc = data.path("desc").asText("");
-                if (desc != null && !desc.isEmpty()) {
-                    String[] lines = desc.split("\n");
-                    int limit = Math.min(lines.length, 3);
-                    sb.append("简介：");
-                    for (int i = 0; i < limit; i++) {
-                        sb.append(lines[i]).append(" ");
-                    }
-                    if (lines.length > 3) {
-                        sb.append("……");
-                    }
-                    sb.append("\n");
-                }
-                MsgUtils msg = MsgUtils.builder().text(sb.toString());
-                if (pluginConfig.getAnalysisDisplayImage()) {
-                    String picSrc = data.path("pic").asText("");
-                    msg.img(BiliUtils.resizeImage(picSrc, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                }
-                return msg.build();
-            } else if ("bangumi".equals(type)) {
-                JsonNode res = root.path("result");
-                if (res.isMissingNode()) {
-                    return null;
-                }
-
-                String title = res.path("title").asText("");
-                String vurl = res.has("media_id") ? "https://www.bilibili.com/bangumi/media/md" + res.path("media_id").asText() : "https://www.bilibili.com/";
-                StringBuilder sb = new StringBuilder();
-                sb.append("番剧：").append(title).append("\n");
-                sb.append("链接：").append(vurl).append("\n");
-                String evaluate = res.path("evaluate").asText("");
-                if (!evaluate.isEmpty()) {
-                    sb.append("简介：").append(evaluate).append("\n");
-                }
-                MsgUtils msg = MsgUtils.builder().text(sb.toString());
-                if (pluginConfig.getAnalysisDisplayImage()) {
-                    String picSrc = res.path("cover").asText("");
-                    msg.img(BiliUtils.resizeImage(picSrc, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                }
-                return msg.build();
-            } else if ("live".equals(type)) {
-                JsonNode data = root.path("data");
-                if (data.isMissingNode()) {
-                    return null;
-                }
-                JsonNode room = data.path("room_info");
-                String title = room.path("title").asText("");
-                String roomId = room.path("room_id").asText("");
-                String uname = data.path("anchor_info").path("base_info").path("uname").asText("");
-                long online = room.path("online").asLong(0L);
-                StringBuilder sb = new StringBuilder();
-                sb.append("直播：").append(title).append("\n");
-                sb.append("主播：").append(uname).append(" | ");
-                sb.append("人气：").append(BiliUtils.handleNum(online)).append("\n");
-                sb.append("链接：https://live.bilibili.com/").append(roomId).append("\n");
-                MsgUtils msg = MsgUtils.builder().text(sb.toString());
-                if (pluginConfig.getAnalysisDisplayImage()) {
-                    String picSrc = room.path("cover").asText("");
-                    msg.img(BiliUtils.resizeImage(picSrc, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                }
-                return msg.build();
-            } else if ("article".equals(type)) {
-                JsonNode data = root.path("data");
-                if (data.isMissingNode()) {
-                    return null;
-                }
-                String title = data.path("title").asText("");
-                String author = data.path("author_name").asText("");
-                long view = data.path("stats").path("view").asLong(0L);
-                StringBuilder sb = new StringBuilder();
-                sb.append("标题：").append(title).append("\n");
-                sb.append("作者：").append(author).append("\n");
-                sb.append("阅读：").append(BiliUtils.handleNum(view)).append("\n");
-                if (cvid != null) {
-                    sb.append("链接：https://www.bilibili.com/read/cv").append(cvid).append("\n");
-                }
-                MsgUtils msg = MsgUtils.builder().text(sb.toString());
-                if (pluginConfig.getAnalysisDisplayImage()) {
-                    String picSrc = data.path("cover").asText("");
-                    msg.img(BiliUtils.resizeImage(picSrc, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                }
-                return msg.build();
-            } else if ("dynamic".equals(type)) {
-                JsonNode data = root.path("data").path("item");
-                if (data.isMissingNode()) {
-                    JsonNode maybe = root.path("data");
-                    if (!maybe.isMissingNode()) {
-                        data = maybe;
-                    }
-                }
-                if (data.isMissingNode()) {
-                    return null;
+    /**
+     * 解析单个链接：短链展开、冷却检查、调用 API 并组织返回文本
+     *
+     * @return 解析结果，链接无法识别、重复或处于冷却期时返回 null
+     */
+    private Rendered render(long groupId, String urlToParse, Set<String> seen, Set<String> claimed) {
+        // 先尝试处理短链接 b23
+        if (urlToParse.toLowerCase().contains("b23.tv") || urlToParse.toLowerCase().contains("bili23.cn")) {
+            try {
+                String shortUrl = urlToParse;
+                String expanded = metrics.time(PipelineMetrics.Stage.SHORT_LINK, PipelineMetrics.NO_TYPE,
+                        () -> expandShortLink(shortUrl)); // 直接展开提取出的URL
+                if (expanded != null && !expanded.isEmpty()) {
+                    urlToParse = expanded; // 更新为展开后的长链接
                 }
+            } catch (Exception e) {
+                logger.debug("短链接展开失败: {}", e.getMessage());
+            }
+        }
 
-                MsgUtils msgBuilder = MsgUtils.builder();
+        // 从纯净URL中识别链接种类与 ID
+        long extractStart = metrics.start();
+        BiliLink link = BiliLinkExtractor.extract(urlToParse);
+        metrics.record(PipelineMetrics.Stage.EXTRACT, PipelineMetrics.NO_TYPE, extractStart, link != null);
+        logger.debug("解析结果 link={}", link);
+        if (link == null) {
+            // 没有可解析的类型
+            return null;
+        }
+        if (!seen.add(link.key())) {
+            // 同一条消息中已经解析过
+            metrics.count(PipelineMetrics.Outcome.DEDUP, link.type());
+            return null;
+        }
 
-                // 取 major
-                JsonNode major = data.path("modules").path("module_dynamic").path("major");
-                String majorType = major.path("type").asText("");
+        // 冷却按群区分，避免其它群在冷却期内发送同一链接时收不到回复
+        String cooldownKey = groupId + ":" + link.key();
+        if (recentlyCompletedUrls.get(cooldownKey)) {
+            logger.info("URL在冷却时间内，忽略重复解析: {}", cooldownKey);
+            metrics.count(PipelineMetrics.Outcome.COOLDOWN, link.type());
+            return null;
+        }
+        claimed.add(cooldownKey);
+
+        // 冷却期外才需要拼接 API 地址
+        String type = link.type();
+        String api = link.apiUrl();
+        String cvid = link.kind() == BiliLink.Kind.ARTICLE ? link.id() : null;
+        // 同一链接的并发请求只会调用一次，结果分发给每个群
+        long renderStart = metrics.start();
+        String msg = null;
+        try {
+            msg = renderFlight.execute(api, () -> parseAndFormat(type, api, cvid));
+            metrics.count(msg != null ? PipelineMetrics.Outcome.SUCCESS : PipelineMetrics.Outcome.FAILURE, type);
+            return new Rendered(link, api, msg);
+        } catch (Exception e) {
+            // 单个链接失败不影响同一条消息中的其它链接
+            logger.error("解析出错: {}", api, e);
+            metrics.count(PipelineMetrics.Outcome.FAILURE, type);
+            return null;
+        } finally {
+            // 失败的耗时同样计入，超时等慢失败才能在分布中体现
+            metrics.record(PipelineMetrics.Stage.RENDER, type, renderStart, msg != null);
+        }
+    }
 
-                // ==========================================================
-                //              【1】图片动态  MAJOR_TYPE_DRAW
-                // ==========================================================
-                if ("MAJOR_TYPE_DRAW".equals(majorType)) {
+    /**
+     * 发送解析结果：单个链接直接发送；多个链接按配置合并为一条转发消息，或用分隔线拼成一条消息
+     */
+    private void sendRendered(Bot bot, long groupId, List<Rendered> results) throws Exception {
+        if (results.size() == 1) {
+            metrics.run(PipelineMetrics.Stage.SEND, "text", () -> bot.sendGroupMsg(groupId, results.get(0).msg(), false));
+            return;
+        }
+        List<String> contents = new ArrayList<>(results.size());
+        for (Rendered rendered : results) {
+            contents.add(rendered.msg());
+        }
+        if (pluginConfig.getMultiLinkForward()) {
+            List<Map<String, Object>> nodes = ShiroUtils.generateForwardMsg(bot.getSelfId(), FORWARD_NICKNAME, contents);
+            metrics.run(PipelineMetrics.Stage.SEND, "forward", () -> bot.sendGroupForwardMsg(groupId, nodes));
+        } else {
+            String joined = String.join("\n" + MULTI_LINK_SEPARATOR + "\n", contents);
+            metrics.run(PipelineMetrics.Stage.SEND, "text", () -> bot.sendGroupMsg(groupId, joined, false));
+        }
+    }
 
-                    JsonNode items = major.path("draw").path("items");
-                    if (pluginConfig.getAnalysisDisplayImage()) {
-                        for (JsonNode item : items) {
-                            String src = item.path("src").asText("");
-                            msgBuilder.img(BiliUtils.resizeImage(src, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                        }
-                    }
+    /**
+     * 下载视频并发送；并发请求共享同一次下载，全部发送完毕后才释放文件
+     */
+    private void sendVideo(Bot bot, long groupId, String api) throws Exception {
+        long budget = videoBudget(groupId);
+        // 目标大小不同的群选出的流不同，不能共享同一次下载
+        boolean leader = videoFlight.execute(api + "#" + budget, () -> downloadVideo(api, budget), handle -> {
+            if (handle != null) {
+                File file = handle.file();
+                logger.info("下载到视频，准备发送: {}", file.getAbsolutePath());
+                String videoMsg = MsgUtils.builder()
+                        .video(FileUtil.getFileUrlPrefix() + file.getAbsolutePath(), Strings.EMPTY)
+                        .build();
+                metrics.run(PipelineMetrics.Stage.SEND, "video", () -> bot.sendGroupMsg(groupId, videoMsg, false));
+            }
+        }, VideoCache.Handle::close);
+        if (!leader) {
+            logger.info("视频已由其它请求下载，共享结果: {}", api);
+        }
+    }
 
-                    String dynamicId = data.path("id_str").asText("");
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("动态\n");
-                    sb.append("链接：https://t.bilibili.com/").append(dynamicId).append("\n");
+    /**
+     * 群的视频目标大小，未单独配置时使用全局配置
+     */
+    private long videoBudget(long groupId) {
+        return groupVideoBudgets.getOrDefault(groupId, pluginConfig.getVideoSizeBudgetBytes());
+    }
 
-                    msgBuilder.text(sb.toString());
-                    return msgBuilder.build();
-                }
+    /**
+     * 注册进行中任务数等瞬时值
+     */
+    private void registerGauges() {
+        metrics.gauge("render_in_flight", renderFlight::inFlight);
+        metrics.gauge("video_in_flight", videoFlight::inFlight);
+        metrics.gauge("temp_jobs", tempStorage::activeJobs);
+        metrics.gauge("temp_bytes", tempStorage::usedBytes);
+        metrics.gauge("ffmpeg_queued", () -> ffmpegScheduler.stats().queued());
+        metrics.gauge("ffmpeg_running", () -> ffmpegScheduler.stats().running());
+        if (parseExecutor != null) {
+            metrics.gauge("parse_queue", parseExecutor::getQueueSize);
+            metrics.gauge("parse_active", parseExecutor::getActiveCount);
+        }
+        if (apiRateLimiter != null) {
+            metrics.gauge("api_waiting", () -> apiRateLimiter.states().stream().mapToInt(ApiRateLimiter.State::waiting).sum());
+        }
+    }
 
-                // ==========================================================
-                //              【2】图文动态  MAJOR_TYPE_ARTICLE
-                // ==========================================================
-                else if ("MAJOR_TYPE_ARTICLE".equals(majorType)) {
-
-                    JsonNode article = major.path("article");
-                    String content = article.path("desc").asText("");
-                    String title = article.path("title").asText("");
-                    String label = article.path("label").asText("");
-
-                    ArrayNode covers = article.withArray("covers");
-                    if (pluginConfig.getAnalysisDisplayImage()) {
-                        for (JsonNode cover : covers) {
-                            String picSrc = cover.asText("");
-                            msgBuilder.img(BiliUtils.resizeImage(picSrc, pluginConfig.getImagesSize(), pluginConfig.getCoverImagesSize(), true));
-                        }
-                    }
+    private static VideoCache createVideoCache(PluginConfig config) {
+        if (!config.getVideoCacheEnable()) {
+            return null;
+        }
+        try {
+            return new VideoCache(Path.of(config.getTmpPath(), "cache"), config.getVideoCacheMaxBytes(),
+                    VideoCache.Policy.of(config.getVideoCachePolicy()));
+        } catch (IOException e) {
+            logger.warn("初始化视频缓存失败，视频将在发送后删除", e);
+            return null;
+        }
+    }
 
-                    String dynamicId = data.path("id_str").asText("");
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("标题：").append(title).append("\n");
-                    sb.append("动态：").append(content).append("...").append("\n");
-                    sb.append("链接：https://t.bilibili.com/").append(dynamicId).append("\n");
-                    sb.append("阅读量：").append(label).append("\n");
+    /**
+     * 插件卸载时停止解析执行器，等待进行中的任务结束
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (parseExecutor != null) {
+            parseExecutor.shutdown(30, TimeUnit.SECONDS);
+        }
+        if (metadataCache != null) {
+            metadataCache.shutdown();
+        }
+        downloader.shutdown();
+        ffmpegScheduler.shutdown();
+        tempStorage.shutdown();
+        shortLinkResolver.flush();
+        HttpClients.shutdown(client);
+        HttpClients.shutdown(downloadClient);
+        metrics.shutdown();
+        recentlyCompletedUrls.clear();
+    }
 
-                    msgBuilder.text(sb.toString());
-                    return msgBuilder.build();
-                }
-                // ==========================================================
-                //              其他未处理类型（保证不崩溃）
-                // ==========================================================
-                return null;
+    private String parseAndFormat(String type, String apiUrl, String cvid) {
+        try {
+           logger.debug("AnalysisBilibiliPlugin 解析到的类型={} ", type);
+            if (!pluginConfig.getSkipVideoAnalysis() && "video".equals(type)) {
+                VideoInfo data = fetchInfo(type, apiUrl, BiliApiDecoder.VIDEO).data();
+                return data == null ? null : BiliMessageRenderer.video(data, pluginConfig);
+            } else if ("bangumi".equals(type)) {
+                SeasonInfo res = fetchInfo(type, apiUrl, BiliApiDecoder.SEASON).data();
+                return res == null ? null : BiliMessageRenderer.bangumi(res, pluginConfig);
+            } else if ("live".equals(type)) {
+                LiveRoomInfo room = fetchInfo(type, apiUrl, BiliApiDecoder.LIVE_ROOM).data();
+                return room == null ? null : BiliMessageRenderer.live(room, pluginConfig);
+            } else if ("article".equals(type)) {
+                ArticleInfo data = fetchInfo(type, apiUrl, BiliApiDecoder.ARTICLE).data();
+                return data == null ? null : BiliMessageRenderer.article(data, cvid, pluginConfig);
+            } else if ("dynamic".equals(type)) {
+                DynamicInfo data = fetchInfo(type, apiUrl, BiliApiDecoder.DYNAMIC).data();
+                return data == null ? null : BiliMessageRenderer.dynamic(data, pluginConfig);
             }
         } catch (Exception e) {
             logger.error("解析 API 失败 url=" + apiUrl, e);
@@ -440,22 +595,64 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
     }
 
 
-    private File downloadVideo(String apiUrl) {
+    /**
+     * 获取视频文件，优先使用磁盘缓存；超出时长限制的视频只获取开头的预览片段
+     *
+     * @param apiUrl      视频信息 API 地址
+     * @param budgetBytes 视频的目标大小
+     * @return 视频文件的持有句柄，用完需关闭；无法下载时返回 null
+     */
+    private VideoCache.Handle downloadVideo(String apiUrl, long budgetBytes) {
         try {
-            JsonNode root = httpGetJson(apiUrl);
-            JsonNode data = root.path("data");
-            if (data.isMissingNode() || data.isNull()) {
+            VideoInfo data = fetchInfo("video", apiUrl, BiliApiDecoder.VIDEO).data();
+            if (data == null) {
                 return null;
             }
-            long duration = data.get("duration").asLong(); // 秒
-            long cid = data.get("cid").asLong();
-
-            if (duration <= 600) {
-                String bvid = data.get("bvid").asText();
-                File video = downloadBiliVideo(bvid, cid, duration);
-
-                return video;
+            long duration = data.duration(); // 秒
+            long cid = data.cid();
+            String bvid = data.bvid();
+
+            long limit = pluginConfig.getDurationSecLimit();
+            boolean preview = limit > 0 && duration > limit;
+            if (preview && !pluginConfig.getPreviewEnable()) {
+                logger.debug("视频时长 {}s 超出限制 {}s，不下载: {}", duration, limit, bvid);
+                return null;
+            }
+            int previewSeconds = pluginConfig.getPreviewSeconds();
+            String cacheKey = preview
+                    ? VideoCache.previewKey(bvid, cid, VIDEO_QN, budgetBytes, previewSeconds)
+                    : VideoCache.key(bvid, cid, VIDEO_QN, budgetBytes);
+            if (videoCache != null) {
+                VideoCache.Handle cached = videoCache.acquire(cacheKey);
+                if (cached != null) {
+                    logger.info("命中视频缓存: {}", cacheKey);
+                    return cached;
+                }
+            }
+            // 每次下载使用独立的工作目录，成功或失败都会删除
+            TempStorage.Job job = tempStorage.open(bvid);
+            try {
+                File video = metrics.time(PipelineMetrics.Stage.DOWNLOAD, preview ? "preview" : "video",
+                        () -> preview
+                                ? downloadBiliPreview(job, bvid, cid, previewSeconds, budgetBytes)
+                                : downloadBiliVideo(job, bvid, cid, duration, budgetBytes));
+                if (video == null) {
+                    job.close();
+                    return null;
+                }
+                if (videoCache == null) {
+                    // 不经过缓存时由句柄在发送完成后删除工作目录
+                    return job.handOver(video);
+                }
+                VideoCache.Handle handle = videoCache.publish(cacheKey, video);
+                job.close();
+                return handle;
+            } catch (Exception e) {
+                job.close();
+                throw e;
             }
+        } catch (TempStorage.QuotaExceededException e) {
+            logger.warn("临时目录空间不足，跳过视频下载 apiUrl={}: {}", apiUrl, e.getMessage());
             return null;
         } catch (Exception e) {
             logger.error("下载视频失败 apiUrl=" + apiUrl, e);
@@ -465,14 +662,89 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
 
 
 
+    /**
+     * 带缓存的 API 请求，按类型使用不同的缓存有效期；响应以流的方式解码为对应的记录，不构建 JSON 树
+     *
+     * @param type    解析类型：video、bangumi、live、article、dynamic
+     * @param url     API 地址
+     * @param decoder 数据部分的解码器，同一 url 总是使用同一个解码器
+     * @return 解码后的响应
+     */
+    private <T> ApiResult<T> fetchInfo(String type, String url, BiliApiDecoder.DataDecoder<T> decoder) throws Exception {
+        return metrics.time(PipelineMetrics.Stage.FETCH, type, () -> loadInfo(type, url, decoder));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ApiResult<T> loadInfo(String type, String url, BiliApiDecoder.DataDecoder<T> decoder) throws Exception {
+        // 番剧接口的数据在 result 字段中
+        String dataField = "bangumi".equals(type) ? "result" : "data";
+        if (metadataCache == null) {
+            return httpGetInfo(url, dataField, decoder);
+        }
+        return (ApiResult<T>) metadataCache.get(url, cacheTtlSeconds(type), () -> {
+            ApiResult<?> result = httpGetInfo(url, dataField, decoder);
+            // 业务错误（code != 0）不缓存，下次重新请求
+            if (result.code() != 0) {
+                return MetadataCache.Weighted.<ApiResult<?>>uncached(result);
+            }
+            return new MetadataCache.Weighted<ApiResult<?>>(result, result.bytes());
+        });
+    }
+
+    private long cacheTtlSeconds(String type) {
+        return switch (type) {
+            case "video" -> pluginConfig.getMetaCacheVideoTtlSeconds();
+            case "bangumi" -> pluginConfig.getMetaCacheBangumiTtlSeconds();
+            case "live" -> pluginConfig.getMetaCacheLiveTtlSeconds();
+            case "article" -> pluginConfig.getMetaCacheArticleTtlSeconds();
+            case "dynamic" -> pluginConfig.getMetaCacheDynamicTtlSeconds();
+            default -> 0L;
+        };
+    }
+
     public JsonNode httpGetJson(String url) throws IOException {
         Request request = buildHttpRequest(url);
-        try (Response resp = client.newCall(request).execute()) {
+        try (ApiRateLimiter.Permit permit = acquireApiPermit(url);
+             Response resp = client.newCall(request).execute()) {
             if (!resp.isSuccessful()) {
+                permit.onHttpStatus(resp.code());
                 throw new IOException("HTTP error " + resp.code() + " for " + url);
             }
-            String body = resp.body().string();
-            return mapper.readTree(body);
+            JsonNode root = mapper.readTree(resp.body().byteStream());
+            permit.onApiCode(root.path("code").asInt(0));
+            return root;
+        }
+    }
+
+    private <T> ApiResult<T> httpGetInfo(String url, String dataField, BiliApiDecoder.DataDecoder<T> decoder) throws IOException {
+        Request request = buildHttpRequest(url);
+        try (ApiRateLimiter.Permit permit = acquireApiPermit(url);
+             Response resp = client.newCall(request).execute()) {
+            if (!resp.isSuccessful()) {
+                permit.onHttpStatus(resp.code());
+                throw new IOException("HTTP error " + resp.code() + " for " + url);
+            }
+            try (JsonParser parser = mapper.getFactory().createParser(resp.body().byteStream())) {
+                ApiResult<T> result = BiliApiDecoder.decode(parser, dataField, decoder);
+                permit.onApiCode(result.code());
+                logger.debug("AnalysisBilibiliPlugin 解析结果: {}", result);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 获取 B 站 API 的限流许可，未启用限流时直接放行
+     */
+    private ApiRateLimiter.Permit acquireApiPermit(String url) throws IOException {
+        if (apiRateLimiter == null) {
+            return ApiRateLimiter.Permit.NONE;
+        }
+        try {
+            return apiRateLimiter.acquire(url);
+        } catch (ApiRateLimiter.RejectedException e) {
+            logger.warn("{}，限流状态: {}", e.getMessage(), apiRateLimiter.states());
+            throw e;
         }
     }
 
@@ -485,99 +757,334 @@ public class AnalysisBilibiliPlugin extends BotPlugin {
                 .build();
     }
 
-    public String expandShortLink(String shortUrl) throws IOException {
-        Request request = new Request.Builder()
-                .url(shortUrl)
-                .header("User-Agent", "Mozilla/5.0 (compatible; BiliAnalysisBot/1.0)")
-                .build();
-        try (Response resp = client.newCall(request).execute()) {
-            // OkHttp 默认跟随重定向；最终 URL 可以从 resp.request().url()
-            HttpUrl finalUrl = resp.request().url();
-            return finalUrl.toString();
-        }
+    public String expandShortLink(String shortUrl) throws Exception {
+        // 只读取重定向地址，不下载页面；结果按短码缓存
+        return shortLinkResolver.resolve(shortUrl);
     }
 
 
 
     /**
      * 下载 B 站视频
+     * @param job         本次下载的工作目录，中间文件与结果文件都写在其中
      * @param bvid
      * @param cid
      * @param durationSec
+     * @param budgetBytes 目标大小，按此选择清晰度与编码
      * @return
      * @throws Exception
      */
-    public File downloadBiliVideo(String bvid, long cid, long durationSec) throws Exception {
+    public File downloadBiliVideo(TempStorage.Job job, String bvid, long cid, long durationSec, long budgetBytes)
+            throws Exception {
         // 限时判断
         if (pluginConfig.getDurationSecLimit() > 0 && durationSec > pluginConfig.getDurationSecLimit()) {
             return null;
         }
 
-        String url = "https://api.bilibili.com/x/player/playurl?bvid=" +
-                bvid + "&cid=" + cid + "&qn=80&fnval=16";
+        File outputFile = job.file(bvid + ".mp4");
 
-        JsonNode root = httpGetJson(url).get("data");
-        JsonNode dash = root.get("dash");
+        // 短视频优先尝试音视频合一的 MP4，直接下载为最终文件，不需要合并
+        if (pluginConfig.getProgressiveEnable() && durationSec <= pluginConfig.getProgressiveMaxDurationSec()
+                && downloadProgressive(bvid, cid, budgetBytes, outputFile)) {
+            return outputFile;
+        }
 
-        String videoUrl = dash.get("video").get(0).get("baseUrl").asText();
-        String audioUrl = dash.get("audio").get(0).get("baseUrl").asText();
+        StreamSelector.Selection selection = selectStreams(bvid, fetchDash(bvid, cid), durationSec, budgetBytes);
+        List<String> videoUrls = streamUrls(selection.video().stream());
+        List<String> audioUrls = streamUrls(selection.audio().stream());
 
-        File tempDir = new File(pluginConfig.getTmpPath());
-        tempDir.mkdirs();
+        File videoFile = job.file(bvid + "_v.mp4");
+        File audioFile = job.file(bvid + "_a.mp3");
 
-        File videoFile = new File(tempDir, bvid + "_v.mp4");
-        File audioFile = new File(tempDir, bvid + "_a.mp3");
-        File outputFile = new File(tempDir, bvid + ".mp4");
+        if (pluginConfig.getDownloadStreamingMux() && "java".equalsIgnoreCase(pluginConfig.getMuxEngine())
+                && streamingMux(videoUrls, audioUrls, outputFile)) {
+            return outputFile;
+        }
 
-        downloadResource(videoUrl, videoFile);
-        downloadResource(audioUrl, audioFile);
+        // 视频流与音频流同时分段下载，主 CDN 过慢或失败时切换到备用地址
+        downloader.downloadAll(List.of(
+                new RangedDownloader.Target(videoUrls, videoFile),
+                new RangedDownloader.Target(audioUrls, audioFile)));
 
-        mergeAv(videoFile, audioFile, outputFile);
+        metrics.run(PipelineMetrics.Stage.MERGE, pluginConfig.getMuxEngine(),
+                () -> mergeAv(videoFile, audioFile, outputFile, durationSec));
 
         return outputFile;
     }
 
     /**
-     * 下载音视频资源
-     * @param url
-     * @param out
-     * @throws IOException
+     * 下载 B 站视频开头的预览片段：按 DASH 流的分段索引（sidx）算出前 seconds 秒对应的字节区间，
+     * 视频流与音频流都只下载这一段，再混流为一个短视频
+     * @param job         本次下载的工作目录
+     * @param bvid
+     * @param cid
+     * @param seconds     预览时长，按分段边界向上取整
+     * @param budgetBytes 目标大小，按预览时长估算各条流的大小
+     * @return 预览文件；流中没有分段索引时返回 null
+     * @throws Exception
      */
-    private void downloadResource(String url, File out) throws IOException {
-        Request req =  buildHttpRequest(url);
-        try (Response resp = client.newCall(req).execute()) {
-            if (!resp.isSuccessful()) {
-                throw new IOException("HTTP " + resp.code());
+    public File downloadBiliPreview(TempStorage.Job job, String bvid, long cid, int seconds, long budgetBytes)
+            throws Exception {
+        File outputFile = job.file(bvid + "_preview.mp4");
+        File videoFile = job.file(bvid + "_pv.m4s");
+        File audioFile = job.file(bvid + "_pa.m4s");
+
+        StreamSelector.Selection selection = selectStreams(bvid, fetchDash(bvid, cid), seconds, budgetBytes);
+        try {
+            double videoSeconds = downloadPrefix(selection.video().stream(), seconds, videoFile);
+            double audioSeconds = downloadPrefix(selection.audio().stream(), seconds, audioFile);
+            // 两路的分段边界不同，以较短的一路为准
+            double clipSeconds = Math.min(videoSeconds, audioSeconds);
+            logger.debug("预览片段 {}: 视频 {}B/{}s 音频 {}B/{}s", bvid,
+                    videoFile.length(), videoSeconds, audioFile.length(), audioSeconds);
+            metrics.run(PipelineMetrics.Stage.MERGE, "preview",
+                    () -> mergePreview(videoFile, audioFile, outputFile, clipSeconds));
+            return outputFile;
+        } catch (UnsupportedMediaException e) {
+            logger.info("无法截取预览片段，不发送视频: {} {}", bvid, e.getMessage());
+            return null;
+        } finally {
+            // 结果文件等待发送期间，中间文件不再占用空间
+            Files.deleteIfExists(videoFile.toPath());
+            Files.deleteIfExists(audioFile.toPath());
+        }
+    }
+
+    /**
+     * 请求 DASH 取流接口
+     *
+     * @return data.dash 节点
+     */
+    private JsonNode fetchDash(String bvid, long cid) throws Exception {
+        String url = "https://api.bilibili.com/x/player/playurl?bvid=" +
+                bvid + "&cid=" + cid + "&qn=" + VIDEO_QN + "&fnval=16";
+
+        JsonNode root = metrics.time(PipelineMetrics.Stage.FETCH, "playurl", () -> httpGetJson(url)).get("data");
+        return root.get("dash");
+    }
+
+    /**
+     * 按码率估算各条流的大小，选择目标大小内首选编码的最高清晰度
+     */
+    private StreamSelector.Selection selectStreams(String bvid, JsonNode dash, long durationSec, long budgetBytes)
+            throws IOException {
+        StreamSelector.Selection selection = dash == null ? null : streamSelector.select(dash, durationSec, budgetBytes);
+        if (selection == null || selection.audio() == null) {
+            throw new IOException("取流结果中没有可用的音视频流: " + bvid);
+        }
+        if (selection.withinBudget()) {
+            logger.debug("选择视频流 {}: {}", bvid, selection);
+        } else {
+            logger.info("没有目标大小内的视频流，使用最小的组合 {}: {}", bvid, selection);
+        }
+        return selection;
+    }
+
+    /**
+     * 下载 DASH 流开头覆盖 seconds 秒的部分：先取回文件开头的初始化段与分段索引，再按索引取回前几个子分段，
+     * 两次请求的区间首尾相接，写入同一个文件
+     *
+     * @return 下载部分的媒体时长（秒）
+     */
+    private double downloadPrefix(JsonNode stream, int seconds, File out) throws IOException {
+        long[] indexRange = indexRange(stream);
+        if (indexRange == null) {
+            throw new UnsupportedMediaException("流中没有分段索引 indexRange");
+        }
+        List<String> urls = streamUrls(stream);
+        Files.deleteIfExists(out.toPath());
+        downloader.downloadRange(urls, 0, indexRange[1], out);
+
+        byte[] box = new byte[(int) (indexRange[1] - indexRange[0] + 1)];
+        try (RandomAccessFile raf = new RandomAccessFile(out, "r")) {
+            raf.seek(indexRange[0]);
+            raf.readFully(box);
+        }
+        SegmentIndex.Prefix prefix = SegmentIndex.parse(box, indexRange[1] + 1).prefix(seconds);
+        if (prefix.end() > indexRange[1] + 1) {
+            downloader.downloadRange(urls, indexRange[1] + 1, prefix.end() - 1, out);
+        }
+        return prefix.seconds();
+    }
+
+    /**
+     * 取出 DASH 流中 sidx 的字节区间，接口中两种命名都可能出现
+     *
+     * @return [起始, 结束]（含），没有或格式错误时返回 null
+     */
+    private static long[] indexRange(JsonNode stream) {
+        String range = stream.path("SegmentBase").path("indexRange").asText("");
+        if (range.isEmpty()) {
+            range = stream.path("segment_base").path("index_range").asText("");
+        }
+        int dash = range.indexOf('-');
+        if (dash <= 0) {
+            return null;
+        }
+        try {
+            long from = Long.parseLong(range.substring(0, dash).trim());
+            long to = Long.parseLong(range.substring(dash + 1).trim());
+            // sidx 通常只有几百字节，过大的区间视为异常数据
+            return to >= from && to - from < 1024 * 1024 ? new long[]{from, to} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 合并预览片段，优先使用内置混流器按片段时长截断，无法处理时交给 ffmpeg 合并已下载的部分
+     */
+    private void mergePreview(File video, File audio, File output, double clipSeconds) throws Exception {
+        if ("java".equalsIgnoreCase(pluginConfig.getMuxEngine())) {
+            try {
+                FragmentedMp4Muxer.mux(video, audio, output, clipSeconds);
+                return;
+            } catch (UnsupportedMediaException e) {
+                logger.info("内置混流器无法处理该预览片段，回退到 ffmpeg: {}", e.getMessage());
             }
-            try (var in = resp.body().byteStream();
-                 var outStream = new FileOutputStream(out)) {
-                in.transferTo(outStream);
+        }
+        mergeAvWithFfmpeg(video, audio, output, (long) Math.ceil(clipSeconds));
+    }
+
+    /**
+     * 下载音视频合一的 MP4（html5 平台的 durl 流）
+     *
+     * @return false 表示没有符合要求的单文件流或下载失败，需要走 DASH 下载再合并的流程
+     */
+    private boolean downloadProgressive(String bvid, long cid, long budgetBytes, File output) {
+        String url = "https://api.bilibili.com/x/player/playurl?bvid=" +
+                bvid + "&cid=" + cid + "&qn=" + VIDEO_QN + "&fnval=1&platform=html5&high_quality=1";
+        JsonNode data;
+        try {
+            data = metrics.time(PipelineMetrics.Stage.FETCH, "playurl_mp4", () -> httpGetJson(url)).path("data");
+        } catch (Exception e) {
+            logger.debug("获取单文件流失败，改用 DASH: {}", e.getMessage());
+            return false;
+        }
+        JsonNode durl = data.path("durl");
+        int quality = data.path("quality").asInt(0);
+        // 分成多段的流需要拼接，不走快速路径
+        if (durl.size() != 1 || !data.path("format").asText("").startsWith("mp4")) {
+            logger.debug("没有单文件 MP4 流，改用 DASH: {} format={} 分段数={}", bvid, data.path("format").asText(""), durl.size());
+            return false;
+        }
+        if (quality < pluginConfig.getProgressiveMinQn()) {
+            logger.debug("单文件流清晰度 {} 低于 {}，改用 DASH: {}", quality, pluginConfig.getProgressiveMinQn(), bvid);
+            return false;
+        }
+        long size = durl.get(0).path("size").asLong(0);
+        if (budgetBytes > 0 && size > budgetBytes) {
+            logger.debug("单文件流大小 {} 超出目标大小 {}，改用 DASH: {}", size, budgetBytes, bvid);
+            return false;
+        }
+        try {
+            downloader.downloadAll(List.of(new RangedDownloader.Target(streamUrls(durl.get(0)), output)));
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(output.toPath());
+            } catch (IOException ignored) {
+                // 下一步的 DASH 下载会覆盖该文件
+            }
+            logger.info("单文件流下载失败，改用 DASH: {} {}", bvid, e.getMessage());
+            return false;
+        }
+        logger.debug("单文件流下载完成: {} 清晰度 {} 大小 {}", bvid, quality, size);
+        return true;
+    }
+
+    /**
+     * 边下载边混流：音视频流按顺序交给内置混流器，直接写出最终文件，不产生中间文件。
+     * 耗时记入 merge 阶段（类型 java_stream），其中包含下载时间；无法处理而回退时记为失败
+     * @return false 表示内置混流器无法处理该视频，需要走先下载再合并的流程
+     */
+    private boolean streamingMux(List<String> videoUrls, List<String> audioUrls, File output) throws IOException {
+        long start = metrics.start();
+        boolean success = false;
+        int window = pluginConfig.getDownloadStreamWindow();
+        try (InputStream video = downloader.openStream(videoUrls, window);
+             InputStream audio = downloader.openStream(audioUrls, window);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 256 * 1024)) {
+            FragmentedMp4Muxer.mux(video, audio, out);
+            success = true;
+        } catch (UnsupportedMediaException e) {
+            Files.deleteIfExists(output.toPath());
+            logger.info("内置混流器无法处理该视频，改为下载后合并: {}", e.getMessage());
+            return false;
+        } catch (IOException e) {
+            Files.deleteIfExists(output.toPath());
+            throw e;
+        } finally {
+            metrics.record(PipelineMetrics.Stage.MERGE, "java_stream", start, success);
+        }
+        logger.debug("边下载边混流完成: {} 耗时 {}ms", output.getName(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * 取出 DASH 流或 durl 分段的主地址与全部备用地址，接口中两种命名都可能出现
+     */
+    private static List<String> streamUrls(JsonNode stream) {
+        Set<String> urls = new LinkedHashSet<>();
+        for (String field : new String[]{"baseUrl", "base_url", "url"}) {
+            String url = stream.path(field).asText("");
+            if (!url.isEmpty()) {
+                urls.add(url);
+            }
+        }
+        for (String field : new String[]{"backupUrl", "backup_url"}) {
+            for (JsonNode backup : stream.path(field)) {
+                String url = backup.asText("");
+                if (!url.isEmpty()) {
+                    urls.add(url);
+                }
             }
         }
+        return new ArrayList<>(urls);
     }
 
+    /**
+     * 合并音视频文件，优先使用内置混流器，无法处理时回退到 ffmpeg
+     * @param video
+     * @param audio
+     * @param output
+     * @param durationSec
+     * @throws Exception
+     */
+    private void mergeAv(File video, File audio, File output, long durationSec) throws Exception {
+        if ("java".equalsIgnoreCase(pluginConfig.getMuxEngine())) {
+            try {
+                long start = System.currentTimeMillis();
+                FragmentedMp4Muxer.mux(video, audio, output);
+                logger.debug("内置混流器合并完成: {} 耗时 {}ms", output.getName(), System.currentTimeMillis() - start);
+                // 结果文件等待发送期间，中间文件不再占用空间；失败时由工作目录统一删除
+                Files.deleteIfExists(video.toPath());
+                Files.deleteIfExists(audio.toPath());
+                return;
+            } catch (UnsupportedMediaException e) {
+                logger.info("内置混流器无法处理该视频，回退到 ffmpeg: {}", e.getMessage());
+            }
+        }
+        mergeAvWithFfmpeg(video, audio, output, durationSec);
+    }
 
     /**
-     * 使用 ffmpeg 合并音视频文件
+     * 使用 ffmpeg 合并音视频文件，由调度器控制并发数与超时
      * @param video
      * @param audio
      * @param output
+     * @param durationSec
      * @throws Exception
      */
-    private void mergeAv(File video, File audio, File output) throws Exception {
-        ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg", "-y",
-                "-i", video.getAbsolutePath(),
-                "-i", audio.getAbsolutePath(),
-                "-c:v", "copy",
-                "-c:a", "aac",
-                output.getAbsolutePath()
-        );
-        pb.inheritIO(); // 直接把 ffmpeg 输出绑定到控制台
-        Process process = pb.start();
-        process.waitFor();
-        // 合并完成后，删除单独的音频文件和视频文件
-        video.deleteOnExit();
-        audio.deleteOnExit();
+    private void mergeAvWithFfmpeg(File video, File audio, File output, long durationSec) throws Exception {
+        try {
+            ffmpegScheduler.merge(video, audio, output, durationSec);
+        } catch (IOException e) {
+            Files.deleteIfExists(output.toPath());
+            throw e;
+        }
+        // 合并完成后，删除单独的音频文件和视频文件；失败时由工作目录统一删除
+        Files.deleteIfExists(video.toPath());
+        Files.deleteIfExists(audio.toPath());
+        logger.debug("ffmpeg 调度器状态: {}", ffmpegScheduler.stats());
     }
 }
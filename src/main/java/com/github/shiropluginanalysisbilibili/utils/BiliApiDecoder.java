@@ -0,0 +1,382 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.shiropluginanalysisbilibili.dto.ApiResult;
+import com.github.shiropluginanalysisbilibili.dto.ArticleInfo;
+import com.github.shiropluginanalysisbilibili.dto.DynamicInfo;
+import com.github.shiropluginanalysisbilibili.dto.LiveRoomInfo;
+import com.github.shiropluginanalysisbilibili.dto.SeasonInfo;
+import com.github.shiropluginanalysisbilibili.dto.VideoInfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * B 站接口响应的流式解码器：用 JsonParser 顺序读取响应，只取出用到的字段，其余子树直接跳过，
+ * 不构建 JsonNode 树。
+ * <p>
+ * 字段缺失时与 JsonNode.path(...).asText("") / asLong(0) 的行为一致：字符串为空串，数字为 0。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-15:20
+ */
+public final class BiliApiDecoder {
+
+    /**
+     * 数据部分的解码器，调用时解析器停在数据对象的 START_OBJECT 上，返回时停在对应的 END_OBJECT 上
+     */
+    @FunctionalInterface
+    public interface DataDecoder<T> {
+        T decode(JsonParser p) throws IOException;
+    }
+
+    public static final DataDecoder<VideoInfo> VIDEO = BiliApiDecoder::video;
+    public static final DataDecoder<SeasonInfo> SEASON = BiliApiDecoder::season;
+    public static final DataDecoder<LiveRoomInfo> LIVE_ROOM = BiliApiDecoder::liveRoom;
+    public static final DataDecoder<ArticleInfo> ARTICLE = BiliApiDecoder::article;
+    public static final DataDecoder<DynamicInfo> DYNAMIC = BiliApiDecoder::dynamic;
+
+    private BiliApiDecoder() {}
+
+    /**
+     * 解码一个完整的响应
+     *
+     * @param p         尚未读取任何 token 的解析器
+     * @param dataField 数据所在的字段，大多数接口为 data，番剧接口为 result
+     * @param decoder   数据部分的解码器
+     */
+    public static <T> ApiResult<T> decode(JsonParser p, String dataField, DataDecoder<T> decoder) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(p, "响应不是 JSON 对象");
+        }
+        int code = 0;
+        String message = "";
+        T data = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("code".equals(name)) {
+                code = (int) number(p);
+            } else if ("message".equals(name)) {
+                message = text(p);
+            } else if (dataField.equals(name) && object(p)) {
+                data = decoder.decode(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new ApiResult<>(code, message, data, p.currentLocation().getByteOffset());
+    }
+
+    private static VideoInfo video(JsonParser p) throws IOException {
+        String bvid = "";
+        long aid = 0;
+        long cid = 0;
+        String title = "";
+        String desc = "";
+        String pic = "";
+        long duration = 0;
+        VideoInfo.Stat stat = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "bvid" -> bvid = text(p);
+                case "aid" -> aid = number(p);
+                case "cid" -> cid = number(p);
+                case "title" -> title = text(p);
+                case "desc" -> desc = text(p);
+                case "pic" -> pic = text(p);
+                case "duration" -> duration = number(p);
+                case "stat" -> stat = object(p) ? videoStat(p) : null;
+                default -> p.skipChildren();
+            }
+        }
+        return new VideoInfo(bvid, aid, cid, title, desc, pic, duration, stat);
+    }
+
+    private static VideoInfo.Stat videoStat(JsonParser p) throws IOException {
+        long view = 0;
+        long danmaku = 0;
+        long like = 0;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "view" -> view = number(p);
+                case "danmaku" -> danmaku = number(p);
+                case "like" -> like = number(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new VideoInfo.Stat(view, danmaku, like);
+    }
+
+    private static SeasonInfo season(JsonParser p) throws IOException {
+        String title = "";
+        String mediaId = null;
+        String evaluate = "";
+        String cover = "";
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "title" -> title = text(p);
+                case "media_id" -> mediaId = text(p);
+                case "evaluate" -> evaluate = text(p);
+                case "cover" -> cover = text(p);
+                // 番剧的分集、分季列表体积最大，直接整体跳过
+                default -> p.skipChildren();
+            }
+        }
+        return new SeasonInfo(title, mediaId, evaluate, cover);
+    }
+
+    private static LiveRoomInfo liveRoom(JsonParser p) throws IOException {
+        String title = "";
+        String roomId = "";
+        String uname = "";
+        long online = 0;
+        String cover = "";
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("room_info".equals(name) && object(p)) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    switch (field) {
+                        case "title" -> title = text(p);
+                        case "room_id" -> roomId = text(p);
+                        case "online" -> online = number(p);
+                        case "cover" -> cover = text(p);
+                        default -> p.skipChildren();
+                    }
+                }
+            } else if ("anchor_info".equals(name) && object(p)) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if ("base_info".equals(field) && object(p)) {
+                        uname = field(p, "uname");
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new LiveRoomInfo(title, roomId, uname, online, cover);
+    }
+
+    private static ArticleInfo article(JsonParser p) throws IOException {
+        String title = "";
+        String authorName = "";
+        long view = 0;
+        String cover = "";
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "title" -> title = text(p);
+                case "author_name" -> authorName = text(p);
+                case "stats" -> {
+                    if (object(p)) {
+                        String v = field(p, "view");
+                        view = v.isEmpty() ? 0 : parseLong(v);
+                    }
+                }
+                case "cover" -> cover = text(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new ArticleInfo(title, authorName, view, cover);
+    }
+
+    /**
+     * 动态数据在 data.item 中；没有 item 时数据直接位于 data 下
+     */
+    private static DynamicInfo dynamic(JsonParser p) throws IOException {
+        DynamicInfo item = null;
+        String idStr = "";
+        DynamicInfo major = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "item" -> item = object(p) ? dynamic(p) : null;
+                case "id_str" -> idStr = text(p);
+                case "modules" -> {
+                    if (object(p)) {
+                        major = modules(p);
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        if (item != null) {
+            return item;
+        }
+        if (major == null) {
+            return new DynamicInfo(idStr, "", List.of(), "", "", "", List.of());
+        }
+        return new DynamicInfo(idStr, major.majorType(), major.drawImages(),
+                major.articleTitle(), major.articleDesc(), major.articleLabel(), major.articleCovers());
+    }
+
+    /**
+     * 读取 modules.module_dynamic.major，结果中的 idStr 留空
+     */
+    private static DynamicInfo modules(JsonParser p) throws IOException {
+        DynamicInfo major = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("module_dynamic".equals(name) && object(p)) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if ("major".equals(field) && object(p)) {
+                        major = major(p);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                // 作者、互动数据等模块不需要
+                p.skipChildren();
+            }
+        }
+        return major;
+    }
+
+    private static DynamicInfo major(JsonParser p) throws IOException {
+        String type = "";
+        List<String> drawImages = List.of();
+        String title = "";
+        String desc = "";
+        String label = "";
+        List<String> covers = List.of();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if ("type".equals(name)) {
+                type = text(p);
+            } else if ("draw".equals(name) && object(p)) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    if ("items".equals(field)) {
+                        drawImages = objectArrayField(p, "src");
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else if ("article".equals(name) && object(p)) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    p.nextToken();
+                    switch (field) {
+                        case "title" -> title = text(p);
+                        case "desc" -> desc = text(p);
+                        case "label" -> label = text(p);
+                        case "covers" -> covers = stringArray(p);
+                        default -> p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new DynamicInfo("", type, drawImages, title, desc, label, covers);
+    }
+
+    /**
+     * 当前值为对象时返回 true；否则跳过当前值并返回 false
+     */
+    private static boolean object(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.START_OBJECT) {
+            return true;
+        }
+        p.skipChildren();
+        return false;
+    }
+
+    /**
+     * 读取当前对象中某个字段的文本值，读完整个对象
+     */
+    private static String field(JsonParser p, String wanted) throws IOException {
+        String value = "";
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            if (wanted.equals(name)) {
+                value = text(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 读取对象数组中每个元素的某个字段，例如 items[].src
+     */
+    private static List<String> objectArrayField(JsonParser p, String wanted) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            values.add(object(p) ? field(p, wanted) : "");
+        }
+        return values;
+    }
+
+    private static List<String> stringArray(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            values.add(text(p));
+        }
+        return values;
+    }
+
+    /**
+     * 当前值的文本形式，数字会转为字符串，null、对象与数组返回空串
+     */
+    private static String text(JsonParser p) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return "";
+        }
+        return p.getValueAsString("");
+    }
+
+    /**
+     * 当前值的数字形式，字符串会尝试解析，无法解析时返回 0
+     */
+    private static long number(JsonParser p) throws IOException {
+        if (p.currentToken().isStructStart()) {
+            p.skipChildren();
+            return 0;
+        }
+        return p.getValueAsLong(0);
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+/**
+ * 从消息中识别出的 B 站链接：只保存链接种类与 ID，API 地址在需要时才拼接
+ *
+ * @param kind 链接种类
+ * @param id   ID，BV 号保留 "BV" 前缀，其余为纯数字
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-17-14:00
+ */
+public record BiliLink(Kind kind, String id) {
+
+    /**
+     * 链接种类，声明顺序即识别优先级：同一段文本中出现多种链接时取排在前面的一种
+     */
+    public enum Kind {
+        /**
+         * 视频 BV 号
+         */
+        VIDEO_BV("video"),
+        /**
+         * 视频 AV 号
+         */
+        VIDEO_AV("video"),
+        /**
+         * 番剧单集 ep
+         */
+        BANGUMI_EP("bangumi"),
+        /**
+         * 番剧系列 ss
+         */
+        BANGUMI_SS("bangumi"),
+        /**
+         * 剧集信息 md
+         */
+        BANGUMI_MD("bangumi"),
+        /**
+         * 直播间
+         */
+        LIVE_ROOM("live"),
+        /**
+         * 专栏 cv
+         */
+        ARTICLE("article"),
+        /**
+         * 带 type=2 的动态（分享卡片），id 为 rid
+         */
+        DYNAMIC_RID("dynamic"),
+        /**
+         * 普通动态
+         */
+        DYNAMIC("dynamic");
+
+        private final String type;
+
+        Kind(String type) {
+            this.type = type;
+        }
+
+        /**
+         * 解析类型：video、bangumi、live、article、dynamic
+         */
+        public String type() {
+            return type;
+        }
+    }
+
+    public BiliLink {
+        if (kind == null || id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("kind 与 id 不能为空");
+        }
+    }
+
+    /**
+     * 解析类型：video、bangumi、live、article、dynamic
+     */
+    public String type() {
+        return kind.type();
+    }
+
+    /**
+     * 对应的 API 地址
+     */
+    public String apiUrl() {
+        return switch (kind) {
+            case VIDEO_BV -> "https://api.bilibili.com/x/web-interface/view?bvid=" + id;
+            case VIDEO_AV -> "https://api.bilibili.com/x/web-interface/view?aid=" + id;
+            case BANGUMI_EP -> "https://api.bilibili.com/pgc/view/web/season?ep_id=" + id;
+            case BANGUMI_SS -> "https://api.bilibili.com/pgc/view/web/season?season_id=" + id;
+            case BANGUMI_MD -> "https://api.bilibili.com/pgc/review/user?media_id=" + id;
+            case LIVE_ROOM -> "https://api.live.bilibili.com/xlive/web-room/v1/index/getInfoByRoom?room_id=" + id;
+            case ARTICLE -> "https://api.bilibili.com/x/article/viewinfo?id=" + id + "&mobi_app=pc&from=web";
+            case DYNAMIC_RID -> "https://api.bilibili.com/x/polymer/web-dynamic/v1/detail?rid=" + id + "&type=2";
+            case DYNAMIC -> "https://api.bilibili.com/x/polymer/web-dynamic/v1/detail?id=" + id;
+        };
+    }
+
+    /**
+     * 用作冷却、去重的键，例如 VIDEO_BV:BV1xx411c7mD
+     */
+    public String key() {
+        return kind.name() + ":" + id;
+    }
+}
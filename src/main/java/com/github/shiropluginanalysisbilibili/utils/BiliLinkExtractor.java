@@ -0,0 +1,207 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+/**
+ * 单次扫描的链接识别器：逐字符扫描一遍文本，同时识别所有种类的链接，
+ * 每种只记录最靠前的一处，最后按 {@link BiliLink.Kind} 的优先级取结果。
+ * <p>
+ * 识别规则（区分大小写）：
+ * - BV + 10 位字母或数字
+ * - av / ep / ss / md + 数字
+ * - live.bilibili.com/[blanc/|h5/]数字
+ * - /read/(cv|mobile|native)[/|?id=]数字，或文本以 cv + 数字开头
+ * - (t|m).bilibili.com/数字?...&type=2（同一行内，&amp; 亦可）
+ * - (t|m).bilibili.com/[opus/]数字
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-17-14:20
+ */
+public final class BiliLinkExtractor {
+
+    private static final String BILIBILI_COM = ".bilibili.com/";
+    private static final String LIVE = "live.bilibili.com/";
+    private static final String READ = "/read/";
+
+    private BiliLinkExtractor() {}
+
+    /**
+     * @return 识别出的链接，没有可解析的内容时返回 null
+     */
+    public static BiliLink extract(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        BiliLink.Kind[] kinds = BiliLink.Kind.values();
+        String[] found = new String[kinds.length];
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            switch (text.charAt(i)) {
+                case 'B' -> {
+                    // BV 号优先级最高，找到即可返回
+                    if (i + 12 <= n && text.charAt(i + 1) == 'V' && isAlnum(text, i + 2, 10)) {
+                        return new BiliLink(BiliLink.Kind.VIDEO_BV, text.subSequence(i, i + 12).toString());
+                    }
+                }
+                case 'a' -> prefixedNumber(text, i, 'v', BiliLink.Kind.VIDEO_AV, found);
+                case 'e' -> prefixedNumber(text, i, 'p', BiliLink.Kind.BANGUMI_EP, found);
+                case 's' -> prefixedNumber(text, i, 's', BiliLink.Kind.BANGUMI_SS, found);
+                case 'm' -> {
+                    prefixedNumber(text, i, 'd', BiliLink.Kind.BANGUMI_MD, found);
+                    dynamic(text, i, found);
+                }
+                case 't' -> dynamic(text, i, found);
+                case 'l' -> liveRoom(text, i, found);
+                case '/' -> article(text, i, found);
+                case 'c' -> {
+                    if (i == 0) {
+                        prefixedNumber(text, i, 'v', BiliLink.Kind.ARTICLE, found);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        for (BiliLink.Kind kind : kinds) {
+            String id = found[kind.ordinal()];
+            if (id != null) {
+                return new BiliLink(kind, id);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 两个字母的前缀加数字，例如 av123
+     */
+    private static void prefixedNumber(CharSequence text, int i, char second, BiliLink.Kind kind, String[] found) {
+        if (found[kind.ordinal()] != null || i + 1 >= text.length() || text.charAt(i + 1) != second) {
+            return;
+        }
+        found[kind.ordinal()] = digitsAt(text, i + 2);
+    }
+
+    /**
+     * live.bilibili.com/[blanc/|h5/]数字
+     */
+    private static void liveRoom(CharSequence text, int i, String[] found) {
+        int slot = BiliLink.Kind.LIVE_ROOM.ordinal();
+        if (found[slot] != null || !startsWith(text, i, LIVE)) {
+            return;
+        }
+        int p = i + LIVE.length();
+        found[slot] = firstDigits(text, p, "blanc/", "h5/");
+    }
+
+    /**
+     * /read/(cv|mobile|native)[/|?id=]数字
+     */
+    private static void article(CharSequence text, int i, String[] found) {
+        int slot = BiliLink.Kind.ARTICLE.ordinal();
+        if (found[slot] != null || !startsWith(text, i, READ)) {
+            return;
+        }
+        int p = i + READ.length();
+        for (String name : new String[]{"cv", "mobile", "native"}) {
+            if (startsWith(text, p, name)) {
+                found[slot] = firstDigits(text, p + name.length(), "/", "?id=");
+                return;
+            }
+        }
+    }
+
+    /**
+     * (t|m).bilibili.com/ 开头的动态链接，同时识别 type=2 的分享卡片与普通动态
+     */
+    private static void dynamic(CharSequence text, int i, String[] found) {
+        int rid = BiliLink.Kind.DYNAMIC_RID.ordinal();
+        int plain = BiliLink.Kind.DYNAMIC.ordinal();
+        if (found[rid] != null && found[plain] != null || !startsWith(text, i + 1, BILIBILI_COM)) {
+            return;
+        }
+        int p = i + 1 + BILIBILI_COM.length();
+        String digits = digitsAt(text, p);
+        if (found[rid] == null && digits != null) {
+            int q = p + digits.length();
+            if (q < text.length() && text.charAt(q) == '?' && hasType2(text, q + 1)) {
+                found[rid] = digits;
+            }
+        }
+        if (found[plain] == null) {
+            found[plain] = firstDigits(text, p, "opus/");
+        }
+    }
+
+    /**
+     * 从 from 开始到行尾之间是否有 &type=2 或 &amp;type=2
+     */
+    private static boolean hasType2(CharSequence text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isLineTerminator(c)) {
+                return false;
+            }
+            if (c == '&' && (startsWith(text, i + 1, "type=2") || startsWith(text, i + 1, "amp;type=2"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 先尝试各个可选前缀之后的数字，都不满足时取 p 处的数字
+     */
+    private static String firstDigits(CharSequence text, int p, String... optionalPrefixes) {
+        for (String prefix : optionalPrefixes) {
+            if (startsWith(text, p, prefix)) {
+                String digits = digitsAt(text, p + prefix.length());
+                if (digits != null) {
+                    return digits;
+                }
+            }
+        }
+        return digitsAt(text, p);
+    }
+
+    /**
+     * p 处开始的连续数字，没有数字时返回 null
+     */
+    private static String digitsAt(CharSequence text, int p) {
+        int end = p;
+        while (end < text.length() && isDigit(text.charAt(end))) {
+            end++;
+        }
+        return end > p ? text.subSequence(p, end).toString() : null;
+    }
+
+    private static boolean startsWith(CharSequence text, int p, String prefix) {
+        if (p < 0 || p + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (text.charAt(p + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAlnum(CharSequence text, int p, int count) {
+        for (int k = p; k < p + count; k++) {
+            char c = text.charAt(k);
+            if (!isDigit(c) && !(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * 与正则中 . 不匹配的行结束符保持一致
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
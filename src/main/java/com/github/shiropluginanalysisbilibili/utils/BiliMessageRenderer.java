@@ -0,0 +1,154 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.github.shiropluginanalysisbilibili.config.PluginConfig;
+import com.github.shiropluginanalysisbilibili.dto.ArticleInfo;
+import com.github.shiropluginanalysisbilibili.dto.DynamicInfo;
+import com.github.shiropluginanalysisbilibili.dto.LiveRoomInfo;
+import com.github.shiropluginanalysisbilibili.dto.SeasonInfo;
+import com.github.shiropluginanalysisbilibili.dto.VideoInfo;
+import com.mikuac.shiro.common.utils.MsgUtils;
+
+/**
+ * 把解码后的接口数据组织为回复消息（文本与封面图），不做任何网络请求，
+ * 因此可以脱离插件单独运行（例如基准测试）。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-15:30
+ */
+public final class BiliMessageRenderer {
+
+    private BiliMessageRenderer() {}
+
+    public static String video(VideoInfo data, PluginConfig config) {
+        String vurl = "https://www.bilibili.com/video/av" + data.aid();
+        StringBuilder sb = new StringBuilder();
+        sb.append("标题：").append(data.title()).append("\n");
+        sb.append("链接：").append(vurl).append("\n");
+        VideoInfo.Stat stat = data.stat();
+        if (stat != null) {
+            sb.append("播放：").append(BiliUtils.handleNum(stat.view())).append(" | ");
+            sb.append("弹幕：").append(BiliUtils.handleNum(stat.danmaku())).append(" | ");
+            sb.append("点赞：").append(BiliUtils.handleNum(stat.like())).append("\n");
+        }
+        String desc = data.desc();
+        if (!desc.isEmpty()) {
+            String[] lines = desc.split("\n");
+            int limit = Math.min(lines.length, 3);
+            sb.append("简介：");
+            for (int i = 0; i < limit; i++) {
+                sb.append(lines[i]).append(" ");
+            }
+            if (lines.length > 3) {
+                sb.append("……");
+            }
+            sb.append("\n");
+        }
+        MsgUtils msg = MsgUtils.builder().text(sb.toString());
+        if (config.getAnalysisDisplayImage()) {
+            msg.img(cover(data.pic(), config));
+        }
+        return msg.build();
+    }
+
+    public static String bangumi(SeasonInfo res, PluginConfig config) {
+        String vurl = res.mediaId() != null ? "https://www.bilibili.com/bangumi/media/md" + res.mediaId() : "https://www.bilibili.com/";
+        StringBuilder sb = new StringBuilder();
+        sb.append("番剧：").append(res.title()).append("\n");
+        sb.append("链接：").append(vurl).append("\n");
+        if (!res.evaluate().isEmpty()) {
+            sb.append("简介：").append(res.evaluate()).append("\n");
+        }
+        MsgUtils msg = MsgUtils.builder().text(sb.toString());
+        if (config.getAnalysisDisplayImage()) {
+            msg.img(cover(res.cover(), config));
+        }
+        return msg.build();
+    }
+
+    public static String live(LiveRoomInfo room, PluginConfig config) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("直播：").append(room.title()).append("\n");
+        sb.append("主播：").append(room.uname()).append(" | ");
+        sb.append("人气：").append(BiliUtils.handleNum(room.online())).append("\n");
+        sb.append("链接：https://live.bilibili.com/").append(room.roomId()).append("\n");
+        MsgUtils msg = MsgUtils.builder().text(sb.toString());
+        if (config.getAnalysisDisplayImage()) {
+            msg.img(cover(room.cover(), config));
+        }
+        return msg.build();
+    }
+
+    /**
+     * @param cvid 专栏 ID，为 null 时不附带链接
+     */
+    public static String article(ArticleInfo data, String cvid, PluginConfig config) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("标题：").append(data.title()).append("\n");
+        sb.append("作者：").append(data.authorName()).append("\n");
+        sb.append("阅读：").append(BiliUtils.handleNum(data.view())).append("\n");
+        if (cvid != null) {
+            sb.append("链接：https://www.bilibili.com/read/cv").append(cvid).append("\n");
+        }
+        MsgUtils msg = MsgUtils.builder().text(sb.toString());
+        if (config.getAnalysisDisplayImage()) {
+            msg.img(cover(data.cover(), config));
+        }
+        return msg.build();
+    }
+
+    /**
+     * @return 不支持的动态类型返回 null
+     */
+    public static String dynamic(DynamicInfo data, PluginConfig config) {
+        MsgUtils msgBuilder = MsgUtils.builder();
+        String majorType = data.majorType();
+
+        // ==========================================================
+        //              【1】图片动态  MAJOR_TYPE_DRAW
+        // ==========================================================
+        if ("MAJOR_TYPE_DRAW".equals(majorType)) {
+
+            if (config.getAnalysisDisplayImage()) {
+                for (String src : data.drawImages()) {
+                    msgBuilder.img(cover(src, config));
+                }
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("动态\n");
+            sb.append("链接：https://t.bilibili.com/").append(data.idStr()).append("\n");
+
+            msgBuilder.text(sb.toString());
+            return msgBuilder.build();
+        }
+
+        // ==========================================================
+        //              【2】图文动态  MAJOR_TYPE_ARTICLE
+        // ==========================================================
+        else if ("MAJOR_TYPE_ARTICLE".equals(majorType)) {
+
+            if (config.getAnalysisDisplayImage()) {
+                for (String picSrc : data.articleCovers()) {
+                    msgBuilder.img(cover(picSrc, config));
+                }
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("标题：").append(data.articleTitle()).append("\n");
+            sb.append("动态：").append(data.articleDesc()).append("...").append("\n");
+            sb.append("链接：https://t.bilibili.com/").append(data.idStr()).append("\n");
+            sb.append("阅读量：").append(data.articleLabel()).append("\n");
+
+            msgBuilder.text(sb.toString());
+            return msgBuilder.build();
+        }
+        // ==========================================================
+        //              其他未处理类型（保证不崩溃）
+        // ==========================================================
+        return null;
+    }
+
+    private static String cover(String src, PluginConfig config) {
+        return BiliUtils.resizeImage(src, config.getImagesSize(), config.getCoverImagesSize(), true);
+    }
+}
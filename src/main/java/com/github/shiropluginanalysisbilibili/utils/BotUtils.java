@@ -1,14 +1,10 @@
 package com.github.shiropluginanalysisbilibili.utils;
 
-import com.github.shiropluginanalysisbilibili.dto.MessageSegment;
 import com.google.gson.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author FlanChan (badapple495@outlook.com)
@@ -28,8 +24,6 @@ public final class BotUtils {
     private static final Gson gson = new GsonBuilder()
             .disableHtmlEscaping().create();
 
-    private static final Pattern cqCodePattern = Pattern.compile("\\[CQ:([a-zA-Z0-9_.-]+)((,.*?)*?)\\]");
-
     /**
      * 使用 Gson 将包含CQ码的字符串解析为JSON。
      * - 如果解析结果只有一个消息段，则返回该消息段的JSON对象字符串。
@@ -40,63 +34,7 @@ public final class BotUtils {
      * @return 代表消息段的JSON对象或JSON数组字符串.
      */
     public static String parseCQtoJsonStr(String message) {
-        // 如果输入是 null 或空字符串，直接返回空数组
-        if (message == null || message.isEmpty()) {
-            return "[]";
-        }
-
-        List<MessageSegment<?>> segments = new ArrayList<>();
-        Matcher matcher = cqCodePattern.matcher(message);
-        int lastEnd = 0;
-
-        while (matcher.find()) {
-            // 1. 添加在CQ码之前的文本段
-            if (matcher.start() > lastEnd) {
-                String text = message.substring(lastEnd, matcher.start());
-                segments.add(new MessageSegment<>("text", new MessageSegment.TextData(text)));
-            }
-
-            // 2. 处理并添加CQ码段
-            String cqType = matcher.group(1);
-            String paramsStr = matcher.group(2); // 可能为 null
-
-            MessageSegment.CQCodeData cqData = new MessageSegment.CQCodeData();
-            if (paramsStr != null && !paramsStr.isEmpty()) {
-                // 移除前导逗号并分割
-                String[] params = paramsStr.substring(1).split(",");
-                for (String param : params) {
-                    String[] kv = param.split("=", 2);
-                    if (kv.length == 2) {
-                        // 这里对值进行简单的URL解码，因为CQ码中的特殊字符通常是编码的
-                        // 例如, & -> &amp; , -> &#44; [ -> &#91; ] -> &#93;
-                        // 实际的解码逻辑可能需要根据您的CQ码标准进行调整
-                        String decodedValue = kv[1].replace("&amp;", "&")
-                                .replace("&#44;", ",")
-                                .replace("&#91;", "[")
-                                .replace("&#93;", "]");
-                        cqData.put(kv[0], decodedValue);
-                    }
-                }
-            }
-            segments.add(new MessageSegment<>(cqType, cqData));
-
-            lastEnd = matcher.end();
-        }
-
-        // 3. 添加最后一个CQ码之后的任何尾随文本
-        if (lastEnd < message.length()) {
-            String text = message.substring(lastEnd);
-            segments.add(new MessageSegment<>("text", new MessageSegment.TextData(text)));
-        }
-
-        // 4. 根据 segments 的大小决定如何序列化
-        if (segments.size() == 1) {
-            // 如果只有一个元素，直接序列化该对象
-            return gson.toJson(segments.get(0));
-        } else {
-            // 如果有0个或多个元素，序列化整个列表为数组
-            return gson.toJson(segments);
-        }
+        return gson.toJson(parseCQToJson(message));
     }
 
 
@@ -105,64 +43,37 @@ public final class BotUtils {
      * - 如果解析结果只有一个消息段，则返回代表该段的 JsonObject。
      * - 如果解析结果有多个消息段，则返回包含这些段的 JsonArray。
      * - 如果输入为空或无法解析出任何段，则返回一个空的 JsonArray。
+     * 分词见 {@link CqCode}，这里直接构建 JsonObject，不再经过 MessageSegment 与 toJsonTree 的中转。
      *
      * @param message 输入的消息字符串.
      * @return 代表消息段的 JsonObject 或 JsonArray (以 JsonElement 形式)。
      */
     public static JsonElement parseCQToJson(String message) {
-        // 如果输入是 null 或空字符串，直接返回空 JsonArray
-        if (message == null || message.isEmpty()) {
-            return new JsonArray();
-        }
-
-        List<MessageSegment<?>> segments = new ArrayList<>();
-        Matcher matcher = cqCodePattern.matcher(message);
-        int lastEnd = 0;
-
-        while (matcher.find()) {
-            // 1. 添加在CQ码之前的文本段
-            if (matcher.start() > lastEnd) {
-                String text = message.substring(lastEnd, matcher.start());
-                segments.add(new MessageSegment<>("text", new MessageSegment.TextData(text)));
-            }
-
-            // 2. 处理并添加CQ码段
-            String cqType = matcher.group(1);
-            String paramsStr = matcher.group(2);
-
-            MessageSegment.CQCodeData cqData = new MessageSegment.CQCodeData();
-            if (paramsStr != null && !paramsStr.isEmpty()) {
-                String[] params = paramsStr.substring(1).split(",");
-                for (String param : params) {
-                    String[] kv = param.split("=", 2);
-                    if (kv.length == 2) {
-                        // 简单的CQ码解码
-                        String decodedValue = kv[1].replace("&amp;", "&")
-                                .replace("&#44;", ",")
-                                .replace("&#91;", "[")
-                                .replace("&#93;", "]");
-                        cqData.put(kv[0], decodedValue);
-                    }
-                }
-            }
-            segments.add(new MessageSegment<>(cqType, cqData));
-            lastEnd = matcher.end();
+        List<CqCode.Segment> segments = CqCode.parse(message);
+        if (segments.size() == 1) {
+            return toJson(segments.get(0));
         }
-
-        // 3. 添加最后一个CQ码之后的任何尾随文本
-        if (lastEnd < message.length()) {
-            String text = message.substring(lastEnd);
-            segments.add(new MessageSegment<>("text", new MessageSegment.TextData(text)));
+        JsonArray array = new JsonArray(segments.size());
+        for (CqCode.Segment segment : segments) {
+            array.add(toJson(segment));
         }
+        return array;
+    }
 
-        // 4. 根据 segments 的大小决定返回 JsonObject 还是 JsonArray
-        if (segments.size() == 1) {
-            // 如果只有一个元素，将其转换为 JsonElement，然后转为 JsonObject
-            return gson.toJsonTree(segments.get(0));
+    /**
+     * 单个消息段转为 {"type":...,"data":{...}}，文本段的 data 为 {"text":...}
+     */
+    private static JsonObject toJson(CqCode.Segment segment) {
+        JsonObject data = new JsonObject();
+        if (segment.isText()) {
+            data.addProperty("text", segment.text().toString());
         } else {
-            // 如果有0个或多个元素，将整个列表转换为 JsonArray
-            return gson.toJsonTree(segments);
+            segment.params().forEach(data::addProperty);
         }
+        JsonObject json = new JsonObject();
+        json.addProperty("type", segment.type().toString());
+        json.add("data", data);
+        return json;
     }
 
     public static JsonElement parseCQToJson(String message, boolean alwaysArray) {
@@ -0,0 +1,369 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CQ 码分词器：一次扫描把消息切分为文本段与 CQ 码段。
+ * - 段的类型、文本与参数都是原消息上的视图（{@link CharBuffer#wrap(CharSequence, int, int)}），不复制字符
+ * - 参数值只在读取时才反转义（&amp;amp; &amp;#44; &amp;#91; &amp;#93;），没有转义字符时直接返回视图
+ * - 较大的参数值（例如小程序的 JSON）可以通过 {@link Segment#paramReader(String)} 边读边反转义
+ * <p>
+ * 识别规则与原先的正则 {@code \[CQ:([a-zA-Z0-9_.-]+)((,.*?)*?)\]} 一致：类型之后到第一个 ] 为参数，
+ * 中间不能跨行；不满足时 [CQ: 按普通文本处理。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-17:10
+ */
+public final class CqCode {
+
+    private static final String PREFIX = "[CQ:";
+
+    private CqCode() {}
+
+    /**
+     * 切分消息
+     *
+     * @return 按出现顺序排列的消息段，输入为 null 或空串时返回空列表
+     */
+    public static List<Segment> parse(CharSequence message) {
+        if (message == null || message.length() == 0) {
+            return List.of();
+        }
+        List<Segment> segments = new ArrayList<>(4);
+        int n = message.length();
+        int textStart = 0;
+        int i = 0;
+        while (i < n) {
+            int end = message.charAt(i) == '[' ? codeEnd(message, i) : -1;
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (i > textStart) {
+                segments.add(Segment.text(message, textStart, i));
+            }
+            segments.add(Segment.code(message, i, end));
+            i = end;
+            textStart = end;
+        }
+        if (textStart < n) {
+            segments.add(Segment.text(message, textStart, n));
+        }
+        return segments;
+    }
+
+    /**
+     * 去掉开头的空白后，消息是否以指定类型的 CQ 码开头，例如 startsWith(msg, "json")
+     */
+    public static boolean startsWith(CharSequence message, String type) {
+        if (message == null) {
+            return false;
+        }
+        int i = 0;
+        while (i < message.length() && Character.isWhitespace(message.charAt(i))) {
+            i++;
+        }
+        return regionMatches(message, i, PREFIX) && regionMatches(message, i + PREFIX.length(), type);
+    }
+
+    /**
+     * 从 start 处（字符为 [）开始的 CQ 码的结束位置（] 之后），不是合法的 CQ 码时返回 -1
+     */
+    private static int codeEnd(CharSequence s, int start) {
+        if (!regionMatches(s, start, PREFIX)) {
+            return -1;
+        }
+        int i = start + PREFIX.length();
+        int typeStart = i;
+        while (i < s.length() && isTypeChar(s.charAt(i))) {
+            i++;
+        }
+        if (i == typeStart || i >= s.length()) {
+            return -1;
+        }
+        if (s.charAt(i) == ']') {
+            return i + 1;
+        }
+        if (s.charAt(i) != ',') {
+            return -1;
+        }
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ']') {
+                return i + 1;
+            }
+            if (isLineTerminator(c)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 一个消息段；文本段的类型为 text
+     */
+    public static final class Segment {
+
+        private static final CharSequence TEXT = "text";
+
+        private final CharSequence source;
+        /**
+         * CQ 码：类型的起止位置；文本段：文本的起止位置
+         */
+        private final int start;
+        private final int end;
+        /**
+         * CQ 码参数部分的起止位置（不含开头的逗号与结尾的 ]），文本段为 -1
+         */
+        private final int paramsStart;
+        private final int paramsEnd;
+
+        private Segment(CharSequence source, int start, int end, int paramsStart, int paramsEnd) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.paramsStart = paramsStart;
+            this.paramsEnd = paramsEnd;
+        }
+
+        private static Segment text(CharSequence source, int start, int end) {
+            return new Segment(source, start, end, -1, -1);
+        }
+
+        /**
+         * @param start [CQ: 的位置
+         * @param end   ] 之后的位置
+         */
+        private static Segment code(CharSequence source, int start, int end) {
+            int typeStart = start + PREFIX.length();
+            int typeEnd = typeStart;
+            while (isTypeChar(source.charAt(typeEnd))) {
+                typeEnd++;
+            }
+            int paramsStart = source.charAt(typeEnd) == ',' ? typeEnd + 1 : end - 1;
+            return new Segment(source, typeStart, typeEnd, paramsStart, end - 1);
+        }
+
+        public boolean isText() {
+            return paramsStart < 0;
+        }
+
+        public CharSequence type() {
+            return isText() ? TEXT : view(start, end);
+        }
+
+        /**
+         * 类型是否为 type，不创建视图
+         */
+        public boolean is(String type) {
+            return isText() ? "text".equals(type) : end - start == type.length() && regionMatches(source, start, type);
+        }
+
+        /**
+         * 文本段的原始文本，CQ 码段返回 null
+         */
+        public CharSequence text() {
+            return isText() ? view(start, end) : null;
+        }
+
+        /**
+         * 反转义后的参数值，没有该参数时返回 null；没有转义字符时返回原消息上的视图
+         */
+        public CharSequence param(String key) {
+            int at = valueStart(key);
+            if (at < 0) {
+                return null;
+            }
+            int valueEnd = valueEnd(at);
+            for (int i = at; i < valueEnd; i++) {
+                if (source.charAt(i) == '&') {
+                    return unescape(source, at, valueEnd);
+                }
+            }
+            return view(at, valueEnd);
+        }
+
+        /**
+         * 边读边反转义的参数值，没有该参数时返回 null
+         */
+        public Reader paramReader(String key) {
+            int at = valueStart(key);
+            return at < 0 ? null : new UnescapingReader(source, at, valueEnd(at));
+        }
+
+        /**
+         * 以 Map 形式返回全部参数（会复制并反转义每个值）
+         */
+        public Map<String, String> params() {
+            Map<String, String> params = new LinkedHashMap<>();
+            if (isText()) {
+                return params;
+            }
+            int i = paramsStart;
+            while (i < paramsEnd) {
+                int comma = valueEnd(i);
+                int eq = indexOf(source, '=', i, comma);
+                if (eq >= 0) {
+                    params.put(source.subSequence(i, eq).toString(), unescape(source, eq + 1, comma));
+                }
+                i = comma + 1;
+            }
+            return params;
+        }
+
+        /**
+         * 参数 key 的值的起始位置，没有该参数时返回 -1
+         */
+        private int valueStart(String key) {
+            if (isText()) {
+                return -1;
+            }
+            int i = paramsStart;
+            while (i < paramsEnd) {
+                int comma = valueEnd(i);
+                if (comma - i > key.length() && source.charAt(i + key.length()) == '='
+                        && regionMatches(source, i, key)) {
+                    return i + key.length() + 1;
+                }
+                i = comma + 1;
+            }
+            return -1;
+        }
+
+        /**
+         * 从 from 开始的参数在参数部分内的结束位置（下一个逗号或参数部分末尾）
+         */
+        private int valueEnd(int from) {
+            int comma = indexOf(source, ',', from, paramsEnd);
+            return comma < 0 ? paramsEnd : comma;
+        }
+
+        private CharSequence view(int from, int to) {
+            return CharBuffer.wrap(source, from, to);
+        }
+
+        @Override
+        public String toString() {
+            return isText() ? "text:" + text() : source.subSequence(start - PREFIX.length(), paramsEnd + 1).toString();
+        }
+    }
+
+    /**
+     * 按 CQ 码规则反转义 [from, to) 区间
+     */
+    static String unescape(CharSequence s, int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        int i = from;
+        while (i < to) {
+            char c = s.charAt(i);
+            int len = c == '&' ? escapeLength(s, i, to) : 0;
+            if (len > 0) {
+                sb.append(escapedChar(s, i));
+                i += len;
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * i 处（字符为 &amp;）的转义序列长度，不是转义序列时返回 0
+     */
+    private static int escapeLength(CharSequence s, int i, int to) {
+        if (i + 5 <= to && regionMatches(s, i, "&amp;")) {
+            return 5;
+        }
+        if (i + 5 <= to && s.charAt(i + 1) == '#' && s.charAt(i + 4) == ';'
+                && (regionMatches(s, i, "&#44;") || regionMatches(s, i, "&#91;") || regionMatches(s, i, "&#93;"))) {
+            return 5;
+        }
+        return 0;
+    }
+
+    private static char escapedChar(CharSequence s, int i) {
+        if (s.charAt(i + 1) == 'a') {
+            return '&';
+        }
+        return switch (s.charAt(i + 3)) {
+            case '4' -> ',';
+            case '1' -> '[';
+            default -> ']';
+        };
+    }
+
+    /**
+     * 边读边反转义的 Reader，不复制底层字符
+     */
+    private static final class UnescapingReader extends Reader {
+        private final CharSequence source;
+        private final int end;
+        private int pos;
+
+        private UnescapingReader(CharSequence source, int from, int to) {
+            this.source = source;
+            this.pos = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) {
+            if (pos >= end) {
+                return -1;
+            }
+            int n = 0;
+            while (n < len && pos < end) {
+                char c = source.charAt(pos);
+                int escape = c == '&' ? escapeLength(source, pos, end) : 0;
+                if (escape > 0) {
+                    buf[off + n++] = escapedChar(source, pos);
+                    pos += escape;
+                } else {
+                    buf[off + n++] = c;
+                    pos++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            pos = end;
+        }
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence s, int at, String prefix) {
+        if (at < 0 || at + prefix.length() > s.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (s.charAt(at + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTypeChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '.' || c == '-';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
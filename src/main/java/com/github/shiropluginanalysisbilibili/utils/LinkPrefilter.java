@@ -0,0 +1,77 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+/**
+ * 链接识别前的快速预筛：对消息做一次不分配内存的逐字符扫描，
+ * 只有出现 B 站相关的关键字时才交给正则做完整匹配。
+ * <p>
+ * 命中条件（英文字母不区分大小写）是触发正则的超集，因此不会漏掉任何原本能识别的消息：
+ * - bili：bilibili.com、bili2233.cn 等域名
+ * - b23：b23.tv 短链
+ * - bv + 字母或数字：BV 号
+ * - av / cv + 数字：AV 号、专栏号
+ * - 哔哩：QQ 小程序的“哔哩哔哩”标记
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-17-10:10
+ */
+public final class LinkPrefilter {
+
+    private LinkPrefilter() {}
+
+    /**
+     * @return false 表示消息中一定没有可解析的 B 站链接
+     */
+    public static boolean mayContainLink(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        // 所有关键字至少两个字符，最后一个字符不需要作为起点
+        int last = text.length() - 1;
+        for (int i = 0; i < last; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case 'b', 'B' -> {
+                    char next = lower(text.charAt(i + 1));
+                    if (next == 'v') {
+                        if (i + 2 <= last && isAsciiLetterOrDigit(text.charAt(i + 2))) {
+                            return true;
+                        }
+                    } else if (next == '2') {
+                        if (i + 2 <= last && text.charAt(i + 2) == '3') {
+                            return true;
+                        }
+                    } else if (next == 'i') {
+                        if (i + 3 <= last && lower(text.charAt(i + 2)) == 'l' && lower(text.charAt(i + 3)) == 'i') {
+                            return true;
+                        }
+                    }
+                }
+                case 'a', 'A', 'c', 'C' -> {
+                    if (lower(text.charAt(i + 1)) == 'v' && i + 2 <= last && isDigit(text.charAt(i + 2))) {
+                        return true;
+                    }
+                }
+                case '哔' -> {
+                    if (text.charAt(i + 1) == '哩') {
+                        return true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
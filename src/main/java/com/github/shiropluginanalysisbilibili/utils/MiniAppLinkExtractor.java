@@ -0,0 +1,72 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 从 QQ 小程序分享（[CQ:json,data=...]）中取出 meta.detail_1.qqdocurl。
+ * <p>
+ * 直接在 CQ 码参数上边反转义边流式解析，只沿着 meta → detail_1 → qqdocurl 这一条路径前进，
+ * 其余字段整体跳过，找到后立即停止，不构建任何 JSON 树。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-17:40
+ */
+public final class MiniAppLinkExtractor {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String[] PATH = {"meta", "detail_1", "qqdocurl"};
+
+    private MiniAppLinkExtractor() {}
+
+    /**
+     * @param message 原始消息
+     * @return qqdocurl，消息中没有 json CQ 码或没有该字段时返回 null
+     * @throws IOException 内嵌的 JSON 格式错误
+     */
+    public static String extract(CharSequence message) throws IOException {
+        for (CqCode.Segment segment : CqCode.parse(message)) {
+            if (segment.is("json")) {
+                Reader data = segment.paramReader("data");
+                if (data != null) {
+                    return qqdocurl(data);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从小程序 JSON 中读取 meta.detail_1.qqdocurl
+     */
+    static String qqdocurl(Reader json) throws IOException {
+        try (JsonParser p = FACTORY.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            int depth = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken token = p.nextToken();
+                if (!PATH[depth].equals(name)) {
+                    p.skipChildren();
+                    continue;
+                }
+                if (depth == PATH.length - 1) {
+                    return token == JsonToken.VALUE_STRING ? p.getText() : null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    return null;
+                }
+                // 进入下一层对象，继续在其中查找路径的下一段
+                depth++;
+            }
+            return null;
+        }
+    }
+}
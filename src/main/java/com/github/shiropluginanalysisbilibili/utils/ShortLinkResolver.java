@@ -0,0 +1,227 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import com.github.shiropluginanalysisbilibili.executor.SingleFlight;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * b23.tv 等短链的解析器：
+ * - 不自动跟随重定向，逐跳读取 Location，遇到能识别的 B 站链接立即停止，不读取任何响应体
+ * - 短码到长链接的映射保存在有上限的 LRU 表中，并持久化到文件，重启后仍然有效
+ * - 同一短码的并发解析只发起一次请求
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-18-10:30
+ */
+public class ShortLinkResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortLinkResolver.class);
+
+    /**
+     * 最多跟随的重定向次数
+     */
+    private static final int MAX_HOPS = 5;
+
+    /**
+     * 累计多少条新映射后写一次文件
+     */
+    private static final int FLUSH_THRESHOLD = 16;
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; BiliAnalysisBot/1.0)";
+
+    private final OkHttpClient client;
+    private final Path storeFile;
+    private final int maxEntries;
+    private final LinkedHashMap<String, String> links;
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private int unsaved;
+
+    /**
+     * @param client     HTTP 客户端，内部会复制一份关闭自动重定向的客户端
+     * @param storeFile  持久化文件，为 null 时只缓存在内存中
+     * @param maxEntries 最多缓存的短码数
+     */
+    public ShortLinkResolver(OkHttpClient client, Path storeFile, int maxEntries) {
+        this.client = client.newBuilder()
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .build();
+        this.storeFile = storeFile;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.links = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > ShortLinkResolver.this.maxEntries;
+            }
+        };
+        load();
+    }
+
+    /**
+     * 解析短链
+     *
+     * @return 长链接，无法解析时返回 null
+     */
+    public String resolve(String shortUrl) throws Exception {
+        String key = key(shortUrl);
+        if (key == null) {
+            return null;
+        }
+        synchronized (links) {
+            String cached = links.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return flight.execute(key, () -> {
+            String resolved = follow(shortUrl);
+            if (resolved != null) {
+                put(key, resolved);
+            }
+            return resolved;
+        });
+    }
+
+    public int size() {
+        synchronized (links) {
+            return links.size();
+        }
+    }
+
+    /**
+     * 把尚未保存的映射写入文件
+     */
+    public synchronized void flush() {
+        if (storeFile == null) {
+            return;
+        }
+        List<Map.Entry<String, String>> snapshot;
+        synchronized (links) {
+            if (unsaved == 0) {
+                return;
+            }
+            snapshot = new ArrayList<>(links.entrySet().size());
+            for (Map.Entry<String, String> e : links.entrySet()) {
+                snapshot.add(Map.entry(e.getKey(), e.getValue()));
+            }
+            unsaved = 0;
+        }
+        try {
+            Files.createDirectories(storeFile.toAbsolutePath().getParent());
+            Path tmp = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                // 按访问顺序写出，加载时最近使用的排在后面，LRU 顺序得以保留
+                for (Map.Entry<String, String> e : snapshot) {
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    writer.write(e.getValue());
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("保存短链缓存失败: {}", storeFile, e);
+        }
+    }
+
+    /**
+     * 逐跳跟随重定向，直到得到能识别的 B 站链接
+     */
+    private String follow(String shortUrl) throws IOException {
+        HttpUrl url = parse(shortUrl);
+        if (url == null) {
+            return null;
+        }
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            Request request = new Request.Builder()
+                    .url(url)
+                    .header("User-Agent", USER_AGENT)
+                    .build();
+            String location;
+            try (Response resp = client.newCall(request).execute()) {
+                // 不读取响应体，关闭时直接丢弃
+                if (!resp.isRedirect()) {
+                    return hop == 0 ? null : url.toString();
+                }
+                location = resp.header("Location");
+            }
+            HttpUrl next = location == null ? null : url.resolve(location);
+            if (next == null) {
+                return url.toString();
+            }
+            url = next;
+            if (isBilibiliHost(url.host()) && BiliLinkExtractor.extract(url.toString()) != null) {
+                return url.toString();
+            }
+        }
+        logger.debug("短链重定向次数过多: {}", shortUrl);
+        return url.toString();
+    }
+
+    private void put(String key, String link) {
+        boolean flush;
+        synchronized (links) {
+            links.put(key, link);
+            flush = ++unsaved >= FLUSH_THRESHOLD;
+        }
+        if (flush) {
+            flush();
+        }
+    }
+
+    private void load() {
+        if (storeFile == null || !Files.isRegularFile(storeFile)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(storeFile, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && tab < line.length() - 1) {
+                    links.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+            logger.info("已加载 {} 条短链缓存", links.size());
+        } catch (IOException e) {
+            logger.warn("读取短链缓存失败: {}", storeFile, e);
+        }
+    }
+
+    /**
+     * 短链的缓存键：域名 + 短码，例如 b23.tv/AbCdEf；不是短链时返回 null
+     */
+    static String key(String shortUrl) {
+        HttpUrl url = parse(shortUrl);
+        if (url == null || url.pathSegments().isEmpty() || url.pathSegments().get(0).isEmpty()) {
+            return null;
+        }
+        return url.host().toLowerCase() + "/" + url.pathSegments().get(0);
+    }
+
+    private static HttpUrl parse(String shortUrl) {
+        return HttpUrl.parse(shortUrl.startsWith("http") ? shortUrl : "https://" + shortUrl);
+    }
+
+    private static boolean isBilibiliHost(String host) {
+        return host.equals("bilibili.com") || host.endsWith(".bilibili.com");
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 生成测试用的单轨分片 MP4（与 B 站 DASH 流结构相同：ftyp、moov，然后是若干 moof + mdat）。
+ * 每个分片 3 个样本，每个样本 5 字节，样本内容由 {@link #sample} 决定，便于在输出中按偏移核对。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-16:20
+ */
+final class Fmp4Fixture {
+
+    static final int SAMPLES_PER_FRAGMENT = 3;
+    static final int SAMPLE_SIZE = 5;
+
+    /**
+     * @param handler         轨道类型，vide 或 soun
+     * @param codec           stsd 中的编码，例如 avc1、mp4a
+     * @param trackId         输入文件中的轨道 ID
+     * @param movieTimescale  mvhd 的 timescale
+     * @param mediaTimescale  mdhd 的 timescale
+     * @param fragmentSeconds 每个分片的时长
+     * @param fragments       分片数
+     * @param version1        mvhd、tkhd、mdhd、elst、tfdt 使用 version 1（64 位时间）
+     * @param absoluteOffsets tfhd 使用显式的 base_data_offset（文件内绝对偏移），否则使用 default-base-is-moof
+     * @param marker          样本内容的标记，区分不同的轨道
+     */
+    record Track(String handler, String codec, int trackId, long movieTimescale, long mediaTimescale,
+                 double fragmentSeconds, int fragments, boolean version1, boolean absoluteOffsets, int marker) {
+
+        long movieDuration() {
+            return Math.round(fragments * fragmentSeconds * movieTimescale);
+        }
+
+        long fragmentMediaDuration() {
+            return Math.round(fragmentSeconds * mediaTimescale);
+        }
+    }
+
+    private Fmp4Fixture() {}
+
+    /**
+     * 第 fragment 个分片中第 index 个样本的内容（每个字节相同）
+     */
+    static byte sample(int marker, int fragment, int index) {
+        return (byte) (marker * 64 + fragment * 8 + index);
+    }
+
+    static byte[] build(Track track) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(box("ftyp", ascii("iso6"), u32(0), ascii("iso6dash")));
+        out.writeBytes(moov(track));
+        for (int f = 0; f < track.fragments(); f++) {
+            long moofOffset = out.size();
+            // moof 大小与偏移的取值无关，先用占位值算出大小
+            int moofSize = moof(track, f, 0, 0).length;
+            out.writeBytes(moof(track, f, moofOffset, moofSize + 8));
+            byte[] data = new byte[SAMPLES_PER_FRAGMENT * SAMPLE_SIZE];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = sample(track.marker(), f, i / SAMPLE_SIZE);
+            }
+            out.writeBytes(box("mdat", data));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] moov(Track t) {
+        boolean v1 = t.version1();
+        long movieDuration = t.movieDuration();
+        byte[] mvhd = v1
+                ? full("mvhd", 1, 0, u64(0), u64(0), u32(t.movieTimescale()), u64(movieDuration), movieTail(t.trackId() + 1))
+                : full("mvhd", 0, 0, u32(0), u32(0), u32(t.movieTimescale()), u32(movieDuration), movieTail(t.trackId() + 1));
+        byte[] tkhdTail = new byte[60];
+        byte[] tkhd = v1
+                ? full("tkhd", 1, 3, u64(0), u64(0), u32(t.trackId()), u32(0), u64(movieDuration), tkhdTail)
+                : full("tkhd", 0, 3, u32(0), u32(0), u32(t.trackId()), u32(0), u32(movieDuration), tkhdTail);
+        byte[] elst = v1
+                ? full("elst", 1, 0, u32(1), u64(movieDuration), u64(0), u32(0x00010000))
+                : full("elst", 0, 0, u32(1), u32(movieDuration), u32(0), u32(0x00010000));
+        long mediaDuration = t.fragments() * t.fragmentMediaDuration();
+        byte[] mdhd = v1
+                ? full("mdhd", 1, 0, u64(0), u64(0), u32(t.mediaTimescale()), u64(mediaDuration), u32(0x55C40000L))
+                : full("mdhd", 0, 0, u32(0), u32(0), u32(t.mediaTimescale()), u32(mediaDuration), u32(0x55C40000L));
+        byte[] hdlr = full("hdlr", 0, 0, u32(0), ascii(t.handler()), new byte[12], ascii("test\0"));
+        byte[] stsd = full("stsd", 0, 0, u32(1), box(t.codec(), new byte[6], new byte[]{0, 1}));
+        byte[] trak = box("trak", tkhd, box("edts", elst),
+                box("mdia", mdhd, hdlr, box("minf", box("stbl", stsd))));
+        byte[] trex = full("trex", 0, 0, u32(t.trackId()), u32(1), u32(0), u32(0), u32(0));
+        return box("moov", mvhd, trak, box("mvex", trex));
+    }
+
+    private static byte[] moof(Track t, int fragment, long moofOffset, long dataOffset) {
+        byte[] tfhd = t.absoluteOffsets()
+                ? full("tfhd", 0, 0x01, u32(t.trackId()), u64(moofOffset))
+                : full("tfhd", 0, 0x020000, u32(t.trackId()));
+        long decodeTime = fragment * t.fragmentMediaDuration();
+        byte[] tfdt = t.version1()
+                ? full("tfdt", 1, 0, u64(decodeTime))
+                : full("tfdt", 0, 0, u32(decodeTime));
+        ByteArrayOutputStream samples = new ByteArrayOutputStream();
+        for (int i = 0; i < SAMPLES_PER_FRAGMENT; i++) {
+            samples.writeBytes(u32(t.fragmentMediaDuration() / SAMPLES_PER_FRAGMENT));
+            samples.writeBytes(u32(SAMPLE_SIZE));
+        }
+        byte[] trun = full("trun", 0, 0x001 | 0x100 | 0x200, u32(SAMPLES_PER_FRAGMENT), u32(dataOffset),
+                samples.toByteArray());
+        return box("moof", full("mfhd", 0, 0, u32(fragment + 1)), box("traf", tfhd, tfdt, trun));
+    }
+
+    /**
+     * mvhd 中 duration 之后的部分：rate、volume、matrix 等，最后是 next_track_ID
+     */
+    private static byte[] movieTail(int nextTrackId) {
+        ByteBuffer buf = ByteBuffer.allocate(80);
+        buf.putInt(0x00010000);
+        buf.putShort((short) 0x0100);
+        buf.position(76);
+        buf.putInt(nextTrackId);
+        return buf.array();
+    }
+
+    static byte[] box(String type, byte[]... parts) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            content.writeBytes(part);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(8 + content.size());
+        buf.putInt(8 + content.size());
+        buf.put(ascii(type));
+        buf.put(content.toByteArray());
+        return buf.array();
+    }
+
+    static byte[] full(String type, int version, int flags, byte[]... parts) {
+        byte[][] all = new byte[parts.length + 1][];
+        all[0] = u32(((long) version << 24) | flags);
+        System.arraycopy(parts, 0, all, 1, parts.length);
+        return box(type, all);
+    }
+
+    static byte[] u32(long value) {
+        return ByteBuffer.allocate(4).putInt((int) value).array();
+    }
+
+    static byte[] u64(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
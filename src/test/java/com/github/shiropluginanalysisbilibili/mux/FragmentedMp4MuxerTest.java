@@ -0,0 +1,261 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link FragmentedMp4Muxer} 对生成的音视频 fMP4 的混流结果：
+ * - 轨道 ID 改写为视频 1、音频 2，mvhd 的时长与 next_track_ID 正确
+ * - 分片按解码时间交错，序号连续
+ * - 按输出文件中 tfhd / trun 给出的偏移取到的样本数据与输入一致（视频使用绝对偏移，音频使用相对 moof 的偏移）
+ * - 截取片段时只保留起始时间早于片段时长的分片，mvhd、tkhd、elst 的时长截短为片段时长
+ * <p>
+ * 输出按顶层 box 独立切分，不经过 {@link Mp4FragmentReader}。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-16:20
+ */
+class FragmentedMp4MuxerTest {
+
+    private static final int VIDEO_MARKER = 1;
+    private static final int AUDIO_MARKER = 2;
+
+    /**
+     * 视频：3 个 2 秒的分片，version 0，tfhd 使用文件内绝对偏移
+     */
+    private static final Fmp4Fixture.Track VIDEO = new Fmp4Fixture.Track(
+            "vide", "avc1", 7, 1000, 90000, 2.0, 3, false, true, VIDEO_MARKER);
+    /**
+     * 音频：6 个 1 秒的分片，version 1，tfhd 使用 default-base-is-moof，movie timescale 与视频不同
+     */
+    private static final Fmp4Fixture.Track AUDIO = new Fmp4Fixture.Track(
+            "soun", "mp4a", 3, 44100, 48000, 1.0, 6, true, false, AUDIO_MARKER);
+
+    /**
+     * 输出文件中的一个顶层 box
+     *
+     * @param offset  box 头在文件中的偏移
+     * @param content box 内容（不含 box 头）
+     */
+    record TopBox(String type, int offset, byte[] content) {
+    }
+
+    /**
+     * 输出中一个分片的摘要
+     */
+    record Fragment(int trackId, double seconds) {
+    }
+
+    @Test
+    void rewritesTrackIdsAndHeaders() throws IOException {
+        List<TopBox> boxes = topLevel(mux(VIDEO, AUDIO, 0));
+        assertEquals("ftyp", boxes.get(0).type());
+        assertEquals("moov", boxes.get(1).type());
+
+        Mp4Box moov = Mp4Box.parse("moov", boxes.get(1).content());
+        List<Mp4Box> traks = moov.all("trak");
+        assertEquals(2, traks.size());
+        assertEquals(1, trackId(traks.get(0)));
+        assertEquals(2, trackId(traks.get(1)));
+        assertEquals("vide", traks.get(0).find("mdia", "hdlr").fourcc(8));
+        assertEquals("soun", traks.get(1).find("mdia", "hdlr").fourcc(8));
+
+        List<Mp4Box> trex = moov.find("mvex").all("trex");
+        assertEquals(1, trex.get(0).u32(4));
+        assertEquals(2, trex.get(1).u32(4));
+
+        Mp4Box mvhd = moov.child("mvhd");
+        assertEquals(1000, mvhd.u32(12));
+        assertEquals(6000, mvhd.u32(16));
+        assertEquals(3, mvhd.u32(mvhd.payload.length - 4));
+        // 音频轨的时长从 44100 换算到输出的 movie timescale
+        assertEquals(6000, tkhdDuration(traks.get(1)));
+        assertEquals(6000, traks.get(1).find("edts", "elst").u64(8));
+    }
+
+    @Test
+    void interleavesFragmentsByDecodeTime() throws IOException {
+        List<TopBox> boxes = topLevel(mux(VIDEO, AUDIO, 0));
+        List<Fragment> fragments = new ArrayList<>();
+        long sequence = 1;
+        for (int i = 2; i < boxes.size(); i += 2) {
+            assertEquals("moof", boxes.get(i).type());
+            assertEquals("mdat", boxes.get(i + 1).type());
+            Mp4Box moof = Mp4Box.parse("moof", boxes.get(i).content());
+            assertEquals(sequence++, moof.child("mfhd").u32(4));
+            fragments.add(fragment(moof));
+        }
+        // 同一时刻视频在前
+        assertEquals(List.of(
+                new Fragment(1, 0), new Fragment(2, 0), new Fragment(2, 1),
+                new Fragment(1, 2), new Fragment(2, 2), new Fragment(2, 3),
+                new Fragment(1, 4), new Fragment(2, 4), new Fragment(2, 5)), fragments);
+    }
+
+    @Test
+    void rewritesDataOffsets() throws IOException {
+        byte[] output = mux(VIDEO, AUDIO, 0);
+        int checked = 0;
+        for (TopBox box : topLevel(output)) {
+            if (!"moof".equals(box.type())) {
+                continue;
+            }
+            Mp4Box moof = Mp4Box.parse("moof", box.content());
+            Mp4Box tfhd = moof.find("traf", "tfhd");
+            Fragment fragment = fragment(moof);
+            if (fragment.trackId() == 1) {
+                // 绝对偏移跟随 moof 平移到输出中的位置
+                assertEquals(0x01, tfhd.flags() & 0x01);
+                assertEquals(box.offset(), tfhd.u64(8));
+            } else {
+                assertEquals(0, tfhd.flags() & 0x01);
+            }
+            Fmp4Fixture.Track track = fragment.trackId() == 1 ? VIDEO : AUDIO;
+            int index = (int) Math.round(fragment.seconds() / track.fragmentSeconds());
+            assertArrayEquals(expectedSamples(track, index), samples(output, box, moof));
+            checked++;
+        }
+        assertEquals(VIDEO.fragments() + AUDIO.fragments(), checked);
+    }
+
+    @Test
+    void clipsToRequestedLength() throws IOException {
+        Fmp4Fixture.Track video = new Fmp4Fixture.Track("vide", "avc1", 1, 1000, 90000, 2.0, 2, false, false, VIDEO_MARKER);
+        Fmp4Fixture.Track audio = new Fmp4Fixture.Track("soun", "mp4a", 2, 48000, 48000, 2.0, 2, true, false, AUDIO_MARKER);
+
+        // 第二个分片从第 2 秒开始，不再写出
+        List<TopBox> clipped = topLevel(mux(video, audio, 2.0));
+        assertEquals(2, count(clipped, "moof"));
+        assertClipDuration(clipped, 2000);
+
+        // 片段时长落在分片中间时，该分片完整保留，头部时长仍为片段时长
+        List<TopBox> rounded = topLevel(mux(video, audio, 3.0));
+        assertEquals(4, count(rounded, "moof"));
+        assertClipDuration(rounded, 3000);
+
+        // 只下载了片段所需前缀的输入（在第一个分片之后截断）
+        byte[] videoPrefix = firstFragment(Fmp4Fixture.build(video));
+        byte[] audioPrefix = firstFragment(Fmp4Fixture.build(audio));
+        List<TopBox> prefix = topLevel(mux(videoPrefix, audioPrefix, 2.0));
+        assertEquals(2, count(prefix, "moof"));
+        assertClipDuration(prefix, 2000);
+    }
+
+    @Test
+    void rejectsSwappedInputs() {
+        assertThrows(UnsupportedMediaException.class, () -> mux(AUDIO, VIDEO, 0));
+    }
+
+    private static void assertClipDuration(List<TopBox> boxes, long duration) {
+        Mp4Box moov = Mp4Box.parse("moov", boxes.get(1).content());
+        assertEquals(duration, moov.child("mvhd").u32(16));
+        for (Mp4Box trak : moov.all("trak")) {
+            Mp4Box elst = trak.find("edts", "elst");
+            assertEquals(duration, tkhdDuration(trak));
+            assertEquals(duration, elst.version() == 1 ? elst.u64(8) : elst.u32(8));
+        }
+    }
+
+    private static long count(List<TopBox> boxes, String type) {
+        return boxes.stream().filter(box -> type.equals(box.type())).count();
+    }
+
+    /**
+     * 截取到第一个 mdat 结束为止的前缀
+     */
+    private static byte[] firstFragment(byte[] file) {
+        for (TopBox box : topLevel(file)) {
+            if ("mdat".equals(box.type())) {
+                return Arrays.copyOf(file, box.offset() + 8 + box.content().length);
+            }
+        }
+        throw new IllegalArgumentException("没有 mdat");
+    }
+
+    static byte[] mux(Fmp4Fixture.Track video, Fmp4Fixture.Track audio, double clipSeconds) throws IOException {
+        return mux(Fmp4Fixture.build(video), Fmp4Fixture.build(audio), clipSeconds);
+    }
+
+    static byte[] mux(byte[] video, byte[] audio, double clipSeconds) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FragmentedMp4Muxer.mux(new ByteArrayInputStream(video), new ByteArrayInputStream(audio), out, clipSeconds);
+        return out.toByteArray();
+    }
+
+    static List<TopBox> topLevel(byte[] file) {
+        List<TopBox> boxes = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.wrap(file);
+        while (buf.remaining() >= 8) {
+            int offset = buf.position();
+            int size = buf.getInt();
+            byte[] type = new byte[4];
+            buf.get(type);
+            byte[] content = new byte[size - 8];
+            buf.get(content);
+            boxes.add(new TopBox(new String(type, StandardCharsets.ISO_8859_1), offset, content));
+        }
+        assertEquals(0, buf.remaining(), "输出末尾有不完整的 box");
+        return boxes;
+    }
+
+    static int trackId(Mp4Box trak) {
+        Mp4Box tkhd = trak.child("tkhd");
+        return (int) tkhd.u32(tkhd.version() == 1 ? 20 : 12);
+    }
+
+    static long tkhdDuration(Mp4Box trak) {
+        Mp4Box tkhd = trak.child("tkhd");
+        return tkhd.version() == 1 ? tkhd.u64(28) : tkhd.u32(20);
+    }
+
+    /**
+     * 分片的轨道 ID 与起始时间（秒），媒体 timescale 取自生成时的设置
+     */
+    private static Fragment fragment(Mp4Box moof) {
+        int trackId = (int) moof.find("traf", "tfhd").u32(4);
+        Mp4Box tfdt = moof.find("traf", "tfdt");
+        long decodeTime = tfdt.version() == 1 ? tfdt.u64(4) : tfdt.u32(4);
+        long timescale = (trackId == 1 ? VIDEO : AUDIO).mediaTimescale();
+        return new Fragment(trackId, decodeTime / (double) timescale);
+    }
+
+    /**
+     * 按 tfhd 与 trun 给出的偏移和样本大小，从输出文件中取出分片的全部样本数据
+     */
+    private static byte[] samples(byte[] file, TopBox moofBox, Mp4Box moof) {
+        Mp4Box tfhd = moof.find("traf", "tfhd");
+        Mp4Box trun = moof.find("traf", "trun");
+        long base = (tfhd.flags() & 0x01) != 0 ? tfhd.u64(8) : moofBox.offset();
+        int start = (int) (base + trun.u32(8));
+        int count = (int) trun.u32(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int position = start;
+        for (int i = 0; i < count; i++) {
+            // 每个样本：duration、size
+            int size = (int) trun.u32(12 + i * 8 + 4);
+            out.write(file, position, size);
+            position += size;
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] expectedSamples(Fmp4Fixture.Track track, int fragment) {
+        byte[] data = new byte[Fmp4Fixture.SAMPLES_PER_FRAGMENT * Fmp4Fixture.SAMPLE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = Fmp4Fixture.sample(track.marker(), fragment, i / Fmp4Fixture.SAMPLE_SIZE);
+        }
+        return data;
+    }
+}
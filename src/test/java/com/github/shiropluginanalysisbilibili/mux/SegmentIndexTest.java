@@ -0,0 +1,104 @@
+package com.github.shiropluginanalysisbilibili.mux;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static com.github.shiropluginanalysisbilibili.mux.Fmp4Fixture.full;
+import static com.github.shiropluginanalysisbilibili.mux.Fmp4Fixture.u32;
+import static com.github.shiropluginanalysisbilibili.mux.Fmp4Fixture.u64;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link SegmentIndex} 对合成的 sidx（version 0 与 version 1）的解析与前缀计算。
+ * 三个子分段各 2 秒，大小分别为 100、200、300 字节，第一个子分段位于 anchor + firstOffset。
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-17:10
+ */
+class SegmentIndexTest {
+
+    private static final long TIMESCALE = 1000;
+    private static final long ANCHOR = 1000;
+    private static final long[] SIZES = {100, 200, 300};
+    private static final long[] DURATIONS = {2000, 2000, 2000};
+
+    @Test
+    void prefixVersion0() throws UnsupportedMediaException {
+        SegmentIndex index = SegmentIndex.parse(sidx(0, 10, SIZES, DURATIONS, false), ANCHOR);
+        // 按子分段取整：3 秒需要前两个子分段
+        assertEquals(new SegmentIndex.Prefix(1310, 4.0), index.prefix(3.0));
+        assertEquals(new SegmentIndex.Prefix(1310, 4.0), index.prefix(4.0));
+        // 至少包含一个子分段
+        assertEquals(new SegmentIndex.Prefix(1110, 2.0), index.prefix(0.5));
+        // 文件比请求的时长短时取整个文件
+        assertEquals(new SegmentIndex.Prefix(1610, 6.0), index.prefix(100));
+    }
+
+    @Test
+    void prefixVersion1() throws UnsupportedMediaException {
+        // version 1 的 first_offset 为 64 位
+        long firstOffset = (5L << 32) + 10;
+        SegmentIndex index = SegmentIndex.parse(sidx(1, firstOffset, SIZES, DURATIONS, false), ANCHOR);
+        assertEquals(new SegmentIndex.Prefix(ANCHOR + firstOffset + 300, 4.0), index.prefix(3.0));
+        assertEquals(new SegmentIndex.Prefix(ANCHOR + firstOffset + 600, 6.0), index.prefix(6.0));
+    }
+
+    @Test
+    void rejectsHierarchicalIndex() {
+        byte[] box = sidx(0, 10, SIZES, DURATIONS, true);
+        assertThrows(UnsupportedMediaException.class, () -> SegmentIndex.parse(box, ANCHOR));
+    }
+
+    @Test
+    void rejectsOtherBoxes() {
+        byte[] box = sidx(0, 10, SIZES, DURATIONS, false);
+        box[4] = 'm';
+        box[5] = 'o';
+        box[6] = 'o';
+        box[7] = 'f';
+        assertThrows(UnsupportedMediaException.class, () -> SegmentIndex.parse(box, ANCHOR));
+    }
+
+    @Test
+    void rejectsTruncatedData() {
+        byte[] box = sidx(0, 10, SIZES, DURATIONS, false);
+        // box 头声明的大小超出实际取到的数据
+        byte[] truncated = Arrays.copyOf(box, box.length - 12);
+        assertThrows(UnsupportedMediaException.class, () -> SegmentIndex.parse(truncated, ANCHOR));
+        // box 完整，但 reference_count 多于实际的引用
+        byte[] missingReference = sidx(0, 10, SIZES, DURATIONS, false, SIZES.length + 1);
+        assertThrows(UnsupportedMediaException.class, () -> SegmentIndex.parse(missingReference, ANCHOR));
+        assertThrows(UnsupportedMediaException.class, () -> SegmentIndex.parse(new byte[4], ANCHOR));
+    }
+
+    private static byte[] sidx(int version, long firstOffset, long[] sizes, long[] durations, boolean hierarchical) {
+        return sidx(version, firstOffset, sizes, durations, hierarchical, sizes.length);
+    }
+
+    private static byte[] sidx(int version, long firstOffset, long[] sizes, long[] durations, boolean hierarchical,
+                               int referenceCount) {
+        ByteArrayOutputStream references = new ByteArrayOutputStream();
+        for (int i = 0; i < sizes.length; i++) {
+            // reference_type(1) + referenced_size(31)、subsegment_duration、starts_with_SAP 等
+            long type = hierarchical && i == sizes.length - 1 ? 0x80000000L : 0;
+            references.writeBytes(u32(type | sizes[i]));
+            references.writeBytes(u32(durations[i]));
+            references.writeBytes(u32(0x90000000L));
+        }
+        byte[] times = version == 1
+                ? concat(u64(0), u64(firstOffset))
+                : concat(u32(0), u32(firstOffset));
+        // reference_ID、timescale、earliest_presentation_time + first_offset、reserved(16) + reference_count(16)
+        return full("sidx", version, 0, u32(1), u32(TIMESCALE), times, u32(referenceCount),
+                references.toByteArray());
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.shiropluginanalysisbilibili.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link BiliLinkExtractor} 与原逐条正则实现 {@link LegacyLinkExtractor} 的识别结果必须一致：
+ * - 固定输入：断言识别出的 {@link BiliLink}，并断言原实现给出相同的类型与 API 地址
+ * - 随机输入：由链接片段拼接出大量文本，逐条比较两者的结果
+ *
+ * @author FlanChan (badapple495@outlook.com)
+ * @since 2025-12-22-10:20
+ */
+class BiliLinkExtractorTest {
+
+    static Stream<Arguments> golden() {
+        return Stream.of(
+                // 视频
+                link("https://www.bilibili.com/video/BV1GJ411x7h7?spm_id_from=333.1007", BiliLink.Kind.VIDEO_BV, "BV1GJ411x7h7"),
+                link("BV1GJ411x7h7", BiliLink.Kind.VIDEO_BV, "BV1GJ411x7h7"),
+                link("看看这个 BV1GJ411x7h7abc 还有 av170001", BiliLink.Kind.VIDEO_BV, "BV1GJ411x7h7"),
+                link("https://www.bilibili.com/video/av80433022/?p=3", BiliLink.Kind.VIDEO_AV, "80433022"),
+                link("av170001 ep300023", BiliLink.Kind.VIDEO_AV, "170001"),
+                // b23 短链：短码本身不可识别，需要先展开；短码中恰好带有 ID 的按 ID 识别
+                none("https://b23.tv/Xk2mQ7a"),
+                link("https://b23.tv/BV1GJ411x7h7", BiliLink.Kind.VIDEO_BV, "BV1GJ411x7h7"),
+                link("https://b23.tv/ep300023", BiliLink.Kind.BANGUMI_EP, "300023"),
+                // 番剧
+                link("https://www.bilibili.com/bangumi/play/ep300023?from_spmid=666.25", BiliLink.Kind.BANGUMI_EP, "300023"),
+                link("https://www.bilibili.com/bangumi/play/ss45969", BiliLink.Kind.BANGUMI_SS, "45969"),
+                link("https://www.bilibili.com/bangumi/media/md28339735", BiliLink.Kind.BANGUMI_MD, "28339735"),
+                link("ss45969 ep300023", BiliLink.Kind.BANGUMI_EP, "300023"),
+                // 直播
+                link("https://live.bilibili.com/21452505?broadcast_type=0", BiliLink.Kind.LIVE_ROOM, "21452505"),
+                link("https://live.bilibili.com/h5/21452505", BiliLink.Kind.LIVE_ROOM, "21452505"),
+                link("https://live.bilibili.com/blanc/21452505", BiliLink.Kind.LIVE_ROOM, "21452505"),
+                link("live.bilibili.com/blanc/x live.bilibili.com/7", BiliLink.Kind.LIVE_ROOM, "7"),
+                // 专栏
+                link("cv19830722", BiliLink.Kind.ARTICLE, "19830722"),
+                link("https://www.bilibili.com/read/cv19830722", BiliLink.Kind.ARTICLE, "19830722"),
+                link("https://www.bilibili.com/read/mobile?id=19830722", BiliLink.Kind.ARTICLE, "19830722"),
+                link("https://www.bilibili.com/read/native/19830722", BiliLink.Kind.ARTICLE, "19830722"),
+                none("专栏 cv19830722"),
+                // 动态
+                link("https://t.bilibili.com/1012345678901234567?share_source=pc_native", BiliLink.Kind.DYNAMIC, "1012345678901234567"),
+                link("https://m.bilibili.com/opus/1012345678901234567", BiliLink.Kind.DYNAMIC, "1012345678901234567"),
+                link("https://t.bilibili.com/284422040?tab=2&type=2", BiliLink.Kind.DYNAMIC_RID, "284422040"),
+                link("https://t.bilibili.com/284422040?tab=2&amp;type=2", BiliLink.Kind.DYNAMIC_RID, "284422040"),
+                link("https://t.bilibili.com/284422040?tab=2\n&type=2", BiliLink.Kind.DYNAMIC, "284422040"),
+                // 不可识别
+                none(""),
+                none("https://www.bilibili.com/festival/2025bnj?spm_id_from=333.1007"),
+                none("BV1GJ411x7"),
+                none("av ep ss md cv"),
+                none("https://space.bilibili.com/2"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("golden")
+    void matchesGoldenAndLegacy(String text, BiliLink expected) {
+        BiliLink actual = BiliLinkExtractor.extract(text);
+        assertEquals(expected, actual, text);
+        assertSameAsLegacy(text, actual);
+    }
+
+    @Test
+    void nullInput() {
+        assertNull(BiliLinkExtractor.extract(null));
+    }
+
+    /**
+     * 由链接片段随机拼接的文本，覆盖片段之间的各种组合与截断
+     */
+    @Test
+    void matchesLegacyOnRandomText() {
+        String[] fragments = {
+                "BV", "BV1GJ411x7h7", "1GJ411x7", "av", "ep", "ss", "md", "cv", "a", "v", "e", "p", "c",
+                "123", "9", "0", "x", "/", "?", "&", "&amp;", "type=2", "id=", "?id=", "opus/", "blanc/", "h5/",
+                "/read/", "mobile", "native", "live.bilibili.com/", "t.bilibili.com/", "m.bilibili.com/",
+                ".bilibili.com/", "https://", "b23.tv/", " ", "\n", "中文", "【】"};
+        Random random = new Random(20251222L);
+        StringBuilder text = new StringBuilder();
+        for (int round = 0; round < 200_000; round++) {
+            text.setLength(0);
+            int parts = 1 + random.nextInt(8);
+            for (int i = 0; i < parts; i++) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String input = text.toString();
+            assertSameAsLegacy(input, BiliLinkExtractor.extract(input));
+        }
+    }
+
+    private static void assertSameAsLegacy(String text, BiliLink actual) {
+        String[] legacy = LegacyLinkExtractor.extract(text);
+        assertEquals(legacy[0], actual == null ? null : actual.type(), () -> "类型不一致: " + text);
+        assertEquals(legacy[1], actual == null ? null : actual.apiUrl(), () -> "API 地址不一致: " + text);
+    }
+
+    private static Arguments link(String text, BiliLink.Kind kind, String id) {
+        return Arguments.of(text, new BiliLink(kind, id));
+    }
+
+    private static Arguments none(String text) {
+        return Arguments.of(text, null);
+    }
+}